@@ -1,16 +1,36 @@
 package com.yhxx.common.utils.redisToolUtils;
 
+import com.yhxx.common.utils.redisToolUtils.metrics.CacheMetrics;
+import com.yhxx.common.utils.redisToolUtils.metrics.CacheMetricsSnapshot;
+import com.yhxx.common.utils.redisToolUtils.metrics.LatencyHistogram;
 import com.yhxx.common.utils.redisToolUtils.moduling.BasicService;
+import com.yhxx.common.utils.redisToolUtils.util.DefaultThreadFactory;
+import com.yhxx.common.utils.redisToolUtils.util.SingleFlight;
+import com.yhxx.common.utils.redisToolUtils.util.TouchCoalescer;
+import com.yhxx.common.utils.redisToolUtils.util.WriteBehindQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
+import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
  * 实现了缓存的基本操作，具体的缓存存储访问由子类实现；
  * 
- * 对getAndFetch方法的缓存写进行加锁，以保证多线程并发下数据的安全性；
+ * 对getAndFetch方法的缓存写按键进行加锁，同一个键的并发加载只执行一次，以保证多线程并发下数据的安全性；
  * 其它方法，如add,get,remove,clear等未提供对缓存读写方法的互斥，实现子类自己保证数据多线程并发下的安全性。
  * 
  * 更新数据库数据时，建议直接淘汰缓存，而不是更新缓存，这样可避免在多线程并发下数据不安全的问题，例如：
@@ -19,6 +39,7 @@ import java.util.function.Supplier;
  * 建议A线程在更新数据库时，做一个2次删除操作，顺序是：先删除缓存->更新数据库->延时删除缓存（根据经验设置延时时间），
  * 这样一定程度上避免B线程在A线程更新数据库前从数据库加载到旧数据去更新缓存，缓存存储的数据与数据库不一致。
  * 另外，对缓存设置时效，也可一定程度上保证缓存存储的数据与数据库的一致。
+ * 数据带有单调递增的版本时，可为redis缓存设置版本代理，按版本写入，此时更新数据库后可直接更新缓存。
  * 
  * @author zsp
  *
@@ -26,10 +47,17 @@ import java.util.function.Supplier;
  */
 public abstract class AbstractCache<T> extends BasicService implements Cache<T> {
 	
+	private static final Logger logger = LoggerFactory.getLogger(AbstractCache.class);
+	
 	/**
 	 * 空值，用于设置不存在的缓存键的值，以防止缓存击穿
 	 */
 	protected final static String EMPTY_VALUE = ".";
+	
+	/**
+	 * 命中空值的标记，由{@link #getValueFromCache(String)}返回
+	 */
+	protected final static Object EMPTY_HIT = new Object();
     
     /**
      * 缓存描述
@@ -56,6 +84,126 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
      */
     private int breakdownPreventExpiredSeconds;
     
+    /**
+     * 执行缓存异步访问的线程池
+     */
+    private Executor asyncExecutor;
+    
+    /**
+     * 阻塞访问的缓存未设置异步线程池时，启动时创建的专用线程池
+     */
+    private volatile DefaultThreadFactory blockingAsyncThreadFactory;
+    
+    /**
+     * 软失效时间占失效时间的比例，取值(0, 1)，0表示不开启提前刷新
+     */
+    private float softExpiredRatio;
+    
+    /**
+     * 按概率提前过期的系数，大于1时更倾向于提前过期，0表示不开启
+     */
+    private double earlyExpirationBeta;
+    
+    /**
+     * 执行提前刷新的线程池，应有界
+     */
+    private DefaultThreadFactory refreshThreadFactory;
+    
+    /**
+     * 正在提前刷新的缓存键
+     */
+    private final Set<String> refreshingKeys = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * 已执行的提前刷新次数
+     */
+    private final LongAdder refreshes = new LongAdder();
+    
+    /**
+     * 因刷新线程池已满而放弃的提前刷新次数
+     */
+    private final LongAdder refreshesDropped = new LongAdder();
+    
+    /**
+     * 正在进行中的按键加载
+     */
+    private final SingleFlight<CachedObject<T>> loadingCalls = new SingleFlight<CachedObject<T>>();
+    
+    /**
+     * 缓存键的存在性过滤器，设置后一定不存在的缓存键不再访问缓存和数据获取代理，也不再写入空值
+     */
+    private ExistenceFilter existenceFilter;
+    
+    /**
+     * 全部存在的缓存键的代理，用于启动时及定时重建存在性过滤器；为null时过滤器应已包含全部缓存键
+     */
+    private Supplier<? extends Iterable<String>> existenceKeySupplier;
+    
+    /**
+     * 重建存在性过滤器的间隔（秒），0表示不定时重建
+     */
+    private int existenceRebuildSeconds;
+    
+    /**
+     * 定时重建存在性过滤器的线程
+     */
+    private ScheduledExecutorService existenceRebuilder;
+    
+    /**
+     * 被存在性过滤器拒绝的次数
+     */
+    private final LongAdder existenceRejects = new LongAdder();
+    
+    /**
+     * 合并延长缓存生命周期的间隔（毫秒），0表示每次命中时直接延长
+     */
+    private long touchFlushMillis;
+    
+    /**
+     * 合并延长时，最近已延长过的缓存键在失效时间的此比例内不再重复延长，0表示不跳过
+     */
+    private float touchSkipRatio;
+    
+    /**
+     * 合并延长缓存生命周期的代理
+     */
+    private volatile TouchCoalescer touchCoalescer;
+    
+    /**
+     * 耗时与加载统计，开启统计时记录
+     */
+    private final CacheMetrics metrics = new CacheMetrics();
+    
+    /**
+     * 失效时间的策略，为null时使用缓存失效时间
+     */
+    private TtlPolicy ttlPolicy;
+    
+    /**
+     * 后写代理，设置后添加到缓存的数据由后台线程分批写入
+     */
+    private CacheWriter<T> cacheWriter;
+    
+    /**
+     * 后写的最大间隔（毫秒）
+     */
+    private long writeBehindFlushMillis = 1000;
+    
+    /**
+     * 后写每批的最大数量
+     */
+    private int writeBehindBatchSize = 100;
+    
+    /**
+     * 后写最多缓冲的缓存键的数量，达到后添加新的缓存键时阻塞等待
+     */
+    private int writeBehindCapacity = 10000;
+    
+    /**
+     * 后写队列
+     */
+    private volatile WriteBehindQueue<T> writeBehindQueue;
+    
     /**
      * 
      * @param name
@@ -68,6 +216,80 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
         this.description = name;
     }
     
+    @Override
+    protected void doStart() {
+    	if (asyncExecutor == null && isBlockingAccess()) {
+    		DefaultThreadFactory threadFactory = new DefaultThreadFactory();
+    		try {
+    			threadFactory.afterPropertiesSet();
+    		} catch(Exception e) {
+    			throw new IllegalStateException(e);
+    		}
+    		blockingAsyncThreadFactory = threadFactory;
+    	}
+    	if (touchFlushMillis > 0) {
+    		TouchCoalescer coalescer = new TouchCoalescer(getName(), touchSkipRatio, this::expireByPolicy);
+    		coalescer.start(touchFlushMillis);
+    		touchCoalescer = coalescer;
+    	}
+    	if (cacheWriter != null) {
+    		WriteBehindQueue<T> queue = new WriteBehindQueue<T>(getName(), cacheWriter::writeAll, 
+    				writeBehindCapacity, writeBehindBatchSize, writeBehindFlushMillis, metrics.getWriteBehindLatency());
+    		queue.start();
+    		writeBehindQueue = queue;
+    	}
+    	if (existenceFilter != null && existenceKeySupplier != null) {
+    		//先完成构建，否则启动后全部缓存键都会被拒绝
+    		rebuildExistenceFilter();
+    		if (existenceRebuildSeconds > 0) {
+    			existenceRebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+    				Thread thread = new Thread(r, "cache-existence-rebuild");
+    				thread.setDaemon(true);
+    				return thread;
+    			});
+    			existenceRebuilder.scheduleWithFixedDelay(this::rebuildExistenceFilter, 
+    					existenceRebuildSeconds, existenceRebuildSeconds, TimeUnit.SECONDS);
+    		}
+    	}
+    }
+    
+    @Override
+    protected void doStop() {
+    	if (existenceRebuilder != null) {
+    		existenceRebuilder.shutdown();
+    		existenceRebuilder = null;
+    	}
+    	TouchCoalescer coalescer = touchCoalescer;
+    	if (coalescer != null) {
+    		touchCoalescer = null;
+    		coalescer.stop();
+    	}
+    	WriteBehindQueue<T> queue = writeBehindQueue;
+    	if (queue != null) {
+    		writeBehindQueue = null;
+    		queue.stop();
+    	}
+    	DefaultThreadFactory threadFactory = blockingAsyncThreadFactory;
+    	if (threadFactory != null) {
+    		blockingAsyncThreadFactory = null;
+    		try {
+    			threadFactory.destroy();
+    		} catch(Exception e) {
+    			logger.error(MessageFormat.format("Exception occured when {0} stop the async executor.", getName()), e);
+    		}
+    	}
+    }
+    
+    /**
+     * 缓存访问是否阻塞当前线程（例如访问redis）；阻塞的缓存未设置异步线程池时，
+     * 启动时创建专用的有界线程池执行异步访问，不占用公共的ForkJoinPool
+     * 
+     * @return
+     */
+    protected boolean isBlockingAccess() {
+    	return false;
+    }
+    
     /**
      * 添加数据到缓存
      *
@@ -76,7 +298,7 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
      */
     @Override
     public final void add(String key, T value) {
-        add(key, value, getExpiredSeconds());
+        add(key, value, expiredSecondsOf(key));
     }
     
     /**
@@ -86,9 +308,52 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
 	 */
     @Override
 	public final void add(Map<String, T> values) {
-    	add(values, getExpiredSeconds());
+    	if (ttlPolicy == null || getExpiredSeconds() <= 0 || values == null) {
+    		add(values, getExpiredSeconds());
+    		return;
+    	}
+    	for (Map.Entry<Integer, Map<String, T>> group : groupByExpiredSeconds(values).entrySet()) {
+    		add(group.getValue(), group.getKey());
+    	}
 	}
     
+    /**
+     * 按策略的失效时间分组
+     * 
+     * @param values
+     * @return 失效时间（秒）-数据
+     */
+    private Map<Integer, Map<String, T>> groupByExpiredSeconds(Map<String, T> values) {
+    	Map<Integer, Map<String, T>> groups = new HashMap<Integer, Map<String, T>>();
+    	for (Map.Entry<String, T> entry : values.entrySet()) {
+    		groups.computeIfAbsent(expiredSecondsOf(entry.getKey()), e -> new HashMap<String, T>())
+    			.put(entry.getKey(), entry.getValue());
+    	}
+    	return groups;
+    }
+    
+    /**
+     * 批量写入从数据获取代理加载的数据：与{@link #add(Map)}相同，按策略的失效时间分组写入并加入存在性过滤器；
+     * 数据来自数据源，因此不进入后写队列
+     * 
+     * @param values	缓存键-数据，不为空
+     */
+    final void addLoaded(Map<String, T> values) {
+    	if (!isStarted()) {
+    		return;
+    	}
+    	if (ttlPolicy == null || getExpiredSeconds() <= 0) {
+    		addToCache(values, getExpiredSeconds());
+    	} else {
+    		for (Map.Entry<Integer, Map<String, T>> group : groupByExpiredSeconds(values).entrySet()) {
+    			addToCache(group.getValue(), group.getKey());
+    		}
+    	}
+    	for (String key : values.keySet()) {
+    		putExistence(key);
+    	}
+    }
+    
     /**
      * 添加数据到缓存，留给子类实现
      *
@@ -114,10 +379,24 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
      */
     @Override
     public final void add(String key, T value, int expiredSeconds) {
+    	final long start = startTiming();
+    	try {
+    		doAdd(key, value, expiredSeconds);
+    	} finally {
+    		recordLatency(metrics.getAddLatency(), start);
+    	}
+    }
+    
+    private void doAdd(String key, T value, int expiredSeconds) {
         if (isStarted()) {
             validateKey(key);
             validateValue(value);
             addToCache(key, value, expiredSeconds);
+            putExistence(key);
+            WriteBehindQueue<T> queue = writeBehindQueue;
+            if (queue != null) {
+            	queue.put(key, value);
+            }
         }
     }
 
@@ -129,6 +408,15 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
      */
     @Override
     public final void add(Map<String, T> values, int expiredSeconds) {
+    	final long start = startTiming();
+    	try {
+    		doAdd(values, expiredSeconds);
+    	} finally {
+    		recordLatency(metrics.getAddLatency(), start);
+    	}
+    }
+    
+    private void doAdd(Map<String, T> values, int expiredSeconds) {
         if (isStarted()) {
             if(values == null || values.size() == 0) {
                 throw new IllegalArgumentException("The values is null.");
@@ -138,9 +426,48 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
                 validateValue(entry.getValue());
             }
             addToCache(values, expiredSeconds);
+            for(String key : values.keySet()) {
+            	putExistence(key);
+            }
+            WriteBehindQueue<T> queue = writeBehindQueue;
+            if (queue != null) {
+            	queue.putAll(values);
+            }
         }
     }
 
+    /**
+     * 异步添加数据到缓存
+     *
+     * @param key   缓存键
+     * @param value 数据
+     */
+    @Override
+    public final CompletableFuture<Void> addAsync(String key, T value) {
+    	return addAsync(key, value, getAsyncExecutor());
+    }
+    
+    /**
+     * 异步添加数据到缓存
+     *
+     * @param key   	缓存键
+     * @param value 	数据
+     * @param executor	执行缓存访问的线程池
+     */
+    @Override
+    public final CompletableFuture<Void> addAsync(String key, T value, Executor executor) {
+    	if (isStarted()) {
+    		validateKey(key);
+    		validateValue(value);
+    		return supplyAsync(() -> {
+    			add(key, value);
+    			return null;
+    		}, executor);
+    	} else {
+    		return CompletableFuture.completedFuture(null);
+    	}
+    }
+
     /**
      * 添加数据到缓存，留给子类实现
      *
@@ -164,19 +491,31 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
      */
     @Override
     public final T get(String key) {
+    	final long start = startTiming();
+    	try {
+    		return doGet(key);
+    	} finally {
+    		recordLatency(metrics.getGetLatency(), start);
+    	}
+    }
+    
+    @SuppressWarnings("unchecked")
+    private T doGet(String key) {
     	if (isStarted()) {
     		validateKey(key);
-    		CachedObject<T> cacheObj = getFromCache(key);
-            if (cacheObj.isNull()) {
+    		if (isDefinitelyAbsent(key)) {
+    			return null;
+    		}
+    		Object value = getValueFromCache(key);
+            if (value == null) {
                 incrMiss();
+            } else if (value == EMPTY_HIT) {
+            	incrEmptyHit();
+            	value = null;
             } else {
-            	if(cacheObj.isEmpty()) {
-            		incrEmptyHit();
-            	} else if(cacheObj.getData() != null) {
-            		handleHit(key);
-            	}
+            	handleHit(key);
             }
-            return cacheObj.getData();
+            return (T) value;
         } else {
             return null;
         }
@@ -188,7 +527,17 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
 	 * @param keys 缓存键
 	 */
     @Override
-	public final List<T> get(Collection<String> keys) {
+    public final List<T> get(Collection<String> keys) {
+    	final long start = startTiming();
+    	try {
+    		return doGet(keys);
+    	} finally {
+    		recordLatency(metrics.getGetLatency(), start);
+    	}
+    }
+    
+    @SuppressWarnings("unchecked")
+	private List<T> doGet(Collection<String> keys) {
     	List<T> list = new ArrayList<T>();
     	if (isStarted()) {
     		if(keys == null || keys.size() == 0) {
@@ -197,18 +546,19 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
         	for(String key : keys) {
         		validateKey(key);
         	}
+        	keys = filterExistence(keys);
+        	if(keys.isEmpty()) {
+        		return list;
+        	}
             //从缓存中获取对象
-			List<CachedObject<T>> cacheObjList = getFromCache(keys); 
-			for(CachedObject<T> cacheObj : cacheObjList) {
-	            if (cacheObj.isNull()) {
+			for(Object value : getValuesFromCache(keys)) {
+	            if (value == null) {
 	                incrMiss();
+	            } else if (value == EMPTY_HIT) {
+	            	incrEmptyHit();
 	            } else {
-	            	if(cacheObj.isEmpty()) {
-	            		incrEmptyHit();
-	            	} else if(cacheObj.getData() != null) {
-		                incrHit();
-		                list.add(cacheObj.getData());
-	            	}
+	                incrHit();
+	                list.add((T) value);
 	            }
 			}
         } 
@@ -225,11 +575,38 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
     @Override
     public final T getAndFetch(String key,
 			Function<String, T> fetcher) {
+    	final long start = startTiming();
+    	try {
+    		return doGetAndFetch(key, fetcher);
+    	} finally {
+    		recordLatency(metrics.getGetAndFetchLatency(), start);
+    	}
+    }
+    
+    @SuppressWarnings("unchecked")
+    private T doGetAndFetch(String key,
+			Function<String, T> fetcher) {
     	if (fetcher == null) {
             throw new IllegalArgumentException("fetcher");
         }
         if (isStarted()) {
         	validateKey(key);
+        	if (isDefinitelyAbsent(key)) {
+        		return null;
+        	}
+        	if (!isRefreshAheadEnabled() && earlyExpirationBeta <= 0) {
+        		//不需要判断提前刷新，不必构建缓存代理对象；未命中时直接加载，不再重复访问缓存
+        		Object value = getValueFromCache(key);
+        		if (value == EMPTY_HIT) {
+        			incrEmptyHit();
+        			return null;
+        		} else if (value != null) {
+        			handleHit(key);
+        			return (T) value;
+        		}
+        		incrMiss();
+        		return fetchObjectWithLock(key, fetcher).getData();
+        	}
             CachedObject<T> cacheObj = getFromCache(key);
             if (cacheObj.isNull()) {
                 incrMiss();
@@ -240,6 +617,7 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
             		incrEmptyHit();
             	} else if(cacheObj.getData() != null) {
             		handleHit(key);
+            		refreshAhead(cacheObj, fetcher);
             	}
             }
             return cacheObj.getData();
@@ -259,6 +637,17 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
     public final List<T> getAndFetch(Collection<String> keys, 
 			Function<String, T> fetcher,
     		Supplier<List<T>> multiFetcher) {
+    	final long start = startTiming();
+    	try {
+    		return doGetAndFetch(keys, fetcher, multiFetcher);
+    	} finally {
+    		recordLatency(metrics.getGetAndFetchLatency(), start);
+    	}
+    }
+    
+    private List<T> doGetAndFetch(Collection<String> keys, 
+			Function<String, T> fetcher,
+    		Supplier<List<T>> multiFetcher) {
     	if (fetcher == null) {
             throw new IllegalArgumentException("fetcher");
         }
@@ -270,6 +659,10 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
         		validateKey(key);
         	}
         	List<T> list = new ArrayList<T>();
+        	keys = filterExistence(keys);
+        	if(keys.isEmpty()) {
+        		return list;
+        	}
             List<CachedObject<T>> cacheObjList = getFromCache(keys);
             Iterator<CachedObject<T>> it = cacheObjList.iterator();
             while(it.hasNext()) {
@@ -283,6 +676,7 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
             			incrEmptyHit();
             		} else if(cacheObj.getData() != null) {
             			handleHit(cacheObj.getKey());
+            			refreshAhead(cacheObj, fetcher);
             		}
             	}
             	T data = cacheObj.getData();
@@ -301,7 +695,266 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
     }
     
     /**
-     * 加锁获取缓存对象，子类可以重写此方法，例如当需要引入分布式锁的场景
+	 * 从缓存获取数据；缓存中没有的数据，一次性从指定的批量代理获取，并批量更新缓存。
+	 * 
+	 * @param keys	缓存键
+	 * @param bulkFetcher	数据批量获取的代理（一般从数据库获取数据）
+	 * @return 按缓存键的顺序返回数据
+	 */
+    @Override
+    public final List<T> getAndFetch(Collection<String> keys,
+    		Function<Collection<String>, Map<String, T>> bulkFetcher) {
+    	final long start = startTiming();
+    	try {
+    		return doGetAndFetch(keys, bulkFetcher);
+    	} finally {
+    		recordLatency(metrics.getGetAndFetchLatency(), start);
+    	}
+    }
+    
+    private List<T> doGetAndFetch(Collection<String> keys,
+    		Function<Collection<String>, Map<String, T>> bulkFetcher) {
+    	if (bulkFetcher == null) {
+            throw new IllegalArgumentException("bulkFetcher");
+        }
+    	if(keys == null || keys.size() == 0) {
+    		throw new IllegalArgumentException("The keys is null.");
+    	}
+        if (isStarted()) {
+        	for(String key : keys) {
+        		validateKey(key);
+        	}
+        	Collection<String> existingKeys = filterExistence(keys);
+        	if(existingKeys.isEmpty()) {
+        		return new ArrayList<T>();
+        	}
+        	//一次从缓存中获取全部对象，按缓存键索引
+        	Map<String, CachedObject<T>> cachedMap = new HashMap<String, CachedObject<T>>();
+        	for(CachedObject<T> cacheObj : getFromCache(existingKeys)) {
+        		cachedMap.put(cacheObj.getKey(), cacheObj);
+        	}
+        	Map<String, T> values = new HashMap<String, T>();
+        	Set<String> missedKeys = new LinkedHashSet<String>();
+        	for(String key : existingKeys) {
+        		CachedObject<T> cacheObj = cachedMap.get(key);
+        		if (cacheObj == null || cacheObj.isNull()) {
+        			if(missedKeys.add(key)) {
+        				incrMiss();
+        			}
+        		} else if (cacheObj.isEmpty()) {
+        			incrEmptyHit();
+        		} else if(cacheObj.getData() != null) {
+        			handleHit(key);
+        			refreshAhead(cacheObj, e -> {
+        				Map<String, T> fetched = bulkFetcher.apply(Collections.singletonList(e));
+        				return fetched != null ? fetched.get(e) : null;
+        			});
+        			values.put(key, cacheObj.getData());
+        		}
+        	}
+        	if(missedKeys.size() > 0) {
+        		//一次从数据获取代理中查找全部未缓存的对象，并批量更新缓存
+        		values.putAll(fetchObjects(missedKeys, bulkFetcher));
+        	}
+        	return orderedValues(keys, values);
+        } else {
+        	Map<String, T> values = bulkFetcher.apply(keys);
+        	if(values == null) {
+        		return new ArrayList<T>();
+        	}
+        	return orderedValues(keys, values);
+        }
+    }
+    
+    /**
+     * 批量获取缓存对象，并批量更新缓存
+     * 
+     * @param keys			未缓存的缓存键
+     * @param bulkFetcher	数据批量获取代理，例如从数据库获取数据
+     * @return 获取到的缓存键-数据
+     */
+    private Map<String, T> fetchObjects(Collection<String> keys,
+    		Function<Collection<String>, Map<String, T>> bulkFetcher) {
+    	final long start = System.nanoTime();
+    	Map<String, T> fetched;
+    	try {
+    		fetched = bulkFetcher.apply(Collections.unmodifiableCollection(keys));
+    	} catch(RuntimeException e) {
+    		recordLoad(start, false);
+    		throw e;
+    	}
+    	recordLoad(start, true);
+    	Map<String, T> values = new HashMap<String, T>();
+    	if(fetched != null) {
+    		for(String key : keys) {
+    			T data = fetched.get(key);
+    			if(data != null) {
+    				values.put(key, data);
+    			}
+    		}
+    	}
+    	if(values.size() > 0) {
+    		//批量写入缓存，按各缓存键的失效时间分组写入
+    		values.keySet().forEach(this::recordAccess);
+    		addLoaded(values);
+    	}
+    	if (isEnableBreakdownPrevent()) {
+    		//空数据处理，防止缓存击穿；设置了存在性过滤器时，只有误判与重建前已删除的缓存键会到达这里
+    		List<String> emptyKeys = new ArrayList<String>();
+    		for(String key : keys) {
+    			if(!values.containsKey(key)) {
+    				emptyKeys.add(key);
+    			}
+    		}
+    		if(emptyKeys.size() > 0) {
+    			int expiredSeconds = getBreakdownPreventExpiredSeconds();
+    			addEmptyToCache(emptyKeys, expiredSeconds > 0 ? expiredSeconds : 1);
+    		}
+    	}
+    	return values;
+    }
+    
+    private List<T> orderedValues(Collection<String> keys, Map<String, T> values) {
+    	List<T> list = new ArrayList<T>(keys.size());
+    	for(String key : keys) {
+    		T data = values.get(key);
+    		if(data != null) {
+    			list.add(data);
+    		}
+    	}
+    	return list;
+    }
+    
+    /**
+     * 异步从缓存获取数据
+     *
+     * @param key 缓存键
+     * @return 数据
+     */
+    @Override
+    public final CompletableFuture<T> getAsync(String key) {
+    	return getAsync(key, getAsyncExecutor());
+    }
+    
+    /**
+     * 异步从缓存获取数据
+     *
+     * @param key 		缓存键
+     * @param executor	执行缓存访问的线程池
+     * @return 数据
+     */
+    @Override
+    public final CompletableFuture<T> getAsync(String key, Executor executor) {
+    	if (isStarted()) {
+    		validateKey(key);
+    		return supplyAsync(() -> get(key), executor);
+    	} else {
+    		return CompletableFuture.completedFuture(null);
+    	}
+    }
+    
+    /**
+     * 异步从缓存获取数据；若缓存中没有数据，则从指定的异步代理中获取数据，并置入缓存。
+     *
+     * @param key     缓存键
+     * @param fetcher 数据异步获取代理（一般从数据库获取数据）
+     * @return 数据
+     */
+    @Override
+    public final CompletableFuture<T> getAndFetchAsync(String key,
+    		Function<String, CompletableFuture<T>> fetcher) {
+    	return getAndFetchAsync(key, fetcher, getAsyncExecutor());
+    }
+    
+    /**
+     * 异步从缓存获取数据；若缓存中没有数据，则从指定的异步代理中获取数据，并置入缓存。
+     * 
+     * 同一个键的并发加载（包括同步的getAndFetch）在jvm内合并为一次，未命中时由{@link #loadObjectAsync}加载。
+     *
+     * @param key     	缓存键
+     * @param fetcher 	数据异步获取代理（一般从数据库获取数据）
+     * @param executor	执行缓存访问的线程池
+     * @return 数据
+     */
+    @Override
+    public final CompletableFuture<T> getAndFetchAsync(String key,
+    		Function<String, CompletableFuture<T>> fetcher,
+    		Executor executor) {
+    	if (fetcher == null) {
+            throw new IllegalArgumentException("fetcher");
+        }
+    	if (isStarted()) {
+    		validateKey(key);
+    		if (isDefinitelyAbsent(key)) {
+    			return CompletableFuture.completedFuture(null);
+    		}
+    		return supplyAsync(() -> getFromCache(key), executor).thenCompose(cacheObj -> {
+    			if (cacheObj.isNull()) {
+    				incrMiss();
+    				//从数据异步获取代理中查找对象，并更新缓存
+    				return loadingCalls.executeAsync(key, () -> loadObjectAsync(key, fetcher, executor))
+    						.thenApply(loadedObj -> {
+    							if (loadedObj.isEmpty()) {
+    					        	incrEmptyHit();
+    					    	} else if(loadedObj.getData() != null) {
+    					    		handleHit(key);
+    					    	}
+    							return loadedObj.getData();
+    						});
+    			}
+    			if (cacheObj.isEmpty()) {
+    				incrEmptyHit();
+    			} else if(cacheObj.getData() != null) {
+    				handleHit(key);
+    				refreshAheadAsync(cacheObj, fetcher, executor);
+    			}
+    			return CompletableFuture.completedFuture(cacheObj.getData());
+    		});
+    	} else {
+    		return fetcher.apply(key);
+    	}
+    }
+    
+    /**
+     * 异步加载缓存对象，同一个键同一时间只有一个加载在进行中；
+     * 子类可以重写此方法，与{@link #loadObject}保持一致，例如当需要引入分布式锁的场景
+     * 
+     * @param key		缓存键
+     * @param fetcher	数据异步获取代理
+     * @param executor	执行缓存访问的线程池
+     * @return
+     */
+    protected CompletableFuture<CachedObject<T>> loadObjectAsync(String key,
+    		Function<String, CompletableFuture<T>> fetcher,
+    		Executor executor) {
+    	//再次访问缓存，即double check，防止多线程并发下，多次访问数据库
+    	CachedObject<T> cacheObj = getFromCache(key);
+    	if (!cacheObj.isNull()) {
+    		return CompletableFuture.completedFuture(cacheObj);
+    	}
+    	return fetchObjectAsync(key, fetcher, executor);
+    }
+    
+    /**
+     * 异步获取缓存对象，获取到数据后在executor中置入缓存
+     * 
+     * @param key		缓存键
+     * @param fetcher	数据异步获取代理
+     * @param executor	执行缓存访问的线程池
+     * @return
+     */
+    private CompletableFuture<CachedObject<T>> fetchObjectAsync(String key,
+    		Function<String, CompletableFuture<T>> fetcher,
+    		Executor executor) {
+    	final long start = System.nanoTime();
+    	return fetcher.apply(key).whenComplete((data, t) -> recordLoad(start, t == null)).thenCompose(data -> {
+    		long computeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    		return supplyAsync(() -> cacheFetched(key, data, computeMillis), executor);
+    	});
+    }
+    
+    /**
+     * 加锁获取缓存对象；同一个键的并发加载合并为一次，不同键的加载互不阻塞
      * 
      * @param key		缓存键
      * @param fetcher	数据获取代理，例如从数据库获取数据
@@ -309,14 +962,8 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
      */
     protected CachedObject<T> fetchObjectWithLock(String key,
     		Function<String, T> fetcher) {
-    	CachedObject<T> cacheObj;
-        synchronized (this) {//加锁防止多线程并发下的重复多次更新缓存
-        	//再次访问缓存，即double check，防止多线程并发下，多次访问数据库
-            cacheObj = getFromCache(key);
-            if (cacheObj.isNull()) {
-                cacheObj = fetchObject(key, fetcher);
-            } 
-        }
+    	//按键合并加载，防止多线程并发下的重复多次更新缓存
+    	CachedObject<T> cacheObj = loadingCalls.execute(key, () -> loadObject(key, fetcher));
         if (cacheObj.isEmpty()) {
         	incrEmptyHit();
     	} else if(cacheObj.getData() != null) {
@@ -325,6 +972,24 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
         return cacheObj;
     }
     
+    /**
+     * 加载缓存对象，同一个键同一时间只有一个线程执行此方法；
+     * 子类可以重写此方法，例如当需要引入分布式锁的场景
+     * 
+     * @param key		缓存键
+     * @param fetcher	数据获取代理，例如从数据库获取数据
+     * @return
+     */
+    protected CachedObject<T> loadObject(String key,
+    		Function<String, T> fetcher) {
+    	//再次访问缓存，即double check，防止多线程并发下，多次访问数据库
+    	CachedObject<T> cacheObj = getFromCache(key);
+        if (cacheObj.isNull()) {
+            cacheObj = fetchObject(key, fetcher);
+        }
+        return cacheObj;
+    }
+    
     /**
      * 获取缓存对象
      * @param key		缓存键
@@ -333,13 +998,34 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
      */
     protected final CachedObject<T> fetchObject(String key, 
     		Function<String, T> fetcher) {
-    	CachedObject<T> cacheObj = null;
     	//从数据库获取数据
-        final T data = fetcher.apply(key);
+    	final long start = System.nanoTime();
+    	final T data;
+    	try {
+    		data = fetcher.apply(key);
+    	} catch(RuntimeException e) {
+    		recordLoad(start, false);
+    		throw e;
+    	}
+    	recordLoad(start, true);
+        long computeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return cacheFetched(key, data, computeMillis);
+    }
+    
+    /**
+     * 将从数据获取代理获取到的数据置入缓存
+     * 
+     * @param key				缓存键
+     * @param data				获取到的数据，null表示数据不存在
+     * @param computeMillis		获取数据的耗时（毫秒）
+     * @return
+     */
+    private CachedObject<T> cacheFetched(String key, T data, long computeMillis) {
+    	CachedObject<T> cacheObj = null;
         if(data != null) {
         	cacheObj = new CachedObject<T>(key, data);
-        	addCachedObject(key, cacheObj);
-        	int expiredSeconds = getExpiredSeconds();
+        	addComputedToCache(key, data, computeMillis);
+        	int expiredSeconds = expiredSecondsOf(key);
             if (expiredSeconds > 0) {
             	expire(key, expiredSeconds);
             }
@@ -361,13 +1047,334 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
         return cacheObj;
     }
     
-    protected final void handleHit(String key) {
-    	incrHit();
-        int expiredSeconds = getExpiredSeconds();
-        if (expiredSeconds > 0) {
-        	//延长缓存的生命周期
-        	expire(key, expiredSeconds);
-        }
+    /**
+     * 缓存键是否一定不存在；一定不存在时按空值命中统计
+     * 
+     * @param key	缓存键
+     * @return
+     */
+    private boolean isDefinitelyAbsent(String key) {
+    	ExistenceFilter filter = existenceFilter;
+    	if (filter == null || filter.mightContain(key)) {
+    		return false;
+    	}
+    	existenceRejects.increment();
+    	incrEmptyHit();
+    	return true;
+    }
+    
+    /**
+     * 过滤掉一定不存在的缓存键
+     * 
+     * @param keys	缓存键
+     * @return 可能存在的缓存键
+     */
+    private Collection<String> filterExistence(Collection<String> keys) {
+    	if (existenceFilter == null) {
+    		return keys;
+    	}
+    	List<String> existingKeys = new ArrayList<String>(keys.size());
+    	for(String key : keys) {
+    		if(!isDefinitelyAbsent(key)) {
+    			existingKeys.add(key);
+    		}
+    	}
+    	return existingKeys;
+    }
+    
+    private void putExistence(String key) {
+    	ExistenceFilter filter = existenceFilter;
+    	if (filter != null) {
+    		filter.put(key);
+    	}
+    }
+    
+    /**
+     * 用全部存在的缓存键重建存在性过滤器
+     */
+    public final void rebuildExistenceFilter() {
+    	ExistenceFilter filter = existenceFilter;
+    	Supplier<? extends Iterable<String>> keySupplier = existenceKeySupplier;
+    	if (filter == null || keySupplier == null) {
+    		return;
+    	}
+    	try {
+    		long start = System.currentTimeMillis();
+    		//延迟到重建开始后再获取缓存键，获取期间的新增已同时写入重建中的过滤器
+    		filter.rebuild(() -> keySupplier.get().iterator());
+    		logger.info(MessageFormat.format("{0} rebuilt the existence filter in {1} ms.", 
+    				getName(), System.currentTimeMillis() - start));
+    	} catch(Throwable t) {
+    		logger.error(MessageFormat.format("Exception occured when {0} rebuild the existence filter.", getName()), t);
+    	}
+    }
+    
+    /**
+     * 开始计时，未开启统计时返回0
+     * 
+     * @return
+     */
+    protected final long startTiming() {
+    	return isEnableStat() ? System.nanoTime() : 0;
+    }
+    
+    /**
+     * 记录耗时
+     * 
+     * @param histogram	耗时直方图
+     * @param start		{@link #startTiming()}的返回值，为0时不记录
+     */
+    protected final void recordLatency(LatencyHistogram histogram, long start) {
+    	if (start != 0) {
+    		histogram.record(System.nanoTime() - start);
+    	}
+    }
+    
+    /**
+     * 记录数据序列化或反序列化的耗时，由子类在转换数据时调用
+     * 
+     * @param start	{@link #startTiming()}的返回值，为0时不记录
+     */
+    protected final void recordSerialization(long start) {
+    	recordLatency(metrics.getSerializationLatency(), start);
+    }
+    
+    /**
+     * 记录数据压缩的耗时与压缩前后的字节数，由子类在压缩数据时调用
+     * 
+     * @param start					{@link #startTiming()}的返回值，为0时不记录
+     * @param uncompressedLength	压缩前的字节数
+     * @param compressedLength		压缩后实际写入的字节数
+     */
+    protected final void recordCompression(long start, int uncompressedLength, int compressedLength) {
+    	if (start != 0) {
+    		recordLatency(metrics.getCompressionLatency(), start);
+    		metrics.recordCompression(uncompressedLength, compressedLength);
+    	}
+    }
+    
+    /**
+     * 记录数据解压的耗时，由子类在解压数据时调用
+     * 
+     * @param start	{@link #startTiming()}的返回值，为0时不记录
+     */
+    protected final void recordDecompression(long start) {
+    	recordLatency(metrics.getDecompressionLatency(), start);
+    }
+    
+    private void recordLoad(long start, boolean success) {
+    	if (isEnableStat()) {
+    		metrics.getLoadLatency().record(System.nanoTime() - start);
+    		metrics.recordLoad(success);
+    	}
+    }
+    
+    protected final void handleHit(String key) {
+    	incrHit();
+    	recordAccess(key);
+        int expiredSeconds = expiredSecondsOf(key);
+        if (expiredSeconds > 0 && !isRefreshAheadEnabled()) {
+        	//延长缓存的生命周期；开启提前刷新时，由提前刷新来保持热点缓存
+        	TouchCoalescer coalescer = touchCoalescer;
+        	if (coalescer != null) {
+        		coalescer.touch(key, TimeUnit.SECONDS.toMillis(expiredSeconds));
+        	} else {
+        		expire(key, expiredSeconds);
+        	}
+        }
+    }
+    
+    /**
+     * 获取缓存键的失效时间：设置了失效时间的策略时由策略决定，否则为缓存失效时间
+     * 
+     * @param key	缓存键
+     * @return 失效时间（秒）
+     */
+    protected final int expiredSecondsOf(String key) {
+    	int expiredSeconds = getExpiredSeconds();
+    	TtlPolicy policy = ttlPolicy;
+    	if (policy == null || expiredSeconds <= 0) {
+    		return expiredSeconds;
+    	}
+    	int seconds = policy.expiredSeconds(key, expiredSeconds);
+    	if (seconds < 1) {
+    		seconds = expiredSeconds;
+    	}
+    	if (isEnableStat()) {
+    		metrics.getTtlDistribution().record(TimeUnit.SECONDS.toNanos(seconds));
+    	}
+    	return seconds;
+    }
+    
+    /**
+     * 缓存键可能的最大失效时间：设置了失效时间的策略时为策略的最大失效时间，否则为缓存失效时间
+     * 
+     * @return 最大失效时间（秒），0表示不过期
+     */
+    protected final int getMaxExpiredSeconds() {
+    	int expiredSeconds = getExpiredSeconds();
+    	TtlPolicy policy = ttlPolicy;
+    	if (policy == null || expiredSeconds <= 0) {
+    		return expiredSeconds;
+    	}
+    	return Math.max(expiredSeconds, policy.maxExpiredSeconds(expiredSeconds));
+    }
+    
+    private void recordAccess(String key) {
+    	TtlPolicy policy = ttlPolicy;
+    	if (policy != null) {
+    		policy.recordAccess(key);
+    	}
+    }
+    
+    /**
+     * 按各缓存键的失效时间分组批量延长
+     * 
+     * @param keys
+     */
+    private void expireByPolicy(Collection<String> keys) {
+    	if (ttlPolicy == null) {
+    		expire(keys, getExpiredSeconds());
+    		return;
+    	}
+    	Map<Integer, List<String>> groups = new HashMap<Integer, List<String>>();
+    	for (String key : keys) {
+    		groups.computeIfAbsent(expiredSecondsOf(key), e -> new ArrayList<String>()).add(key);
+    	}
+    	for (Map.Entry<Integer, List<String>> group : groups.entrySet()) {
+    		if (group.getKey() > 0) {
+    			expire(group.getValue(), group.getKey());
+    		}
+    	}
+    }
+    
+    /**
+     * 提前刷新：命中的缓存已超过软失效时间，或按概率提前过期时，直接返回缓存的数据，并重新加载一次；
+     * 同一个键同一时间只有一个刷新任务，刷新线程池已满时放弃本次刷新。
+     * 
+     * @param cacheObj	命中的缓存对象
+     * @param fetcher	数据获取代理，例如从数据库获取数据
+     */
+    private void refreshAhead(CachedObject<T> cacheObj, Function<String, T> fetcher) {
+    	if (shouldRefresh(cacheObj)) {
+    		scheduleRefresh(cacheObj.getKey(), fetcher);
+    	}
+    }
+    
+    /**
+     * 异步提前刷新：与{@link #refreshAhead}相同，但重新加载由数据异步获取代理完成，不阻塞当前线程
+     * 
+     * @param cacheObj	命中的缓存对象
+     * @param fetcher	数据异步获取代理
+     * @param executor	执行缓存访问的线程池
+     */
+    private void refreshAheadAsync(CachedObject<T> cacheObj, 
+    		Function<String, CompletableFuture<T>> fetcher,
+    		Executor executor) {
+    	final String key = cacheObj.getKey();
+    	if (!shouldRefresh(cacheObj) || !refreshingKeys.add(key)) {
+    		return;
+    	}
+    	loadingCalls.executeAsync(key, () -> fetchObjectAsync(key, fetcher, executor)).whenComplete((v, t) -> {
+    		refreshingKeys.remove(key);
+    		if (t == null) {
+    			refreshes.increment();
+    		} else {
+    			logger.error(MessageFormat.format("Exception occured when {0} refresh the key {1}.", getName(), key), t);
+    		}
+    	});
+    }
+    
+    /**
+     * 命中的缓存是否需要提前刷新
+     * 
+     * @param cacheObj	命中的缓存对象
+     * @return
+     */
+    private boolean shouldRefresh(CachedObject<T> cacheObj) {
+    	return (isRefreshAheadEnabled() && isSoftExpired(cacheObj)) || isExpiredEarly(cacheObj);
+    }
+    
+    /**
+     * 重新加载一次缓存；设置了刷新线程池时在后台执行，否则由当前线程执行
+     * 
+     * @param key		缓存键
+     * @param fetcher	数据获取代理，例如从数据库获取数据
+     */
+    private void scheduleRefresh(String key, Function<String, T> fetcher) {
+    	if (!refreshingKeys.add(key)) {
+    		return;
+    	}
+    	Runnable refresher = () -> {
+    		try {
+    			loadingCalls.execute(key, () -> fetchObject(key, fetcher));
+    			refreshes.increment();
+    		} catch(Throwable t) {
+    			logger.error(MessageFormat.format("Exception occured when {0} refresh the key {1}.", getName(), key), t);
+    		} finally {
+    			refreshingKeys.remove(key);
+    		}
+    	};
+    	DefaultThreadFactory threadFactory = refreshThreadFactory;
+    	if (threadFactory == null) {
+    		refresher.run();
+    		return;
+    	}
+    	try {
+    		threadFactory.execute(refresher);
+    	} catch(RejectedExecutionException e) {
+    		refreshingKeys.remove(key);
+    		refreshesDropped.increment();
+    	}
+    }
+    
+    /**
+     * 按概率提前过期（XFetch）：越接近过期时间、计算耗时越长，越有可能提前重新计算，
+     * 即 当前时间 - 计算耗时 * beta * ln(random()) >= 过期时间。
+     * 缓存对象未带有计算耗时与过期时间时，不会提前过期。
+     * 
+     * @param cacheObj	命中的缓存对象
+     * @return
+     */
+    private boolean isExpiredEarly(CachedObject<T> cacheObj) {
+    	double beta = earlyExpirationBeta;
+    	long computeMillis = cacheObj.getComputeMillis();
+    	long expireTime = cacheObj.getExpireTime();
+    	if (beta <= 0 || computeMillis <= 0 || expireTime <= 0) {
+    		return false;
+    	}
+    	double gap = -computeMillis * beta * Math.log(ThreadLocalRandom.current().nextDouble());
+    	return System.currentTimeMillis() + gap >= expireTime;
+    }
+    
+    /**
+     * 判断缓存是否已超过软失效时间，即剩余的生存时间不大于失效时间减去软失效时间；
+     * 优先按缓存对象带有的逻辑过期时间计算，未带有时才查询生存时间
+     * 
+     * @param cacheObj 命中的缓存对象
+     * @return
+     */
+    private boolean isSoftExpired(CachedObject<T> cacheObj) {
+    	int expiredSeconds = getExpiredSeconds();
+    	long softExpiredSeconds = (long)(expiredSeconds * softExpiredRatio);
+    	long expireTime = cacheObj.getExpireTime();
+    	if (expireTime > 0) {
+    		long ttlMillis = expireTime - System.currentTimeMillis();
+    		return ttlMillis > 0 && ttlMillis <= TimeUnit.SECONDS.toMillis(expiredSeconds - softExpiredSeconds);
+    	}
+    	long ttl = ttl(cacheObj.getKey());
+    	return ttl > 0 && ttl <= expiredSeconds - softExpiredSeconds;
+    }
+    
+    /**
+     * 是否开启了提前刷新
+     * 
+     * @return
+     */
+    public boolean isRefreshAheadEnabled() {
+    	return softExpiredRatio > 0 && softExpiredRatio < 1
+    			&& refreshThreadFactory != null
+    			&& getExpiredSeconds() > 0;
     }
     
     private void addCachedObject(String key, CachedObject<T> value) {
@@ -378,6 +1385,17 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
 		}
     }
     
+    /**
+     * 添加从数据获取代理获取到的数据到缓存，子类可以重写此方法，同时保存计算数据的耗时，用于提前过期的判断
+     * 
+     * @param key			缓存键
+     * @param value			数据
+     * @param computeMillis	获取数据的耗时（毫秒）
+     */
+    protected void addComputedToCache(String key, T value, long computeMillis) {
+    	addToCache(key, value);
+    }
+    
     @SuppressWarnings("unchecked")
 	protected final <V> CachedObject<T> asCachedObject(String key, 
 			V value, 
@@ -402,6 +1420,19 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
      */
     protected abstract void addEmptyToCache(String key);
     
+    /**
+     * 批量添加空值并设置失效时间，防止缓存击穿；子类可以重写此方法一次写入
+     * 
+     * @param keys		缓存键
+     * @param seconds	失效时间（秒）
+     */
+    protected void addEmptyToCache(Collection<String> keys, int seconds) {
+    	for(String key : keys) {
+    		addEmptyToCache(key);
+    	}
+    	expire(keys, seconds);
+    }
+    
     /**
      * 判断实际缓存的对象是否是空值，留给子类实现
      * 
@@ -418,6 +1449,41 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
      */
     protected abstract CachedObject<T> getFromCache(String key);
     
+    /**
+     * 从缓存获取实际缓存的数据，不构建缓存代理对象：未命中返回null，命中空值返回{@link #EMPTY_HIT}；
+     * 默认由{@link #getFromCache(String)}转换，子类可以重写此方法，命中时不分配对象。
+     *
+     * @param key 缓存键
+     * @return 数据
+     */
+    protected Object getValueFromCache(String key) {
+    	return valueOf(getFromCache(key));
+    }
+    
+    /**
+     * 从缓存批量获取实际缓存的数据，不构建缓存代理对象，含义同{@link #getValueFromCache(String)}；
+     * 返回的数据不保证与缓存键的顺序一致。
+     *
+     * @param keys 缓存键
+     * @return 数据
+     */
+    protected Object[] getValuesFromCache(Collection<String> keys) {
+    	List<CachedObject<T>> cacheObjList = getFromCache(keys);
+    	Object[] values = new Object[cacheObjList.size()];
+    	int i = 0;
+    	for(CachedObject<T> cacheObj : cacheObjList) {
+    		values[i++] = valueOf(cacheObj);
+    	}
+    	return values;
+    }
+    
+    private Object valueOf(CachedObject<T> cacheObj) {
+    	if (cacheObj.isEmpty()) {
+    		return EMPTY_HIT;
+    	}
+    	return cacheObj.getData();
+    }
+    
     /**
      * 从缓存获取数据，留给子类实现
      *
@@ -450,6 +1516,15 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
      */
     @Override
     public final void remove(String key) {
+    	final long start = startTiming();
+    	try {
+    		doRemove(key);
+    	} finally {
+    		recordLatency(metrics.getRemoveLatency(), start);
+    	}
+    }
+    
+    private void doRemove(String key) {
         if (isStarted()) {
         	validateKey(key);
         	removeFromCache(key);
@@ -462,7 +1537,16 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
 	 * @param keys 缓存键
 	 */
     @Override
-	public final void remove(Collection<String> keys) {
+    public final void remove(Collection<String> keys) {
+    	final long start = startTiming();
+    	try {
+    		doRemove(keys);
+    	} finally {
+    		recordLatency(metrics.getRemoveLatency(), start);
+    	}
+    }
+    
+	private void doRemove(Collection<String> keys) {
     	if (isStarted()) {
     		if(keys == null || keys.size() == 0) {
         		throw new IllegalArgumentException("The keys is null.");
@@ -474,6 +1558,46 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
         }
 	}
     
+    /**
+     * 异步从缓存删除数据
+     *
+     * @param key 缓存键
+     */
+    @Override
+    public final CompletableFuture<Void> removeAsync(String key) {
+    	return removeAsync(key, getAsyncExecutor());
+    }
+    
+    /**
+     * 异步从缓存删除数据
+     *
+     * @param key 		缓存键
+     * @param executor	执行缓存访问的线程池
+     */
+    @Override
+    public final CompletableFuture<Void> removeAsync(String key, Executor executor) {
+    	if (isStarted()) {
+    		validateKey(key);
+    		return supplyAsync(() -> {
+    			remove(key);
+    			return null;
+    		}, executor);
+    	} else {
+    		return CompletableFuture.completedFuture(null);
+    	}
+    }
+    
+    /**
+     * 在指定的线程池中执行缓存访问，子类可以重写此方法，例如访问本地内存时直接在调用线程中执行
+     * 
+     * @param supplier	缓存访问
+     * @param executor	执行缓存访问的线程池
+     * @return
+     */
+    protected <R> CompletableFuture<R> supplyAsync(Supplier<R> supplier, Executor executor) {
+    	return CompletableFuture.supplyAsync(supplier, executor);
+    }
+    
     /**
      * 从缓存删除数据，留给子类实现
      *
@@ -651,6 +1775,329 @@ public abstract class AbstractCache<T> extends BasicService implements Cache<T>
 		this.enableBreakdownPrevent = enableBreakdownPrevent;
 	}
 
+    /**
+     * 获取执行缓存异步访问的线程池；未设置时，阻塞访问的缓存使用启动时创建的专用线程池，其它使用公共的ForkJoinPool
+     * 
+     * @return
+     */
+    public Executor getAsyncExecutor() {
+    	Executor executor = asyncExecutor;
+    	if (executor != null) {
+    		return executor;
+    	}
+    	executor = blockingAsyncThreadFactory;
+		return executor != null ? executor : ForkJoinPool.commonPool();
+	}
+
+    /**
+     * 设置执行缓存异步访问的线程池，应在启动前设置；阻塞访问的缓存应使用有界的线程池
+     * 
+     * @param asyncExecutor
+     */
+	public void setAsyncExecutor(Executor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+
+    /**
+     * 获取软失效时间占失效时间的比例
+     * 
+     * @return
+     */
+    public float getSoftExpiredRatio() {
+		return softExpiredRatio;
+	}
+
+    /**
+     * 设置软失效时间占失效时间的比例，取值(0, 1)，0表示不开启提前刷新；
+     * 命中的缓存超过软失效时间后，返回缓存的数据，并在后台重新加载。
+     * 
+     * @param softExpiredRatio
+     */
+	public void setSoftExpiredRatio(float softExpiredRatio) {
+		if(softExpiredRatio < 0 || softExpiredRatio >= 1) {
+			throw new IllegalArgumentException("The value should be in [0, 1).");
+		}
+		this.softExpiredRatio = softExpiredRatio;
+	}
+
+	public double getEarlyExpirationBeta() {
+		return earlyExpirationBeta;
+	}
+
+	/**
+	 * 设置按概率提前过期的系数，通常为1，大于1时更倾向于提前过期，0表示不开启；
+	 * 需要缓存实现保存缓存项的计算耗时与过期时间。
+	 * 
+	 * @param earlyExpirationBeta
+	 */
+	public void setEarlyExpirationBeta(double earlyExpirationBeta) {
+		if(earlyExpirationBeta < 0) {
+			throw new IllegalArgumentException("The value should not be less than 0.");
+		}
+		this.earlyExpirationBeta = earlyExpirationBeta;
+	}
+
+	public DefaultThreadFactory getRefreshThreadFactory() {
+		return refreshThreadFactory;
+	}
+
+	/**
+	 * 设置执行提前刷新的线程池
+	 * 
+	 * @param refreshThreadFactory
+	 */
+	public void setRefreshThreadFactory(DefaultThreadFactory refreshThreadFactory) {
+		this.refreshThreadFactory = refreshThreadFactory;
+	}
+
+	/**
+	 * 获取已执行的提前刷新次数
+	 * 
+	 * @return
+	 */
+	public long getRefreshCount() {
+		return refreshes.longValue();
+	}
+
+	/**
+	 * 获取因刷新线程池已满而放弃的提前刷新次数
+	 * 
+	 * @return
+	 */
+	public long getRefreshDroppedCount() {
+		return refreshesDropped.longValue();
+	}
+
+	public ExistenceFilter getExistenceFilter() {
+		return existenceFilter;
+	}
+
+	/**
+	 * 设置缓存键的存在性过滤器，一定不存在的缓存键不再访问缓存和数据获取代理，也不再写入空值；
+	 * 通过过滤器但不存在的缓存键（误判，或重建前已删除）仍写入空值，防止缓存击穿。
+	 * 过滤器不支持删除，已删除的缓存键在重建前仍可能存在。
+	 * 
+	 * @param existenceFilter
+	 */
+	public void setExistenceFilter(ExistenceFilter existenceFilter) {
+		this.existenceFilter = existenceFilter;
+	}
+
+	public Supplier<? extends Iterable<String>> getExistenceKeySupplier() {
+		return existenceKeySupplier;
+	}
+
+	public void setExistenceKeySupplier(Supplier<? extends Iterable<String>> existenceKeySupplier) {
+		this.existenceKeySupplier = existenceKeySupplier;
+	}
+
+	public int getExistenceRebuildSeconds() {
+		return existenceRebuildSeconds;
+	}
+
+	public void setExistenceRebuildSeconds(int existenceRebuildSeconds) {
+		if(existenceRebuildSeconds < 0) {
+			throw new IllegalArgumentException("The value should not be less than 0.");
+		}
+		this.existenceRebuildSeconds = existenceRebuildSeconds;
+	}
+	
+	/**
+	 * 被存在性过滤器拒绝的次数
+	 * 
+	 * @return
+	 */
+	public long getExistenceRejectCount() {
+		return existenceRejects.longValue();
+	}
+
+	/**
+	 * 耗时与加载统计，开启统计时记录
+	 * 
+	 * @return
+	 */
+	public CacheMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * 获取缓存统计的快照，包含命中、淘汰、加载次数与各操作的耗时分布
+	 * 
+	 * @return
+	 */
+	public CacheMetricsSnapshot getMetricsSnapshot() {
+		return new CacheMetricsSnapshot(getName(), getType(), 
+				getHits(), getEmptyHits(), getMisses(), getEvictionCount(), getWriteBehindPendingCount(), metrics);
+	}
+	
+	/**
+	 * 按容量淘汰的次数，有容量限制的子类重写此方法
+	 * 
+	 * @return
+	 */
+	public long getEvictionCount() {
+		return 0;
+	}
+
+	public TtlPolicy getTtlPolicy() {
+		return ttlPolicy;
+	}
+
+	/**
+	 * 设置失效时间的策略：写入与命中延长时按缓存键决定失效时间，例如{@link FrequencyTtlPolicy}按访问频率调整；
+	 * 为null时使用缓存失效时间。应在启动前设置
+	 * 
+	 * @param ttlPolicy
+	 */
+	public void setTtlPolicy(TtlPolicy ttlPolicy) {
+		this.ttlPolicy = ttlPolicy;
+	}
+
+	public long getTouchFlushMillis() {
+		return touchFlushMillis;
+	}
+
+	/**
+	 * 设置合并延长缓存生命周期的间隔（毫秒）：命中时只在本地记录，按此间隔批量延长；0表示每次命中时直接延长。
+	 * 应在启动前设置，且远小于缓存失效时间。
+	 * 
+	 * @param touchFlushMillis
+	 */
+	public void setTouchFlushMillis(long touchFlushMillis) {
+		if(touchFlushMillis < 0) {
+			throw new IllegalArgumentException("The value should not be less than 0.");
+		}
+		this.touchFlushMillis = touchFlushMillis;
+	}
+
+	public float getTouchSkipRatio() {
+		return touchSkipRatio;
+	}
+
+	/**
+	 * 设置合并延长时的跳过比例：最近已延长过的缓存键，在失效时间乘以此比例的时长内不再重复延长；0表示不跳过。应在启动前设置
+	 * 
+	 * @param touchSkipRatio
+	 */
+	public void setTouchSkipRatio(float touchSkipRatio) {
+		if(touchSkipRatio < 0 || touchSkipRatio >= 1) {
+			throw new IllegalArgumentException("The value should be in [0, 1).");
+		}
+		this.touchSkipRatio = touchSkipRatio;
+	}
+	
+	/**
+	 * 合并延长时已批量延长的次数（按缓存键计）
+	 * 
+	 * @return
+	 */
+	public long getTouchFlushedCount() {
+		TouchCoalescer coalescer = touchCoalescer;
+		return coalescer != null ? coalescer.getFlushedCount() : 0;
+	}
+	
+	/**
+	 * 合并延长时因最近已延长过而跳过的次数
+	 * 
+	 * @return
+	 */
+	public long getTouchSkippedCount() {
+		TouchCoalescer coalescer = touchCoalescer;
+		return coalescer != null ? coalescer.getSkippedCount() : 0;
+	}
+
+	public CacheWriter<T> getCacheWriter() {
+		return cacheWriter;
+	}
+
+	/**
+	 * 设置后写代理：添加到缓存的数据立即生效，同时按缓存键合并后由后台线程分批写入，停止时写出剩余的数据。
+	 * 应在启动前设置；加载代理获取的数据不会写入。
+	 * 
+	 * @param cacheWriter
+	 */
+	public void setCacheWriter(CacheWriter<T> cacheWriter) {
+		this.cacheWriter = cacheWriter;
+	}
+
+	public long getWriteBehindFlushMillis() {
+		return writeBehindFlushMillis;
+	}
+
+	/**
+	 * 设置后写的最大间隔（毫秒），缓冲的数量达到批次大小时提前写出
+	 * 
+	 * @param writeBehindFlushMillis
+	 */
+	public void setWriteBehindFlushMillis(long writeBehindFlushMillis) {
+		if(writeBehindFlushMillis < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		this.writeBehindFlushMillis = writeBehindFlushMillis;
+	}
+
+	public int getWriteBehindBatchSize() {
+		return writeBehindBatchSize;
+	}
+
+	/**
+	 * 设置后写每批的最大数量
+	 * 
+	 * @param writeBehindBatchSize
+	 */
+	public void setWriteBehindBatchSize(int writeBehindBatchSize) {
+		if(writeBehindBatchSize < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		this.writeBehindBatchSize = writeBehindBatchSize;
+	}
+
+	public int getWriteBehindCapacity() {
+		return writeBehindCapacity;
+	}
+
+	/**
+	 * 设置后写最多缓冲的缓存键的数量，达到后添加新的缓存键时阻塞等待写出
+	 * 
+	 * @param writeBehindCapacity
+	 */
+	public void setWriteBehindCapacity(int writeBehindCapacity) {
+		if(writeBehindCapacity < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		this.writeBehindCapacity = writeBehindCapacity;
+	}
+	
+	/**
+	 * 等待后写的缓存键的数量
+	 * 
+	 * @return
+	 */
+	public long getWriteBehindPendingCount() {
+		WriteBehindQueue<T> queue = writeBehindQueue;
+		return queue != null ? queue.size() : 0;
+	}
+	
+	/**
+	 * 已后写的数量（按缓存键计）
+	 * 
+	 * @return
+	 */
+	public long getWriteBehindFlushedCount() {
+		WriteBehindQueue<T> queue = writeBehindQueue;
+		return queue != null ? queue.getFlushedCount() : 0;
+	}
+	
+	/**
+	 * 后写失败的批次数量
+	 * 
+	 * @return
+	 */
+	public long getWriteBehindFailureCount() {
+		WriteBehindQueue<T> queue = writeBehindQueue;
+		return queue != null ? queue.getFailureCount() : 0;
+	}
+
     @Override
 	public int getBreakdownPreventExpiredSeconds() {
 		return breakdownPreventExpiredSeconds;
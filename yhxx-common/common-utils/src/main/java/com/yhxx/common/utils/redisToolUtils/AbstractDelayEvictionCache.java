@@ -29,6 +29,18 @@ public abstract class AbstractDelayEvictionCache<T>
         		cacheFactory.getDelayEvictionThreadFactory());
     }
     
+    @Override
+    protected void doStart() {
+    	super.doStart();
+    	delayEvictionQueue.start();
+    }
+    
+    @Override
+    protected void doStop() {
+    	delayEvictionQueue.stop();
+    	super.doStop();
+    }
+    
     @Override
     public final void delayRemove(String key, Runnable updater) {
         if (isStarted()) {
@@ -73,6 +85,17 @@ public abstract class AbstractDelayEvictionCache<T>
 	    }
     }
     
+    /**
+     * 异步延迟执行删除缓存的任务，用于子类延迟删除一组缓存
+     * 
+     * @param task
+     */
+    protected final void delayEvict(Runnable task) {
+    	if (isStarted()) {
+    		delayEvictionQueue.evict(task);
+    	}
+    }
+    
     @Override
     public int getDelayEvictMillis() {
 		return delayEvictMillis;
@@ -3,12 +3,17 @@ package com.yhxx.common.utils.redisToolUtils;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
  * 定义了缓存的操作
  * 
+ * 异步方法在执行缓存访问的线程池中执行；redis缓存的访问是阻塞的，每个异步调用在完成前占用线程池的一个线程，
+ * 未设置线程池时使用启动时创建的有界线程池，不使用公共的ForkJoinPool。
+ * 
  * @author zsp
  *
  * @param <T>	缓存的数据类型
@@ -190,6 +195,73 @@ public interface Cache<T> {
                         Function<String, T> fetcher,
                         Supplier<List<T>> multiFetcher);
 	
+	/**
+	 * 从缓存获取数据；缓存中没有的数据，一次性从指定的批量代理获取，并批量更新缓存。
+	 * 
+	 * @param keys			缓存键
+	 * @param bulkFetcher	数据批量获取的代理（从数据库获取数据），返回缓存键-数据，不存在的数据可不返回
+	 * @return 按缓存键的顺序返回数据
+	 */
+	List<T> getAndFetch(Collection<String> keys,
+                        Function<Collection<String>, Map<String, T>> bulkFetcher);
+	
+	/**
+	 * 异步从缓存获取数据
+	 *
+	 * @param key 	缓存键
+	 * @return 		数据
+	 */
+	CompletableFuture<T> getAsync(String key);
+	
+	/**
+	 * 异步从缓存获取数据
+	 *
+	 * @param key 		缓存键
+	 * @param executor	执行缓存访问的线程池
+	 * @return 			数据
+	 */
+	CompletableFuture<T> getAsync(String key, Executor executor);
+	
+	/**
+	 * 异步从缓存获取数据；若缓存中没有数据，则从指定的异步代理来获取数据，并更新缓存。
+	 * 同一个键并发的加载合并为一次。
+	 *
+	 * @param key 		缓存键
+	 * @param fetcher 	数据异步获取的代理（从数据库获取数据）
+	 * @return 数据
+	 */
+	CompletableFuture<T> getAndFetchAsync(String key, Function<String, CompletableFuture<T>> fetcher);
+	
+	/**
+	 * 异步从缓存获取数据；若缓存中没有数据，则从指定的异步代理来获取数据，并更新缓存。
+	 * 同一个键并发的加载合并为一次。
+	 *
+	 * @param key 		缓存键
+	 * @param fetcher 	数据异步获取的代理（从数据库获取数据）
+	 * @param executor	执行缓存访问的线程池
+	 * @return 数据
+	 */
+	CompletableFuture<T> getAndFetchAsync(String key, 
+			Function<String, CompletableFuture<T>> fetcher, 
+			Executor executor);
+	
+	/**
+	 * 异步添加数据到缓存
+	 * 
+	 * @param key 	缓存键
+	 * @param value 数据
+	 */
+	CompletableFuture<Void> addAsync(String key, T value);
+	
+	/**
+	 * 异步添加数据到缓存
+	 * 
+	 * @param key 		缓存键
+	 * @param value 	数据
+	 * @param executor	执行缓存访问的线程池
+	 */
+	CompletableFuture<Void> addAsync(String key, T value, Executor executor);
+	
 	/**
 	 * 从缓存删除数据
 	 * 
@@ -204,6 +276,21 @@ public interface Cache<T> {
 	 */
 	void remove(Collection<String> keys);
 	
+	/**
+	 * 异步从缓存删除数据
+	 * 
+	 * @param key 缓存键
+	 */
+	CompletableFuture<Void> removeAsync(String key);
+	
+	/**
+	 * 异步从缓存删除数据
+	 * 
+	 * @param key 		缓存键
+	 * @param executor	执行缓存访问的线程池
+	 */
+	CompletableFuture<Void> removeAsync(String key, Executor executor);
+	
 	/**
 	 * 获取缓存剩余的时间（秒）
 	 * 
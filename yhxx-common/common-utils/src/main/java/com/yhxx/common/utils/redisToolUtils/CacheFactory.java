@@ -17,4 +17,11 @@ public interface CacheFactory {
 	 */
 	DefaultThreadFactory getDelayEvictionThreadFactory();
 	
+	/**
+	 * 执行缓存异步访问的线程池
+	 * 
+	 * @return
+	 */
+	DefaultThreadFactory getAsyncThreadFactory();
+	
 }
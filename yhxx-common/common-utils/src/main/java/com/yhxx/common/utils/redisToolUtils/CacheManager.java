@@ -1,10 +1,33 @@
 package com.yhxx.common.utils.redisToolUtils;
 
+import com.yhxx.common.bean.CommonLogger;
+import com.yhxx.common.utils.redisToolUtils.metrics.CacheMetricsMXBean;
+import com.yhxx.common.utils.redisToolUtils.metrics.CacheMetricsSnapshot;
 import com.yhxx.common.utils.redisToolUtils.moduling.BasicService;
+import com.yhxx.common.utils.redisToolUtils.util.DefaultThreadFactory;
+import com.yhxx.common.utils.redisToolUtils.util.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 缓存管理
@@ -14,6 +37,13 @@ import java.util.concurrent.CopyOnWriteArrayList;
  */
 public class CacheManager extends BasicService {
 	
+	private static final Logger logger = LoggerFactory.getLogger(CacheManager.class);
+	
+	/**
+	 * 注册缓存统计的JMX对象名的域
+	 */
+	private final static String JMX_DOMAIN = "com.yhxx.cache";
+	
 	/**
 	 * 缺省的防止缓存击穿而设置的空值的失效时间（秒）
 	 */
@@ -38,6 +68,56 @@ public class CacheManager extends BasicService {
      * 防止缓存击穿的空值的缓存失效时间（秒）
      */
     private int breakdownPreventExpiredSeconds = DEFAULT_BREAKDOWN_PREVENT_EXPIRED_SECONDS;
+    
+    /**
+     * 软失效时间占失效时间的比例，0表示不开启提前刷新
+     */
+    private float softExpiredRatio;
+    
+    /**
+     * 执行提前刷新的线程池
+     */
+    private DefaultThreadFactory refreshThreadFactory;
+    
+    /**
+     * 按概率提前过期的系数，0表示不开启
+     */
+    private double earlyExpirationBeta;
+    
+    /**
+     * 是否将缓存统计注册为JMX对象
+     */
+    private boolean enableJmx;
+    
+    /**
+     * 定时输出缓存统计到性能日志的间隔（秒），0表示不输出
+     */
+    private int metricsLogSeconds;
+    
+    /**
+     * 定时输出缓存统计的线程
+     */
+    private ScheduledExecutorService metricsLogger;
+    
+    /**
+     * 缓存预热计划，按缓存名称索引
+     */
+    private final Map<String, WarmUpPlan<?>> warmUpPlans = new ConcurrentHashMap<String, WarmUpPlan<?>>();
+    
+    /**
+     * 执行缓存预热的线程数
+     */
+    private int warmUpThreads = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * 缓存预热的限速（每秒加载的缓存键的数量），0表示不限速
+     */
+    private int warmUpKeysPerSecond;
+    
+    /**
+     * 执行缓存预热的线程池
+     */
+    private ExecutorService warmUpExecutor;
 
 	/**
 	 * 增加缓存管理对象
@@ -87,35 +167,221 @@ public class CacheManager extends BasicService {
 		return null;
 	}
 	
+	/**
+	 * 增加缓存预热计划，在启动时执行
+	 * 
+	 * @param plan	缓存预热计划
+	 */
+	public void addWarmUpPlan(WarmUpPlan<?> plan) {
+		if(plan == null) {
+			return;
+		}
+		warmUpPlans.put(plan.getCacheName(), plan);
+	}
+	
+	/**
+	 * 获取缓存预热计划，可用于查看预热进度
+	 * 
+	 * @param cacheName	缓存名称
+	 * @return
+	 */
+	public WarmUpPlan<?> getWarmUpPlan(String cacheName) {
+		return cacheName != null ? warmUpPlans.get(cacheName) : null;
+	}
+	
+	/**
+	 * 缓存是否已就绪：没有预热计划，或预热进度已达到计划的就绪比例；可用于健康检查延迟接入流量
+	 * 
+	 * @param cacheName	缓存名称
+	 * @return
+	 */
+	public boolean isReady(String cacheName) {
+		WarmUpPlan<?> plan = getWarmUpPlan(cacheName);
+		return plan == null || plan.isReady();
+	}
+	
+	/**
+	 * 全部缓存是否已就绪
+	 * 
+	 * @return
+	 */
+	public boolean isReady() {
+		for(WarmUpPlan<?> plan : warmUpPlans.values()) {
+			if(!plan.isReady()) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * 获取全部缓存统计的快照
+	 * 
+	 * @return
+	 */
+	public List<CacheMetricsSnapshot> getMetricsSnapshots() {
+		List<CacheMetricsSnapshot> snapshots = new ArrayList<CacheMetricsSnapshot>();
+		for(Cache<?> cache : getCacheList()) {
+			if(cache instanceof AbstractCache) {
+				snapshots.add(((AbstractCache<?>)cache).getMetricsSnapshot());
+			}
+		}
+		return snapshots;
+	}
+	
 	@Override
 	protected void doStart() {
 		List<Cache<?>> _cacheList = getCacheList();
 		for(Cache<?> cache : _cacheList) {
 			start(cache);
 		}
+		warmUp();
+		if(metricsLogSeconds > 0) {
+			metricsLogger = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "cache-metrics-log");
+				thread.setDaemon(true);
+				return thread;
+			});
+			metricsLogger.scheduleWithFixedDelay(this::logMetrics, 
+					metricsLogSeconds, metricsLogSeconds, TimeUnit.SECONDS);
+		}
 	}
 	
 	@Override
 	protected void doStop() {
+		if(metricsLogger != null) {
+			metricsLogger.shutdown();
+			metricsLogger = null;
+		}
+		for(WarmUpPlan<?> plan : warmUpPlans.values()) {
+			plan.cancel();
+		}
+		if(warmUpExecutor != null) {
+			warmUpExecutor.shutdownNow();
+			warmUpExecutor = null;
+		}
 		List<Cache<?>> _cacheList = getCacheList();
 		for(Cache<?> cache : _cacheList) {
 			stop(cache);
 		}
 	}
 	
+	/**
+	 * 在有界的线程池中并行执行全部缓存预热计划，全部完成后关闭线程池
+	 */
+	private void warmUp() {
+		if(warmUpPlans.isEmpty()) {
+			return;
+		}
+		final AtomicInteger threadCount = new AtomicInteger();
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(warmUpThreads, warmUpThreads,
+				60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), r -> {
+					Thread thread = new Thread(r, "cache-warm-up-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		warmUpExecutor = executor;
+		RateLimiter limiter = warmUpKeysPerSecond > 0 ? new RateLimiter(warmUpKeysPerSecond) : null;
+		List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+		for(WarmUpPlan<?> plan : warmUpPlans.values()) {
+			Cache<?> cache = getCache(plan.getCacheName());
+			if(cache instanceof AbstractCache) {
+				futures.add(plan.run((AbstractCache<?>)cache, executor, limiter));
+			} else {
+				logger.warn(MessageFormat.format("The cache {0} of the warm-up plan is not found.", plan.getCacheName()));
+			}
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+			.whenComplete((v, t) -> executor.shutdown());
+	}
+	
+	/**
+	 * 输出全部缓存统计到性能日志
+	 */
+	public void logMetrics() {
+		try {
+			for(CacheMetricsSnapshot snapshot : getMetricsSnapshots()) {
+				CommonLogger.PERFORMANCE.info(snapshot.toString());
+			}
+		} catch(Throwable t) {
+			logger.error("Exception occured when log the cache metrics.", t);
+		}
+	}
+	
 	private void start(Cache<?> cache) {
 		init(cache);
 		cache.start();
+		if(enableJmx && cache instanceof AbstractCache) {
+			registerMBean((AbstractCache<?>)cache);
+		}
+	}
+	
+	private void registerMBean(AbstractCache<?> cache) {
+		CacheMetricsMXBean mbean = new CacheMetricsMXBean() {
+			
+			@Override
+			public CacheMetricsSnapshot getSnapshot() {
+				return cache.getMetricsSnapshot();
+			}
+			
+			@Override
+			public void reset() {
+				cache.getMetrics().reset();
+			}
+			
+		};
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = buildObjectName(cache);
+			if(!server.isRegistered(objectName)) {
+				server.registerMBean(new StandardMBean(mbean, CacheMetricsMXBean.class, true), objectName);
+			}
+		} catch(Exception e) {
+			logger.warn(MessageFormat.format("Failed to register the metrics mbean of {0}.", cache.getName()), e);
+		}
+	}
+	
+	private void unregisterMBean(AbstractCache<?> cache) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = buildObjectName(cache);
+			if(server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch(Exception e) {
+			logger.warn(MessageFormat.format("Failed to unregister the metrics mbean of {0}.", cache.getName()), e);
+		}
+	}
+	
+	private ObjectName buildObjectName(AbstractCache<?> cache) throws Exception {
+		return new ObjectName(JMX_DOMAIN + ":type=CacheMetrics,name=" + ObjectName.quote(cache.getName()));
 	}
 	
 	private void init(Cache<?> cache) {
 		cache.setEnableStat(enableStat);
 		cache.setEnableBreakdownPrevent(enableBreakdownPrevent);
 		cache.setBreakdownPreventExpiredSeconds(breakdownPreventExpiredSeconds);
+		if(refreshThreadFactory != null && cache instanceof AbstractCache) {
+			AbstractCache<?> _cache = (AbstractCache<?>)cache;
+			_cache.setSoftExpiredRatio(softExpiredRatio);
+			_cache.setRefreshThreadFactory(refreshThreadFactory);
+		}
+		if(earlyExpirationBeta > 0 && cache instanceof AbstractCache) {
+			((AbstractCache<?>)cache).setEarlyExpirationBeta(earlyExpirationBeta);
+		}
 	}
 	
 	private void stop(Cache<?> cache) {
+		WarmUpPlan<?> plan = warmUpPlans.get(cache.getName());
+		if(plan != null) {
+			//取消尚未执行的预热批次
+			plan.cancel();
+		}
 		cache.stop();
+		if(enableJmx && cache instanceof AbstractCache) {
+			unregisterMBean((AbstractCache<?>)cache);
+		}
 	}
 	
 	public List<Cache<?>> getCacheList() {
@@ -162,4 +428,90 @@ public class CacheManager extends BasicService {
 		this.breakdownPreventExpiredSeconds = breakdownPreventExpiredSeconds;
 	}
 
+	public float getSoftExpiredRatio() {
+		return softExpiredRatio;
+	}
+
+	public void setSoftExpiredRatio(float softExpiredRatio) {
+		if(softExpiredRatio < 0 || softExpiredRatio >= 1) {
+			throw new IllegalArgumentException("The value should be in [0, 1).");
+		}
+		this.softExpiredRatio = softExpiredRatio;
+	}
+
+	public double getEarlyExpirationBeta() {
+		return earlyExpirationBeta;
+	}
+
+	public void setEarlyExpirationBeta(double earlyExpirationBeta) {
+		if(earlyExpirationBeta < 0) {
+			throw new IllegalArgumentException("The value should not be less than 0.");
+		}
+		this.earlyExpirationBeta = earlyExpirationBeta;
+	}
+
+	public DefaultThreadFactory getRefreshThreadFactory() {
+		return refreshThreadFactory;
+	}
+
+	public void setRefreshThreadFactory(DefaultThreadFactory refreshThreadFactory) {
+		this.refreshThreadFactory = refreshThreadFactory;
+	}
+
+	public boolean isEnableJmx() {
+		return enableJmx;
+	}
+
+	/**
+	 * 设置是否将缓存统计注册为JMX对象，应在启动前设置
+	 * 
+	 * @param enableJmx
+	 */
+	public void setEnableJmx(boolean enableJmx) {
+		this.enableJmx = enableJmx;
+	}
+
+	public int getMetricsLogSeconds() {
+		return metricsLogSeconds;
+	}
+
+	/**
+	 * 设置定时输出缓存统计到性能日志的间隔（秒），0表示不输出；应在启动前设置
+	 * 
+	 * @param metricsLogSeconds
+	 */
+	public void setMetricsLogSeconds(int metricsLogSeconds) {
+		if(metricsLogSeconds < 0) {
+			throw new IllegalArgumentException("The value should not be less than 0.");
+		}
+		this.metricsLogSeconds = metricsLogSeconds;
+	}
+
+	public int getWarmUpThreads() {
+		return warmUpThreads;
+	}
+
+	public void setWarmUpThreads(int warmUpThreads) {
+		if(warmUpThreads < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		this.warmUpThreads = warmUpThreads;
+	}
+
+	public int getWarmUpKeysPerSecond() {
+		return warmUpKeysPerSecond;
+	}
+
+	/**
+	 * 设置缓存预热的限速（每秒加载的缓存键的数量），全部预热计划共享；0表示不限速
+	 * 
+	 * @param warmUpKeysPerSecond
+	 */
+	public void setWarmUpKeysPerSecond(int warmUpKeysPerSecond) {
+		if(warmUpKeysPerSecond < 0) {
+			throw new IllegalArgumentException("The value should not be less than 0.");
+		}
+		this.warmUpKeysPerSecond = warmUpKeysPerSecond;
+	}
+
 }
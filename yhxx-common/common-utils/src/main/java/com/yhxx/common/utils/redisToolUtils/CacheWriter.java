@@ -0,0 +1,21 @@
+package com.yhxx.common.utils.redisToolUtils;
+
+import java.util.Map;
+
+/**
+ * 缓存的后写代理：开启后写时，添加到缓存的数据按缓存键合并，由后台线程分批写入，例如批量更新数据库
+ *
+ * @author zsp
+ *
+ * @param <T>	缓存的数据类型
+ */
+public interface CacheWriter<T> {
+
+	/**
+	 * 批量写入，抛出异常时本批数据在下次重试（期间有更新的缓存键以更新的数据为准）
+	 *
+	 * @param values	缓存键与数据
+	 */
+	void writeAll(Map<String, T> values);
+
+}
@@ -14,6 +14,8 @@ public final class CachedObject<T> {
 	private final String key;
 	private boolean empty;
 	private T data;
+	private long computeMillis;
+	private long expireTime;
 	
 	/**
 	 * 
@@ -55,6 +57,37 @@ public final class CachedObject<T> {
 		return this;
 	}
 	
+	/**
+	 * 设置缓存项的计算耗时与逻辑过期时间，用于提前过期的判断
+	 * 
+	 * @param computeMillis	最近一次计算数据的耗时（毫秒）
+	 * @param expireTime	缓存的逻辑过期时间（毫秒）
+	 * @return
+	 */
+	public CachedObject<T> asComputed(long computeMillis, long expireTime) {
+		this.computeMillis = computeMillis;
+		this.expireTime = expireTime;
+		return this;
+	}
+	
+	/**
+	 * 最近一次计算数据的耗时（毫秒），0表示未知
+	 * 
+	 * @return
+	 */
+	public long getComputeMillis() {
+		return computeMillis;
+	}
+	
+	/**
+	 * 缓存的逻辑过期时间（毫秒），0表示未知
+	 * 
+	 * @return
+	 */
+	public long getExpireTime() {
+		return expireTime;
+	}
+	
 	/**
 	 * 获取实际的缓存对象
 	 * 
@@ -0,0 +1,35 @@
+package com.yhxx.common.utils.redisToolUtils;
+
+/**
+ * 缓存键的存在性过滤器，用于在访问缓存和数据获取代理之前，拒绝一定不存在的缓存键，以防止缓存击穿；
+ * 允许误判存在，但不允许误判不存在。
+ *
+ * @author zsp
+ *
+ */
+public interface ExistenceFilter {
+
+	/**
+	 * 缓存键是否可能存在，返回false表示一定不存在
+	 *
+	 * @param key	缓存键
+	 * @return
+	 */
+	boolean mightContain(String key);
+
+	/**
+	 * 添加缓存键
+	 *
+	 * @param key	缓存键
+	 */
+	void put(String key);
+
+	/**
+	 * 用全部存在的缓存键重建过滤器，清除已删除的缓存键；重建期间过滤器仍然可用。
+	 * 应先开始记录重建期间的新增，再遍历keys，以保证遍历前新增的缓存键不会丢失
+	 *
+	 * @param keys	全部存在的缓存键，在重建开始后遍历
+	 */
+	void rebuild(Iterable<String> keys);
+
+}
@@ -0,0 +1,125 @@
+package com.yhxx.common.utils.redisToolUtils;
+
+import com.yhxx.common.utils.redisToolUtils.util.CountMinSketch;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按访问频率调整失效时间的策略：以Count-Min Sketch估算各缓存键的访问次数，记录次数达到采样数后所有计数减半；
+ * 访问次数不超过1的缓存键使用最短失效时间，达到热点次数的使用最长失效时间，之间按访问次数的对数插值。
+ *
+ * @author zsp
+ *
+ */
+public class FrequencyTtlPolicy implements TtlPolicy {
+
+	private final static int DEFAULT_WIDTH = 1 << 14;
+
+	/**
+	 * 最短失效时间（秒）
+	 */
+	private final int minSeconds;
+
+	/**
+	 * 最长失效时间（秒）
+	 */
+	private final int maxSeconds;
+
+	/**
+	 * 使用最长失效时间的访问次数
+	 */
+	private final int hotFrequency;
+
+	private final CountMinSketch sketch;
+
+	/**
+	 * 衰减的采样数
+	 */
+	private final int sampleSize;
+
+	private final AtomicInteger samples = new AtomicInteger();
+
+	/**
+	 *
+	 * @param minSeconds	最短失效时间（秒）
+	 * @param maxSeconds	最长失效时间（秒）
+	 * @param hotFrequency	使用最长失效时间的访问次数，应大于1
+	 */
+	public FrequencyTtlPolicy(int minSeconds, int maxSeconds, int hotFrequency) {
+		this(minSeconds, maxSeconds, hotFrequency, DEFAULT_WIDTH);
+	}
+
+	/**
+	 *
+	 * @param minSeconds	最短失效时间（秒）
+	 * @param maxSeconds	最长失效时间（秒）
+	 * @param hotFrequency	使用最长失效时间的访问次数，应大于1
+	 * @param width			估算访问次数的计数器宽度，通常为缓存键数量的量级
+	 */
+	public FrequencyTtlPolicy(int minSeconds, int maxSeconds, int hotFrequency, int width) {
+		if(minSeconds < 1 || maxSeconds < minSeconds) {
+			throw new IllegalArgumentException("The minSeconds should be larger than 0 and not larger than maxSeconds.");
+		}
+		if(hotFrequency < 2) {
+			throw new IllegalArgumentException("The hotFrequency should be larger than 1.");
+		}
+		this.minSeconds = minSeconds;
+		this.maxSeconds = maxSeconds;
+		this.hotFrequency = hotFrequency;
+		this.sketch = new CountMinSketch(width);
+		this.sampleSize = 10 * sketch.getWidth();
+	}
+
+	@Override
+	public void recordAccess(String key) {
+		sketch.increment(key);
+		if(samples.incrementAndGet() >= sampleSize) {
+			//只由一个线程衰减
+			int current = samples.get();
+			if(current >= sampleSize && samples.compareAndSet(current, 0)) {
+				sketch.decay();
+			}
+		}
+	}
+
+	@Override
+	public int expiredSeconds(String key, int expiredSeconds) {
+		int frequency = sketch.frequency(key);
+		if(frequency <= 1) {
+			return minSeconds;
+		}
+		if(frequency >= hotFrequency) {
+			return maxSeconds;
+		}
+		double ratio = Math.log(frequency) / Math.log(hotFrequency);
+		return minSeconds + (int) ((maxSeconds - minSeconds) * ratio);
+	}
+
+	@Override
+	public int maxExpiredSeconds(int expiredSeconds) {
+		return maxSeconds;
+	}
+
+	/**
+	 * 估算的访问次数
+	 *
+	 * @param key
+	 * @return
+	 */
+	public int frequency(String key) {
+		return sketch.frequency(key);
+	}
+
+	public int getMinSeconds() {
+		return minSeconds;
+	}
+
+	public int getMaxSeconds() {
+		return maxSeconds;
+	}
+
+	public int getHotFrequency() {
+		return hotFrequency;
+	}
+
+}
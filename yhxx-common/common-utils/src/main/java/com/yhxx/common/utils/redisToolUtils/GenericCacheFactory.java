@@ -13,6 +13,8 @@ public class GenericCacheFactory  implements CacheFactory {
 	
 	private DefaultThreadFactory delayEvictionThreadFactory;
 	
+	private DefaultThreadFactory asyncThreadFactory;
+	
 	@Override
 	public DefaultThreadFactory getDelayEvictionThreadFactory() {
 		return delayEvictionThreadFactory;
@@ -22,4 +24,13 @@ public class GenericCacheFactory  implements CacheFactory {
 		this.delayEvictionThreadFactory = delayEvictionThreadFactory;
 	}
 	
+	@Override
+	public DefaultThreadFactory getAsyncThreadFactory() {
+		return asyncThreadFactory;
+	}
+
+	public void setAsyncThreadFactory(DefaultThreadFactory asyncThreadFactory) {
+		this.asyncThreadFactory = asyncThreadFactory;
+	}
+	
 }
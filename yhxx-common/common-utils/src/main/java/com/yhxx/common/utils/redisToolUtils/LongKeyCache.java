@@ -0,0 +1,56 @@
+package com.yhxx.common.utils.redisToolUtils;
+
+import java.util.function.LongFunction;
+
+/**
+ * 以long为缓存键的缓存，省去数字id转换为字符串缓存键的开销；
+ * 字符串缓存键的操作同样可用，缓存键应为数字id的字符串形式。
+ *
+ * @author zsp
+ *
+ * @param <T>	缓存的数据类型
+ */
+public interface LongKeyCache<T> extends Cache<T> {
+
+	/**
+	 * 添加数据到缓存
+	 *
+	 * @param key   缓存键
+	 * @param value 数据
+	 */
+	void add(long key, T value);
+
+	/**
+	 * 添加数据到缓存
+	 *
+	 * @param key   			缓存键
+	 * @param value 			数据
+	 * @param expiredSeconds	过期秒值
+	 */
+	void add(long key, T value, int expiredSeconds);
+
+	/**
+	 * 从缓存获取数据
+	 *
+	 * @param key 	缓存键
+	 * @return 		数据
+	 */
+	T get(long key);
+
+	/**
+	 * 从缓存获取数据；若缓存中没有数据，则从指定的代理来获取数据，并更新缓存。
+	 *
+	 * @param key 		缓存键
+	 * @param fetcher 	数据获取的代理（从数据库获取数据）
+	 * @return 数据
+	 */
+	T getAndFetch(long key, LongFunction<T> fetcher);
+
+	/**
+	 * 从缓存删除数据
+	 *
+	 * @param key 缓存键
+	 */
+	void remove(long key);
+
+}
@@ -0,0 +1,36 @@
+package com.yhxx.common.utils.redisToolUtils;
+
+/**
+ * 缓存失效时间的策略：按缓存键决定写入与命中延长时使用的失效时间。
+ * 设置后，缓存失效时间（{@link AbstractCache#getExpiredSeconds()}）作为默认值传入；缓存失效时间为0（不过期）时不使用策略。
+ *
+ * @author zsp
+ *
+ */
+public interface TtlPolicy {
+
+	/**
+	 * 记录一次访问，命中与加载时调用
+	 *
+	 * @param key	缓存键
+	 */
+	void recordAccess(String key);
+
+	/**
+	 * 获取缓存键的失效时间
+	 *
+	 * @param key				缓存键
+	 * @param expiredSeconds	缓存的默认失效时间（秒）
+	 * @return 失效时间（秒），应大于0
+	 */
+	int expiredSeconds(String key, int expiredSeconds);
+
+	/**
+	 * 获取策略可能返回的最大失效时间，用于依附于缓存键的数据（例如标签的缓存键集合）
+	 *
+	 * @param expiredSeconds	缓存的默认失效时间（秒）
+	 * @return 最大失效时间（秒）
+	 */
+	int maxExpiredSeconds(int expiredSeconds);
+
+}
@@ -0,0 +1,270 @@
+package com.yhxx.common.utils.redisToolUtils;
+
+import com.yhxx.common.utils.redisToolUtils.util.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 缓存预热计划：启动时从缓存键来源获取全部缓存键，分批由批量加载代理加载并批量写入缓存；
+ * 可设置就绪比例，预热进度达到该比例前计划未就绪（{@link #isReady()}为false），可用于健康检查延迟接入流量；
+ * 预热期间缓存保持可用，业务的读写与淘汰照常进行。
+ *
+ * @author zsp
+ *
+ * @param <T>	缓存的数据类型
+ */
+public class WarmUpPlan<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(WarmUpPlan.class);
+
+	private final static int DEFAULT_BATCH_SIZE = 100;
+
+	/**
+	 * 缓存名称
+	 */
+	private final String cacheName;
+
+	/**
+	 * 需要预热的缓存键的来源
+	 */
+	private final Supplier<? extends Collection<String>> keySource;
+
+	/**
+	 * 批量加载代理，例如从数据库批量获取数据
+	 */
+	private final Function<Collection<String>, Map<String, T>> bulkLoader;
+
+	/**
+	 * 每批加载的缓存键的数量
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * 就绪比例，预热进度达到此比例前计划未就绪；0表示不等待预热
+	 */
+	private float readyRatio;
+
+	private volatile int totalCount;
+
+	private final AtomicInteger loadedCount = new AtomicInteger();
+
+	private final AtomicInteger failedCount = new AtomicInteger();
+
+	private volatile boolean done;
+
+	private volatile boolean cancelled;
+
+	/**
+	 * 是否已就绪
+	 */
+	private final AtomicBoolean ready = new AtomicBoolean();
+
+	/**
+	 *
+	 * @param cacheName		缓存名称
+	 * @param keySource		需要预热的缓存键的来源
+	 * @param bulkLoader	批量加载代理，例如从数据库批量获取数据
+	 */
+	public WarmUpPlan(String cacheName,
+			Supplier<? extends Collection<String>> keySource,
+			Function<Collection<String>, Map<String, T>> bulkLoader) {
+		if(cacheName == null || "".equals(cacheName.trim())) {
+			throw new IllegalArgumentException("The cache name should not be null or empty");
+		}
+		if(keySource == null) {
+			throw new IllegalArgumentException("keySource");
+		}
+		if(bulkLoader == null) {
+			throw new IllegalArgumentException("bulkLoader");
+		}
+		this.cacheName = cacheName;
+		this.keySource = keySource;
+		this.bulkLoader = bulkLoader;
+	}
+
+	/**
+	 * 在指定的线程池中并行执行预热，每批加载前按数量获取限速许可
+	 *
+	 * @param cache		预热的缓存
+	 * @param executor	执行预热的线程池，应有界
+	 * @param limiter	限速器，为null时不限速
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	CompletableFuture<Void> run(AbstractCache<?> cache, Executor executor, RateLimiter limiter) {
+		if(readyRatio <= 0) {
+			release();
+		}
+		List<String> keys;
+		try {
+			Collection<String> source = keySource.get();
+			keys = source != null ? new ArrayList<String>(source) : Collections.<String>emptyList();
+		} catch(Throwable t) {
+			logger.error(MessageFormat.format("Exception occured when {0} get the warm-up keys.", cacheName), t);
+			complete();
+			return CompletableFuture.completedFuture(null);
+		}
+		totalCount = keys.size();
+		logger.info(MessageFormat.format("{0} is warming up {1} keys.", cacheName, totalCount));
+		final AbstractCache<T> _cache = (AbstractCache<T>) cache;
+		List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+		for(int i = 0; i < keys.size(); i += batchSize) {
+			final List<String> batch = keys.subList(i, Math.min(i + batchSize, keys.size()));
+			try {
+				futures.add(CompletableFuture.runAsync(() -> load(_cache, batch, limiter), executor));
+			} catch(RejectedExecutionException e) {
+				failedCount.addAndGet(batch.size());
+			}
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+				.whenComplete((v, t) -> complete());
+	}
+
+	private void load(AbstractCache<T> cache, List<String> batch, RateLimiter limiter) {
+		if(cancelled) {
+			return;
+		}
+		try {
+			if(limiter != null) {
+				limiter.acquire(batch.size());
+			}
+			Map<String, T> values = bulkLoader.apply(batch);
+			if(values != null && values.size() > 0 && !cancelled) {
+				cache.addLoaded(values);
+			}
+			loadedCount.addAndGet(batch.size());
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failedCount.addAndGet(batch.size());
+		} catch(Throwable t) {
+			failedCount.addAndGet(batch.size());
+			logger.warn(MessageFormat.format("{0} failed to warm up {1} keys.", cacheName, batch.size()), t);
+		}
+		if(getProgress() >= readyRatio) {
+			release();
+		}
+	}
+
+	private void complete() {
+		done = true;
+		release();
+		logger.info(MessageFormat.format("{0} is warmed up, loaded: {1}, failed: {2}.",
+				cacheName, loadedCount.get(), failedCount.get()));
+	}
+
+	/**
+	 * 结束等待就绪
+	 */
+	void release() {
+		if(ready.compareAndSet(false, true)) {
+			logger.info(MessageFormat.format("{0} is ready, warm-up progress: {1}.", cacheName, getProgress()));
+		}
+	}
+
+	/**
+	 * 取消尚未执行的批次，并结束等待就绪
+	 */
+	void cancel() {
+		cancelled = true;
+		release();
+	}
+
+	public String getCacheName() {
+		return cacheName;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		if(batchSize < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		this.batchSize = batchSize;
+	}
+
+	public float getReadyRatio() {
+		return readyRatio;
+	}
+
+	/**
+	 * 设置就绪比例，预热进度达到此比例前计划未就绪；0表示不等待预热
+	 *
+	 * @param readyRatio
+	 */
+	public void setReadyRatio(float readyRatio) {
+		if(readyRatio < 0 || readyRatio > 1) {
+			throw new IllegalArgumentException("The value should be in [0, 1].");
+		}
+		this.readyRatio = readyRatio;
+	}
+
+	/**
+	 * 需要预热的缓存键的数量
+	 *
+	 * @return
+	 */
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * 已加载的缓存键的数量
+	 *
+	 * @return
+	 */
+	public int getLoadedCount() {
+		return loadedCount.get();
+	}
+
+	/**
+	 * 加载失败的缓存键的数量
+	 *
+	 * @return
+	 */
+	public int getFailedCount() {
+		return failedCount.get();
+	}
+
+	/**
+	 * 预热进度，已处理（含失败）的缓存键占全部的比例
+	 *
+	 * @return
+	 */
+	public float getProgress() {
+		if(done) {
+			return 1;
+		}
+		int total = totalCount;
+		return total > 0 ? (float) (loadedCount.get() + failedCount.get()) / total : 0;
+	}
+
+	public boolean isDone() {
+		return done;
+	}
+
+	/**
+	 * 是否已就绪：预热进度已达到就绪比例，或已完成、已取消
+	 *
+	 * @return
+	 */
+	public boolean isReady() {
+		return ready.get();
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.yhxx.common.utils.redisToolUtils.converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yhxx.common.utils.LogUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * 基于json的编解码
+ * 
+ * @author zsp
+ *
+ * @param <T>
+ */
+public class JsonValueCodec<T> implements ValueCodec<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(JsonValueCodec.class);
+	
+	private final ObjectMapper mapper;
+	private final Class<T> clazz;
+	
+	public JsonValueCodec(Class<T> clazz) {
+		this(new ObjectMapper(), clazz);
+	}
+	
+	public JsonValueCodec(ObjectMapper mapper, Class<T> clazz) {
+		this.mapper = mapper;
+		this.clazz = clazz;
+	}
+	
+	@Override
+	public byte[] encode(T value) {
+		try {
+			return mapper.writeValueAsBytes(value);
+		} catch (JsonProcessingException e) {
+			logger.error(LogUtils.message("序列化错误", new Object[] {value}), e);
+		}
+		return null;
+	}
+
+	@Override
+	public T decode(byte[] bytes) {
+		if(bytes != null) {
+			try {
+				return mapper.readValue(bytes, clazz);
+			} catch (IOException e) {
+				logger.error(LogUtils.message("反序列化错误", new Object[] {clazz, bytes.length}), e);
+			}
+		}
+		return null;
+	}
+
+}
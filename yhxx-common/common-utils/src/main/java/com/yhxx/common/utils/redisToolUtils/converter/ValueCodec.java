@@ -0,0 +1,28 @@
+package com.yhxx.common.utils.redisToolUtils.converter;
+
+/**
+ * 数据与字节的编解码
+ * 
+ * @author zsp
+ *
+ * @param <T>
+ */
+public interface ValueCodec<T> {
+
+	/**
+	 * 编码，失败时返回null
+	 * 
+	 * @param value
+	 * @return
+	 */
+	byte[] encode(T value);
+	
+	/**
+	 * 解码，失败时返回null
+	 * 
+	 * @param bytes
+	 * @return
+	 */
+	T decode(byte[] bytes);
+	
+}
@@ -0,0 +1,271 @@
+package com.yhxx.common.utils.redisToolUtils.injvm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+
+/**
+ * jvm内存缓存的快照文件，通过内存映射读写。
+ *
+ * 格式：魔数(4) 数量(4) 快照时间(8)，之后每条数据为
+ * 键长度(4) 键(UTF-8) 剩余生存时间毫秒(8，0表示不过期) 值长度(4，-1表示空值) 值；
+ * 写入时逐条编码，按区域依次映射写入，不在堆上缓存全部数据；
+ * 读取时按区域映射，文件大小不受单个映射2GB的限制；
+ * 恢复时值不解码，只记录在映射文件中的位置，首次访问时再解码。
+ *
+ * @author zsp
+ *
+ */
+final class CacheSnapshot {
+
+	private final static int MAGIC = 0x59435331;
+
+	private final static int HEADER_SIZE = 16;
+
+	/**
+	 * 写入时每次映射的区域大小，单条数据更大时按数据的大小映射
+	 */
+	private final static int WRITE_REGION_SIZE = 64 << 20;
+
+	/**
+	 * 读取时每次映射的最大区域大小
+	 */
+	private final static int READ_REGION_SIZE = Integer.MAX_VALUE;
+
+	private CacheSnapshot() {
+	}
+
+	/**
+	 * 写入快照：先写入临时文件，完成后替换原文件
+	 *
+	 * @param file		快照文件
+	 * @param entries	全部数据
+	 * @param keyMapper	获取数据的缓存键
+	 * @param encoder	值的编码，空值返回null，编码失败时抛出异常或返回空数组的数据将被跳过
+	 * @return 写入的数据数量
+	 * @throws IOException
+	 */
+	static int write(String file, Iterable<? extends TimingWheel.Entry> entries,
+			Function<TimingWheel.Entry, String> keyMapper,
+			Function<Object, byte[]> encoder) throws IOException {
+		return write(file, entries, keyMapper, encoder, WRITE_REGION_SIZE);
+	}
+
+	static int write(String file, Iterable<? extends TimingWheel.Entry> entries,
+			Function<TimingWheel.Entry, String> keyMapper,
+			Function<Object, byte[]> encoder, int regionSize) throws IOException {
+		long now = System.currentTimeMillis();
+		Path path = Paths.get(file);
+		Path tmp = Paths.get(file + ".tmp");
+		Path parent = path.toAbsolutePath().getParent();
+		if(parent != null) {
+			Files.createDirectories(parent);
+		}
+		int count = 0;
+		try(FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			//文件头在写完全部数据后写入
+			long regionStart = 0;
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(regionSize, HEADER_SIZE));
+			buffer.position(HEADER_SIZE);
+			for(TimingWheel.Entry entry : entries) {
+				long expireTime = entry.expireTime;
+				if(expireTime > 0 && expireTime <= now) {
+					continue;
+				}
+				Object value = entry.value;
+				byte[] bytes;
+				if(value instanceof LazyValue) {
+					bytes = ((LazyValue) value).bytes();
+				} else {
+					bytes = encoder.apply(value);
+					if(bytes != null && bytes.length == 0) {
+						continue;
+					}
+				}
+				byte[] key = keyMapper.apply(entry).getBytes(StandardCharsets.UTF_8);
+				long entrySize = 16L + key.length + (bytes != null ? bytes.length : 0);
+				if(entrySize > Integer.MAX_VALUE) {
+					throw new IOException("The snapshot entry is too large: " + entrySize);
+				}
+				if(buffer.remaining() < entrySize) {
+					//当前区域已写满，从写入位置映射下一个区域
+					buffer.force();
+					regionStart += buffer.position();
+					buffer = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(regionSize, entrySize));
+				}
+				buffer.putInt(key.length);
+				buffer.put(key);
+				buffer.putLong(expireTime > 0 ? expireTime - now : 0);
+				if(bytes != null) {
+					buffer.putInt(bytes.length);
+					buffer.put(bytes);
+				} else {
+					buffer.putInt(-1);
+				}
+				count++;
+			}
+			buffer.force();
+			//去掉最后一个区域未写入的部分
+			channel.truncate(regionStart + buffer.position());
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC);
+			header.putInt(count);
+			header.putLong(now);
+			header.flip();
+			while(header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+			channel.force(false);
+		}
+		Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return count;
+	}
+
+	/**
+	 * 读取快照，扣除快照之后经过的时间，已过期的数据跳过
+	 *
+	 * @param file		快照文件
+	 * @param restorer	恢复数据的代理
+	 * @return 恢复的数据数量，快照文件不存在时返回-1
+	 * @throws IOException
+	 */
+	static int read(String file, Restorer restorer) throws IOException {
+		return read(file, restorer, READ_REGION_SIZE);
+	}
+
+	static int read(String file, Restorer restorer, int regionSize) throws IOException {
+		Path path = Paths.get(file);
+		if(!Files.exists(path)) {
+			return -1;
+		}
+		//映射在通道关闭后仍然有效
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedRegion region = new MappedRegion(channel, regionSize);
+			ByteBuffer buffer = region.ensure(HEADER_SIZE);
+			if(buffer == null || buffer.getInt() != MAGIC) {
+				throw new IOException("Invalid snapshot file: " + file);
+			}
+			int count = buffer.getInt();
+			long elapsed = System.currentTimeMillis() - buffer.getLong();
+			int restored = 0;
+			for(int i = 0; i < count; i++) {
+				byte[] key = new byte[region.ensure(4, file).getInt()];
+				buffer = region.ensure(key.length + 12, file);
+				buffer.get(key);
+				long ttl = buffer.getLong();
+				int length = buffer.getInt();
+				Object value = null;
+				if(length >= 0) {
+					buffer = region.ensure(length, file);
+					value = new LazyValue(buffer, buffer.position(), length);
+					buffer.position(buffer.position() + length);
+				}
+				if(ttl > 0) {
+					ttl -= elapsed;
+					if(ttl <= 0) {
+						continue;
+					}
+				}
+				restorer.restore(new String(key, StandardCharsets.UTF_8), value, ttl);
+				restored++;
+			}
+			return restored;
+		}
+	}
+
+	/**
+	 * 按区域依次映射读取的文件：当前区域剩余的字节不足时，从读取位置映射下一个区域
+	 */
+	private static final class MappedRegion {
+
+		private final FileChannel channel;
+		private final int regionSize;
+		private long regionStart;
+		private MappedByteBuffer buffer;
+
+		MappedRegion(FileChannel channel, int regionSize) {
+			this.channel = channel;
+			this.regionSize = regionSize;
+		}
+
+		/**
+		 * 确保当前区域至少剩余size个字节
+		 *
+		 * @param size
+		 * @return 当前区域，文件剩余的字节不足时返回null
+		 * @throws IOException
+		 */
+		ByteBuffer ensure(int size) throws IOException {
+			if(buffer != null && buffer.remaining() >= size) {
+				return buffer;
+			}
+			long position = buffer != null ? regionStart + buffer.position() : 0;
+			long remaining = channel.size() - position;
+			if(size < 0 || remaining < size) {
+				return null;
+			}
+			regionStart = position;
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(remaining, Math.max(regionSize, size)));
+			return buffer;
+		}
+
+		ByteBuffer ensure(int size, String file) throws IOException {
+			ByteBuffer region = ensure(size);
+			if(region == null) {
+				throw new IOException("Truncated snapshot file: " + file);
+			}
+			return region;
+		}
+
+	}
+
+	/**
+	 * 恢复数据的代理
+	 */
+	interface Restorer {
+
+		/**
+		 *
+		 * @param key			缓存键
+		 * @param value			值，未解码的值为{@link LazyValue}，null表示空值
+		 * @param ttlMillis		剩余生存时间（毫秒），0表示不过期
+		 */
+		void restore(String key, Object value, long ttlMillis);
+
+	}
+
+	/**
+	 * 映射文件中未解码的值
+	 */
+	static final class LazyValue {
+
+		private final ByteBuffer buffer;
+		private final int offset;
+		private final int length;
+
+		LazyValue(ByteBuffer buffer, int offset, int length) {
+			this.buffer = buffer;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		byte[] bytes() {
+			byte[] bytes = new byte[length];
+			ByteBuffer duplicate = buffer.duplicate();
+			duplicate.position(offset);
+			duplicate.get(bytes);
+			return bytes;
+		}
+
+	}
+
+}
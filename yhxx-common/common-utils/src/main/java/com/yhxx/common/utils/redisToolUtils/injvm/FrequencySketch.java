@@ -0,0 +1,103 @@
+package com.yhxx.common.utils.redisToolUtils.injvm;
+
+/**
+ * 估算缓存键访问频率的Count-Min Sketch，每个计数器占4位，最大计数为15；
+ * 记录次数达到采样数后所有计数减半，使频率随时间衰减。非线程安全，由调用方加锁。
+ *
+ * @author zsp
+ *
+ */
+final class FrequencySketch {
+
+	private final static long RESET_MASK = 0x7777777777777777L;
+	private final static long ONE_MASK = 0x1111111111111111L;
+	private final static long[] SEEDS = {
+			0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+	private final long[] table;
+	private final int tableMask;
+	private final int sampleSize;
+	private int size;
+
+	/**
+	 *
+	 * @param maximumSize	缓存的最大元素数量
+	 */
+	FrequencySketch(long maximumSize) {
+		int maximum = (int) Math.min(Math.max(maximumSize, 16), 1 << 30);
+		int tableLength = Integer.highestOneBit(maximum - 1) << 1;
+		this.table = new long[tableLength];
+		this.tableMask = tableLength - 1;
+		this.sampleSize = 10 * tableLength;
+	}
+
+	/**
+	 * 估算访问频率
+	 *
+	 * @param key
+	 * @return 0~15
+	 */
+	int frequency(String key) {
+		int hash = spread(key.hashCode());
+		int start = (hash & 3) << 2;
+		int frequency = Integer.MAX_VALUE;
+		for(int i = 0; i < 4; i++) {
+			int index = indexOf(hash, i);
+			int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	/**
+	 * 记录一次访问
+	 *
+	 * @param key
+	 */
+	void increment(String key) {
+		int hash = spread(key.hashCode());
+		int start = (hash & 3) << 2;
+		boolean added = false;
+		for(int i = 0; i < 4; i++) {
+			added |= incrementAt(indexOf(hash, i), start + i);
+		}
+		if(added && ++size >= sampleSize) {
+			reset();
+		}
+	}
+
+	private boolean incrementAt(int index, int counter) {
+		int offset = counter << 2;
+		long mask = 0xfL << offset;
+		if((table[index] & mask) != mask) {
+			table[index] += 1L << offset;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * 所有计数减半
+	 */
+	private void reset() {
+		int odd = 0;
+		for(int i = 0; i < table.length; i++) {
+			odd += Long.bitCount(table[i] & ONE_MASK);
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		size = (size >>> 1) - (odd >>> 2);
+	}
+
+	private int indexOf(int hash, int i) {
+		long h = (hash + SEEDS[i]) * SEEDS[i];
+		h += h >>> 32;
+		return ((int) h) & tableMask;
+	}
+
+	private static int spread(int hash) {
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		return (hash >>> 16) ^ hash;
+	}
+
+}
@@ -3,10 +3,20 @@ package com.yhxx.common.utils.redisToolUtils.injvm;
 
 import com.yhxx.common.utils.redisToolUtils.AbstractCache;
 import com.yhxx.common.utils.redisToolUtils.GenericCacheFactory;
+import com.yhxx.common.utils.redisToolUtils.converter.ValueCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.text.MessageFormat;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 
@@ -17,6 +27,10 @@ import java.util.function.Function;
  */
 public abstract class InjvmAbstractCache<T> extends AbstractCache<T> {
 
+	private static final Logger logger = LoggerFactory.getLogger(InjvmAbstractCache.class);
+	
+	private final static byte[] SKIPPED_BYTES = new byte[0];
+	
 	private final LongAdder hits = new LongAdder();
 	
 	private final LongAdder emptyHits = new LongAdder();
@@ -28,10 +42,203 @@ public abstract class InjvmAbstractCache<T> extends AbstractCache<T> {
 	 */
 	protected Function<T, String> keyMapper;
 	
+	/**
+	 * 回收已过期数据的时间轮
+	 */
+	private final TimingWheel timingWheel = new TimingWheel(this::onExpired);
+	
+	/**
+	 * 快照文件的路径，为null时不保存快照
+	 */
+	private String snapshotFile;
+	
+	/**
+	 * 快照中数据的编解码
+	 */
+	private ValueCodec<T> snapshotCodec;
+	
+	/**
+	 * 定时保存快照的间隔（秒），0表示只在停止时保存
+	 */
+	private int snapshotSeconds;
+	
+	/**
+	 * 定时保存快照的线程
+	 */
+	private ScheduledExecutorService snapshotter;
+	
 	public InjvmAbstractCache(GenericCacheFactory factory, String name) {
 		super(name);
 	}
 	
+	@Override
+	protected void doStart() {
+		super.doStart();
+		TimingWheel.register(timingWheel);
+		if(snapshotFile != null) {
+			restoreSnapshot();
+			if(snapshotSeconds > 0) {
+				snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+					Thread thread = new Thread(r, "cache-snapshot");
+					thread.setDaemon(true);
+					return thread;
+				});
+				snapshotter.scheduleWithFixedDelay(this::saveSnapshot, snapshotSeconds, snapshotSeconds, TimeUnit.SECONDS);
+			}
+		}
+	}
+	
+	@Override
+	protected void doStop() {
+		if(snapshotter != null) {
+			snapshotter.shutdown();
+			snapshotter = null;
+		}
+		if(snapshotFile != null) {
+			saveSnapshot();
+		}
+		TimingWheel.unregister(timingWheel);
+		super.doStop();
+	}
+	
+	/**
+	 * 设置快照：停止时（及定时）将全部数据保存到快照文件，启动时从快照文件恢复；
+	 * 恢复时只构建索引，数据在首次访问时解码。应在启动前设置。
+	 * 
+	 * @param snapshotFile	快照文件的路径
+	 * @param snapshotCodec	数据的编解码
+	 */
+	public void setSnapshot(String snapshotFile, ValueCodec<T> snapshotCodec) {
+		if(snapshotFile == null || "".equals(snapshotFile.trim())) {
+			throw new IllegalArgumentException("The snapshot file should not be null or empty");
+		}
+		if(snapshotCodec == null) {
+			throw new IllegalArgumentException("snapshotCodec");
+		}
+		this.snapshotFile = snapshotFile;
+		this.snapshotCodec = snapshotCodec;
+	}
+	
+	public String getSnapshotFile() {
+		return snapshotFile;
+	}
+	
+	public int getSnapshotSeconds() {
+		return snapshotSeconds;
+	}
+
+	/**
+	 * 设置定时保存快照的间隔（秒），0表示只在停止时保存
+	 * 
+	 * @param snapshotSeconds
+	 */
+	public void setSnapshotSeconds(int snapshotSeconds) {
+		if(snapshotSeconds < 0) {
+			throw new IllegalArgumentException("The value should not be less than 0.");
+		}
+		this.snapshotSeconds = snapshotSeconds;
+	}
+	
+	/**
+	 * 将全部数据保存到快照文件
+	 */
+	@SuppressWarnings("unchecked")
+	public void saveSnapshot() {
+		final ValueCodec<T> codec = snapshotCodec;
+		if(snapshotFile == null || codec == null) {
+			return;
+		}
+		long start = System.currentTimeMillis();
+		try {
+			int count = CacheSnapshot.write(snapshotFile, snapshotEntries(), this::keyOf, value -> {
+				if(isEmptyValue(value)) {
+					return null;
+				}
+				byte[] bytes = codec.encode((T) value);
+				return bytes != null ? bytes : SKIPPED_BYTES;
+			});
+			logger.info(MessageFormat.format("{0} saved {1} entries to the snapshot in {2} ms.", 
+					getName(), count, System.currentTimeMillis() - start));
+		} catch(Throwable t) {
+			logger.error(MessageFormat.format("Exception occured when {0} save the snapshot.", getName()), t);
+		}
+	}
+	
+	private void restoreSnapshot() {
+		long start = System.currentTimeMillis();
+		try {
+			int count = CacheSnapshot.read(snapshotFile, (key, value, ttlMillis) -> {
+				int seconds = ttlMillis > 0 ? (int) Math.min(Integer.MAX_VALUE, (ttlMillis + 999) / 1000) : 0;
+				restoreEntry(key, value != null ? value : EMPTY_VALUE, seconds);
+			});
+			if(count >= 0) {
+				logger.info(MessageFormat.format("{0} restored {1} entries from the snapshot in {2} ms.", 
+						getName(), count, System.currentTimeMillis() - start));
+			}
+		} catch(Throwable t) {
+			logger.error(MessageFormat.format("Exception occured when {0} restore the snapshot.", getName()), t);
+		}
+	}
+	
+	/**
+	 * 获取数据的值，从快照恢复的值在首次访问时解码
+	 * 
+	 * @param entry	数据
+	 * @return
+	 */
+	final Object resolve(TimingWheel.Entry entry) {
+		Object value = entry.value;
+		if(value instanceof CacheSnapshot.LazyValue) {
+			Object decoded = decode(value);
+			if(!entry.casValue(value, decoded)) {
+				//解码期间已被更新
+				return entry.value;
+			}
+			return decoded;
+		}
+		return value;
+	}
+	
+	/**
+	 * 解码从快照恢复的值，其它值原样返回
+	 * 
+	 * @param value
+	 * @return
+	 */
+	final Object decode(Object value) {
+		if(value instanceof CacheSnapshot.LazyValue) {
+			ValueCodec<T> codec = snapshotCodec;
+			return codec != null ? codec.decode(((CacheSnapshot.LazyValue) value).bytes()) : null;
+		}
+		return value;
+	}
+	
+	/**
+	 * 全部数据，用于保存快照，留给子类实现
+	 * 
+	 * @return
+	 */
+	abstract Iterable<? extends TimingWheel.Entry> snapshotEntries();
+	
+	/**
+	 * 从快照恢复数据，留给子类实现；值可能是尚未解码的，读取时应通过{@link #resolve(TimingWheel.Entry)}获取
+	 * 
+	 * @param key				缓存键
+	 * @param value				值
+	 * @param expiredSeconds	过期时间（秒），0表示不过期
+	 */
+	abstract void restoreEntry(String key, Object value, int expiredSeconds);
+	
+	/**
+	 * 数据的缓存键
+	 * 
+	 * @param entry
+	 * @return
+	 */
+	String keyOf(TimingWheel.Entry entry) {
+		return entry.key;
+	}
+	
 	/**
 	 * 设置从缓存数据获取键值的代理
 	 * 
@@ -71,19 +278,133 @@ public abstract class InjvmAbstractCache<T> extends AbstractCache<T> {
 		return misses.longValue();
 	}
 	
+	/**
+	 * 获取缓存的数据，不计入命中统计，也不记录访问（不影响淘汰）；空值与不存在时返回null
+	 *
+	 * @param key	缓存键
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public T peek(String key) {
+		TimingWheel.Entry entry = getEntry(key);
+		if(entry == null) {
+			return null;
+		}
+		Object value = resolve(entry);
+		return isEmptyValue(value) ? null : (T) value;
+	}
+
 	@Override
 	protected void expire(String key, int seconds) {
-		//do nothing
+		TimingWheel.Entry entry = getEntry(key);
+		if(entry != null) {
+			expire(entry, seconds);
+		}
 	}
 	
 	@Override
 	protected void expire(Collection<String> keys, int seconds) {
-		//do nothing
+		for(String key : keys) {
+			expire(key, seconds);
+		}
 	}
 	
+	/**
+	 * 获取缓存剩余的时间（秒），与redis一致：不存在时返回-2，不过期时返回-1
+	 */
 	@Override
 	public long ttl(String key) {
-		return 0;
+		TimingWheel.Entry entry = getEntry(key);
+		if(entry == null) {
+			return -2;
+		}
+		long expireTime = entry.expireTime;
+		if(expireTime <= 0) {
+			return -1;
+		}
+		long millis = expireTime - System.currentTimeMillis();
+		return millis > 0 ? (millis + 999) / 1000 : -2;
+	}
+	
+	/**
+	 * 获取未过期的数据，留给子类实现；已过期的数据应删除并返回null
+	 * 
+	 * @param key	缓存键
+	 * @return
+	 */
+	abstract TimingWheel.Entry getEntry(String key);
+	
+	/**
+	 * 删除时间轮回收的已过期数据，留给子类实现；应只在缓存键仍对应该数据时删除
+	 * 
+	 * @param entry	已过期的数据
+	 */
+	abstract void removeExpired(TimingWheel.Entry entry);
+	
+	/**
+	 * 转换为{@link #getValueFromCache(String)}的返回值
+	 * 
+	 * @param value	实际缓存的对象
+	 * @return
+	 */
+	final Object valueOf(Object value) {
+		return isEmptyValue(value) ? EMPTY_HIT : value;
+	}
+	
+	/**
+	 * 设置数据的过期时间；延长过期时间时不移动时间轮中的位置，到期时再重新放入
+	 * 
+	 * @param entry		数据
+	 * @param seconds	过期时间（秒），不大于0表示不过期
+	 */
+	final void expire(TimingWheel.Entry entry, int seconds) {
+		long previous = entry.expireTime;
+		if(seconds > 0) {
+			long expireTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds);
+			entry.expireTime = expireTime;
+			if(previous <= 0 || expireTime < previous) {
+				timingWheel.schedule(entry);
+			}
+		} else {
+			entry.expireTime = 0;
+			if(previous > 0) {
+				timingWheel.cancel(entry);
+			}
+		}
+	}
+	
+	/**
+	 * 数据被删除或替换时，从时间轮删除
+	 * 
+	 * @param entry	数据
+	 */
+	final void cancelExpiry(TimingWheel.Entry entry) {
+		if(entry.expireTime > 0) {
+			timingWheel.cancel(entry);
+		}
+	}
+	
+	private void onExpired(TimingWheel.Entry entry) {
+		if(entry.isExpired(System.currentTimeMillis())) {
+			removeExpired(entry);
+		} else if(entry.expireTime > 0) {
+			//到期前过期时间被延长
+			timingWheel.schedule(entry);
+		}
+	}
+
+	/**
+	 * 本地内存的访问不会阻塞，直接在调用线程中完成
+	 */
+	@Override
+	protected <R> CompletableFuture<R> supplyAsync(Supplier<R> supplier, Executor executor) {
+		CompletableFuture<R> future = new CompletableFuture<R>();
+		try {
+			future.complete(supplier.get());
+		} catch(Throwable t) {
+			future.completeExceptionally(t);
+		}
+		return future;
 	}
 
 	@Override
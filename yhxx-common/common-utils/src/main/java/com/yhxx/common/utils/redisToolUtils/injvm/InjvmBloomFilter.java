@@ -0,0 +1,236 @@
+package com.yhxx.common.utils.redisToolUtils.injvm;
+
+import com.yhxx.common.utils.redisToolUtils.ExistenceFilter;
+import com.yhxx.common.utils.redisToolUtils.util.BloomFilters;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 基于jvm内存的可扩展布隆过滤器：元素数量达到当前分段的容量时，追加一个容量翻倍、误判率减半的分段，
+ * 总误判率不超过指定的误判率；重建期间的新增同时写入新旧过滤器。
+ *
+ * @author zsp
+ *
+ */
+public class InjvmBloomFilter implements ExistenceFilter {
+
+	/**
+	 * 分段容量的增长倍数
+	 */
+	private final static int GROWTH_FACTOR = 2;
+
+	/**
+	 * 分段误判率的收紧比例
+	 */
+	private final static double TIGHTENING_RATIO = 0.5;
+
+	/**
+	 * 位数组的最大位数
+	 */
+	private final static long MAX_BITS = (long) Integer.MAX_VALUE * Long.SIZE;
+
+	private final long expectedInsertions;
+	private final double fpp;
+
+	private volatile Segments current;
+
+	/**
+	 * 正在重建的过滤器，不在重建时为null
+	 */
+	private volatile Segments building;
+
+	/**
+	 * 新增持有读锁，开始与结束重建时持有写锁：新增总是写入重建结束后使用的过滤器
+	 */
+	private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+	/**
+	 *
+	 * @param expectedInsertions	预计的元素数量，即第一个分段的容量
+	 * @param fpp					误判率，取值(0, 1)
+	 */
+	public InjvmBloomFilter(long expectedInsertions, double fpp) {
+		//校验参数
+		BloomFilters.optimalNumOfBits(expectedInsertions, fpp);
+		this.expectedInsertions = expectedInsertions;
+		this.fpp = fpp;
+		this.current = new Segments();
+	}
+
+	@Override
+	public boolean mightContain(String key) {
+		return current.mightContain(key);
+	}
+
+	@Override
+	public void put(String key) {
+		rebuildLock.readLock().lock();
+		try {
+			current.put(key);
+			Segments _building = building;
+			if(_building != null) {
+				_building.put(key);
+			}
+		} finally {
+			rebuildLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public synchronized void rebuild(Iterable<String> keys) {
+		Segments next = new Segments();
+		rebuildLock.writeLock().lock();
+		try {
+			building = next;
+		} finally {
+			rebuildLock.writeLock().unlock();
+		}
+		try {
+			for(String key : keys) {
+				next.put(key);
+			}
+			rebuildLock.writeLock().lock();
+			try {
+				current = next;
+			} finally {
+				rebuildLock.writeLock().unlock();
+			}
+		} finally {
+			building = null;
+		}
+	}
+
+	/**
+	 * 已添加的元素数量（近似值）
+	 *
+	 * @return
+	 */
+	public long getApproximateSize() {
+		return current.size();
+	}
+
+	/**
+	 * 占用的位数
+	 *
+	 * @return
+	 */
+	public long getBitSize() {
+		return current.bitSize();
+	}
+
+	/**
+	 * 可扩展的分段集合
+	 */
+	private final class Segments {
+
+		private volatile Segment[] segments;
+
+		Segments() {
+			this.segments = new Segment[] { new Segment(expectedInsertions, fpp * (1 - TIGHTENING_RATIO)) };
+		}
+
+		boolean mightContain(String key) {
+			for(Segment segment : segments) {
+				if(segment.mightContain(key)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void put(String key) {
+			if(mightContain(key)) {
+				return;
+			}
+			Segment[] _segments = segments;
+			Segment last = _segments[_segments.length - 1];
+			if(last.put(key) >= last.capacity) {
+				grow(_segments);
+			}
+		}
+
+		private synchronized void grow(Segment[] expected) {
+			if(segments != expected) {
+				return;
+			}
+			Segment last = expected[expected.length - 1];
+			Segment[] next = new Segment[expected.length + 1];
+			System.arraycopy(expected, 0, next, 0, expected.length);
+			next[expected.length] = new Segment(last.capacity * GROWTH_FACTOR, last.fpp * TIGHTENING_RATIO);
+			segments = next;
+		}
+
+		long size() {
+			long size = 0;
+			for(Segment segment : segments) {
+				size += segment.count.get();
+			}
+			return size;
+		}
+
+		long bitSize() {
+			long bits = 0;
+			for(Segment segment : segments) {
+				bits += segment.numBits;
+			}
+			return bits;
+		}
+
+	}
+
+	/**
+	 * 固定容量的布隆过滤器分段
+	 */
+	private static final class Segment {
+
+		final long capacity;
+		final double fpp;
+		final long numBits;
+		final int numHashFunctions;
+		final AtomicLongArray bits;
+		final AtomicLong count = new AtomicLong();
+
+		Segment(long capacity, double fpp) {
+			this.capacity = capacity;
+			this.fpp = fpp;
+			long _numBits = Math.min(BloomFilters.optimalNumOfBits(capacity, fpp), MAX_BITS);
+			this.bits = new AtomicLongArray((int) ((_numBits + Long.SIZE - 1) / Long.SIZE));
+			this.numBits = (long) bits.length() * Long.SIZE;
+			this.numHashFunctions = BloomFilters.optimalNumOfHashFunctions(capacity, numBits);
+		}
+
+		boolean mightContain(String key) {
+			for(long offset : BloomFilters.offsets(key, numHashFunctions, numBits)) {
+				if((bits.get((int) (offset >>> 6)) & (1L << offset)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * 添加元素
+		 *
+		 * @param key
+		 * @return 添加后的元素数量
+		 */
+		long put(String key) {
+			for(long offset : BloomFilters.offsets(key, numHashFunctions, numBits)) {
+				int index = (int) (offset >>> 6);
+				long mask = 1L << offset;
+				for(;;) {
+					long word = bits.get(index);
+					if((word & mask) != 0 || bits.compareAndSet(index, word, word | mask)) {
+						break;
+					}
+				}
+			}
+			return count.incrementAndGet();
+		}
+
+	}
+
+}
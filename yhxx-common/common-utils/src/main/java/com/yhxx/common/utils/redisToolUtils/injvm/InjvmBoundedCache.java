@@ -0,0 +1,592 @@
+package com.yhxx.common.utils.redisToolUtils.injvm;
+
+
+import com.yhxx.common.utils.redisToolUtils.CachedObject;
+import com.yhxx.common.utils.redisToolUtils.GenericCacheFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * 有界的jvm内存缓存，按W-TinyLFU淘汰：新数据先进入占总容量1%的窗口LRU，
+ * 移出窗口时与主区（分为试用区和保护区的SLRU）的淘汰候选比较访问频率，频率更高者保留，
+ * 防止只访问一次的数据挤出热点数据。
+ *
+ * 读操作只在记录访问时加锁，竞争时先写入有损的读缓冲区，由下一个获得锁的线程批量处理。
+ *
+ * @author zsp
+ *
+ * @param <T>
+ */
+public class InjvmBoundedCache<T> extends InjvmAbstractCache<T> {
+
+	/**
+	 * 窗口占总容量的百分比
+	 */
+	private final static int WINDOW_PERCENT = 1;
+
+	/**
+	 * 保护区占主区容量的百分比
+	 */
+	private final static int PROTECTED_PERCENT = 80;
+
+	/**
+	 * 读缓冲区的大小，缓冲区已满时丢弃访问记录
+	 */
+	private final static int READ_BUFFER_SIZE = 128;
+
+	/**
+	 * 访问频率不大于此值的候选直接拒绝，否则有1/128的概率随机接纳，防止哈希碰撞攻击
+	 */
+	private final static int ADMIT_HASHDOS_THRESHOLD = 5;
+
+	private final ConcurrentHashMap<String, Node> cache = new ConcurrentHashMap<String, Node>();
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final ArrayBlockingQueue<Node> readBuffer = new ArrayBlockingQueue<Node>(READ_BUFFER_SIZE);
+
+	private final FrequencySketch sketch;
+
+	private final AccessOrderDeque window = new AccessOrderDeque();
+	private final AccessOrderDeque probation = new AccessOrderDeque();
+	private final AccessOrderDeque protectedDeque = new AccessOrderDeque();
+
+	/**
+	 * 最大元素数量
+	 */
+	private final long maximumSize;
+
+	/**
+	 * 最大权重，未设置权重计算代理时等于最大元素数量
+	 */
+	private long maximumWeight;
+
+	/**
+	 * 数据的权重计算代理，为null时每个数据的权重为1
+	 */
+	private ToIntFunction<T> weigher;
+
+	private long windowMaximum;
+	private long protectedMaximum;
+
+	private long weightedSize;
+	private long windowWeightedSize;
+	private long protectedWeightedSize;
+
+	/**
+	 * 淘汰次数
+	 */
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * 淘汰的权重
+	 */
+	private final LongAdder evictionWeight = new LongAdder();
+
+	/**
+	 *
+	 * @param factory		缓存工厂
+	 * @param name			缓存名
+	 * @param maximumSize	最大元素数量
+	 */
+	public InjvmBoundedCache(GenericCacheFactory factory, String name, long maximumSize) {
+		super(factory, name);
+		if(maximumSize <= 0) {
+			throw new IllegalArgumentException("The maximumSize should be greater than 0.");
+		}
+		this.maximumSize = maximumSize;
+		this.sketch = new FrequencySketch(maximumSize);
+		setMaximum(maximumSize);
+	}
+
+	/**
+	 * 设置最大权重及数据的权重计算代理；淘汰时同时满足最大元素数量和最大权重
+	 *
+	 * @param maximumWeight	最大权重
+	 * @param weigher		数据的权重计算代理，返回值不能为负数
+	 */
+	public void setMaximumWeight(long maximumWeight, ToIntFunction<T> weigher) {
+		if(maximumWeight <= 0) {
+			throw new IllegalArgumentException("The maximumWeight should be greater than 0.");
+		}
+		if(weigher == null) {
+			throw new IllegalArgumentException("weigher");
+		}
+		evictionLock.lock();
+		try {
+			this.weigher = weigher;
+			setMaximum(maximumWeight);
+			evict();
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private void setMaximum(long maximum) {
+		this.maximumWeight = maximum;
+		this.windowMaximum = Math.max(1, maximum * WINDOW_PERCENT / 100);
+		this.protectedMaximum = (maximum - windowMaximum) * PROTECTED_PERCENT / 100;
+	}
+
+	@Override
+	protected void addToCache(String key, T value) {
+		put(key, value, getExpiredSeconds());
+	}
+
+	@Override
+	protected void addToCache(Map<String, T> values) {
+		addToCache(values, getExpiredSeconds());
+	}
+
+	@Override
+	protected void addToCache(Map<String, T> values, int expiredSeconds) {
+		for(Map.Entry<String, T> entry : values.entrySet()) {
+			put(entry.getKey(), entry.getValue(), expiredSeconds);
+		}
+	}
+
+	@Override
+	protected void addToCache(String key, T value, int expiredSeconds) {
+		put(key, value, expiredSeconds);
+	}
+
+	@Override
+	protected CachedObject<T> getFromCache(String key) {
+		return asCachedObject(key, read(key), null);
+	}
+
+	@Override
+	protected List<CachedObject<T>> getFromCache(Collection<String> keys) {
+		List<CachedObject<T>> list = new ArrayList<CachedObject<T>>();
+		for(String key : keys) {
+			list.add(asCachedObject(key, read(key), null));
+		}
+		return list;
+	}
+
+	@Override
+	protected Object getValueFromCache(String key) {
+		return valueOf(read(key));
+	}
+
+	@Override
+	protected Object[] getValuesFromCache(Collection<String> keys) {
+		Object[] values = new Object[keys.size()];
+		int i = 0;
+		for(String key : keys) {
+			values[i++] = valueOf(read(key));
+		}
+		return values;
+	}
+
+	@Override
+	protected void removeFromCache(String key) {
+		Node node = cache.remove(key);
+		if(node != null) {
+			remove(node);
+		}
+	}
+
+	@Override
+	protected void removeFromCache(Collection<String> keys) {
+		for(String key : keys) {
+			removeFromCache(key);
+		}
+	}
+
+	@Override
+	protected void clearCache() {
+		evictionLock.lock();
+		try {
+			readBuffer.clear();
+			for(Node node : cache.values()) {
+				unlink(node);
+				cancelExpiry(node);
+			}
+			cache.clear();
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	@Override
+	protected int sizeOfCache() {
+		return cache.size();
+	}
+
+	@Override
+	protected void addEmptyToCache(String key) {
+		put(key, EMPTY_VALUE, 0);
+	}
+
+	@Override
+	protected <V> boolean isEmptyValue(V value) {
+		return EMPTY_VALUE.equals(value);
+	}
+
+	/**
+	 * 淘汰次数
+	 *
+	 * @return
+	 */
+	@Override
+	public long getEvictionCount() {
+		return evictions.longValue();
+	}
+
+	/**
+	 * 淘汰的权重
+	 *
+	 * @return
+	 */
+	public long getEvictionWeight() {
+		return evictionWeight.longValue();
+	}
+
+	/**
+	 * 当前的权重
+	 *
+	 * @return
+	 */
+	public long getWeightedSize() {
+		evictionLock.lock();
+		try {
+			return weightedSize;
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	public long getMaximumWeight() {
+		return maximumWeight;
+	}
+
+	@Override
+	TimingWheel.Entry getEntry(String key) {
+		Node node = cache.get(key);
+		if(node != null && node.isExpired(System.currentTimeMillis())) {
+			if(cache.remove(key, node)) {
+				remove(node);
+			}
+			return null;
+		}
+		return node;
+	}
+
+	@Override
+	void removeExpired(TimingWheel.Entry entry) {
+		Node node = (Node) entry;
+		if(cache.remove(node.key, node)) {
+			remove(node);
+		}
+	}
+
+	private void remove(Node node) {
+		cancelExpiry(node);
+		evictionLock.lock();
+		try {
+			unlink(node);
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private Object read(String key) {
+		Node node = (Node) getEntry(key);
+		if(node == null) {
+			return null;
+		}
+		readBuffer.offer(node);
+		if(evictionLock.tryLock()) {
+			try {
+				drainReadBuffer();
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+		return resolve(node);
+	}
+
+	@Override
+	Iterable<? extends TimingWheel.Entry> snapshotEntries() {
+		return cache.values();
+	}
+
+	/**
+	 * 设置了权重计算代理时，需要解码后计算权重
+	 */
+	@Override
+	void restoreEntry(String key, Object value, int expiredSeconds) {
+		Object _value = weigher != null ? decode(value) : value;
+		if(_value != null) {
+			put(key, _value, expiredSeconds);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void put(String key, Object value, int expiredSeconds) {
+		int weight = 1;
+		if(weigher != null && !isEmptyValue(value)) {
+			weight = weigher.applyAsInt((T)value);
+			if(weight < 0) {
+				throw new IllegalArgumentException("The weight should not be less than 0.");
+			}
+		}
+		evictionLock.lock();
+		try {
+			drainReadBuffer();
+			Node node = cache.get(key);
+			if(node != null) {
+				node.value = value;
+				expire(node, expiredSeconds);
+				changeWeight(node, weight);
+				onAccess(node);
+			} else {
+				node = new Node(key, value, weight);
+				if(expiredSeconds > 0) {
+					expire(node, expiredSeconds);
+				}
+				cache.put(key, node);
+				sketch.increment(key);
+				window.addLast(node);
+				node.queue = window;
+				windowWeightedSize += weight;
+				weightedSize += weight;
+			}
+			evict();
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private void drainReadBuffer() {
+		Node node;
+		while((node = readBuffer.poll()) != null) {
+			onAccess(node);
+		}
+	}
+
+	/**
+	 * 记录访问：窗口和保护区内移到队尾，试用区内晋升到保护区
+	 *
+	 * @param node
+	 */
+	private void onAccess(Node node) {
+		if(node.queue == null) {
+			//已删除
+			return;
+		}
+		sketch.increment(node.key);
+		if(node.queue == probation) {
+			probation.unlink(node);
+			protectedDeque.addLast(node);
+			node.queue = protectedDeque;
+			protectedWeightedSize += node.weight;
+			demoteFromProtected();
+		} else {
+			node.queue.moveToLast(node);
+		}
+	}
+
+	private void changeWeight(Node node, int weight) {
+		int delta = weight - node.weight;
+		node.weight = weight;
+		weightedSize += delta;
+		if(node.queue == window) {
+			windowWeightedSize += delta;
+		} else if(node.queue == protectedDeque) {
+			protectedWeightedSize += delta;
+		}
+	}
+
+	private void demoteFromProtected() {
+		while(protectedWeightedSize > protectedMaximum) {
+			Node demoted = protectedDeque.peekFirst();
+			if(demoted == null) {
+				break;
+			}
+			protectedDeque.unlink(demoted);
+			protectedWeightedSize -= demoted.weight;
+			probation.addLast(demoted);
+			demoted.queue = probation;
+		}
+	}
+
+	/**
+	 * 淘汰：窗口超出容量的数据作为候选移入试用区，超出总容量时，候选与试用区队首的数据比较访问频率
+	 */
+	private void evict() {
+		while(windowWeightedSize > windowMaximum) {
+			Node candidate = window.peekFirst();
+			if(candidate == null) {
+				break;
+			}
+			window.unlink(candidate);
+			windowWeightedSize -= candidate.weight;
+			probation.addLast(candidate);
+			candidate.queue = probation;
+			if(isOverflow() && !admitCandidate(candidate)) {
+				evictNode(candidate);
+			}
+		}
+		while(isOverflow()) {
+			Node victim = probation.peekFirst();
+			if(victim == null) {
+				victim = protectedDeque.peekFirst();
+			}
+			if(victim == null) {
+				victim = window.peekFirst();
+			}
+			if(victim == null) {
+				break;
+			}
+			evictNode(victim);
+		}
+	}
+
+	/**
+	 * 候选与主区的淘汰数据比较，候选被接纳时淘汰主区的数据，直到容量足够
+	 *
+	 * @param candidate	候选
+	 * @return 是否接纳候选
+	 */
+	private boolean admitCandidate(Node candidate) {
+		int candidateFreq = sketch.frequency(candidate.key);
+		while(isOverflow()) {
+			Node victim = probation.peekFirst();
+			if(victim == candidate) {
+				victim = protectedDeque.peekFirst();
+			}
+			if(victim == null) {
+				return false;
+			}
+			if(!admit(candidateFreq, sketch.frequency(victim.key))) {
+				return false;
+			}
+			evictNode(victim);
+		}
+		return true;
+	}
+
+	private boolean admit(int candidateFreq, int victimFreq) {
+		if(candidateFreq > victimFreq) {
+			return true;
+		} else if(candidateFreq <= ADMIT_HASHDOS_THRESHOLD) {
+			return false;
+		}
+		return (ThreadLocalRandom.current().nextInt() & 127) == 0;
+	}
+
+	private boolean isOverflow() {
+		return weightedSize > maximumWeight || cache.size() > maximumSize;
+	}
+
+	private void evictNode(Node node) {
+		unlink(node);
+		cancelExpiry(node);
+		cache.remove(node.key, node);
+		evictions.increment();
+		evictionWeight.add(node.weight);
+	}
+
+	private void unlink(Node node) {
+		AccessOrderDeque queue = node.queue;
+		if(queue == null) {
+			return;
+		}
+		queue.unlink(node);
+		if(queue == window) {
+			windowWeightedSize -= node.weight;
+		} else if(queue == protectedDeque) {
+			protectedWeightedSize -= node.weight;
+		}
+		weightedSize -= node.weight;
+		node.queue = null;
+	}
+
+	@Override
+	public String getType() {
+		return "injvm-bounded";
+	}
+
+	private static final class Node extends TimingWheel.Entry {
+
+		int weight;
+
+		/**
+		 * 所在的队列，null表示已删除
+		 */
+		AccessOrderDeque queue;
+		Node before;
+		Node after;
+
+		Node(String key, Object value, int weight) {
+			super(key, value);
+			this.weight = weight;
+		}
+
+	}
+
+	/**
+	 * 按访问顺序排列的双向链表，队首最久未访问
+	 */
+	private static final class AccessOrderDeque {
+
+		private Node first;
+		private Node last;
+
+		Node peekFirst() {
+			return first;
+		}
+
+		void addLast(Node node) {
+			node.before = last;
+			node.after = null;
+			if(last == null) {
+				first = node;
+			} else {
+				last.after = node;
+			}
+			last = node;
+		}
+
+		void unlink(Node node) {
+			Node prev = node.before;
+			Node next = node.after;
+			if(prev == null) {
+				first = next;
+			} else {
+				prev.after = next;
+			}
+			if(next == null) {
+				last = prev;
+			} else {
+				next.before = prev;
+			}
+			node.before = null;
+			node.after = null;
+		}
+
+		void moveToLast(Node node) {
+			if(node != last) {
+				unlink(node);
+				addLast(node);
+			}
+		}
+
+	}
+
+}
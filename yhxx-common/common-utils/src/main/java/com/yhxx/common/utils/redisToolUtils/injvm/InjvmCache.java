@@ -12,7 +12,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class InjvmCache<T> extends InjvmAbstractCache<T> {
 
-	private final Map<String, Object> cache = new ConcurrentHashMap<String, Object>();
+	private final Map<String, TimingWheel.Entry> cache = new ConcurrentHashMap<String, TimingWheel.Entry>();
 
 	public InjvmCache(GenericCacheFactory factory, String name) {
 		super(factory, name);
@@ -20,63 +20,133 @@ public class InjvmCache<T> extends InjvmAbstractCache<T> {
 
 	@Override
 	protected void addToCache(String key, T value) {
-		cache.put(key, value);
+		addToCache(key, value, getExpiredSeconds());
 	}
 
 	@Override
 	protected void addToCache(Map<String, T> values) {
-		cache.putAll(values);
+		addToCache(values, getExpiredSeconds());
 	}
 
 	@Override
 	protected void addToCache(Map<String, T> values, int expiredSeconds) {
-		throw new UnsupportedOperationException("cannot supported expiredSeconds!");
+		for(Map.Entry<String, T> item : values.entrySet()) {
+			put(item.getKey(), item.getValue(), expiredSeconds);
+		}
 	}
 
 	@Override
 	protected void addToCache(String key, T value, int expiredSeconds) {
-		throw new UnsupportedOperationException("cannot supported expiredSeconds!");
+		put(key, value, expiredSeconds);
 	}
 
 	@Override
 	protected CachedObject<T> getFromCache(String key) {
-		return asCachedObject(key, cache.get(key), null);
+		return asCachedObject(key, getValue(key), null);
 	}
-	
+
 	@Override
 	protected List<CachedObject<T>> getFromCache(Collection<String> keys) {
 		List<CachedObject<T>> list = new ArrayList<CachedObject<T>>();
 		for(String key : keys) {
-			list.add(asCachedObject(key, cache.get(key), null));
+			list.add(asCachedObject(key, getValue(key), null));
 		}
 		return list;
 	}
 
+	@Override
+	protected Object getValueFromCache(String key) {
+		return valueOf(getValue(key));
+	}
+
+	@Override
+	protected Object[] getValuesFromCache(Collection<String> keys) {
+		Object[] values = new Object[keys.size()];
+		int i = 0;
+		for(String key : keys) {
+			values[i++] = valueOf(getValue(key));
+		}
+		return values;
+	}
+
 	@Override
 	protected void removeFromCache(String key) {
-		cache.remove(key);
+		TimingWheel.Entry entry = cache.remove(key);
+		if(entry != null) {
+			cancelExpiry(entry);
+		}
 	}
-	
+
 	@Override
 	protected void removeFromCache(Collection<String> keys) {
 		for(String key : keys) {
-			cache.remove(key);
+			removeFromCache(key);
 		}
 	}
 
 	@Override
 	protected void clearCache() {
-		cache.clear();
+		for(String key : cache.keySet()) {
+			removeFromCache(key);
+		}
 	}
-	
+
+	@Override
+	protected int sizeOfCache() {
+		return cache.size();
+	}
+
 	@Override
 	protected void addEmptyToCache(String key) {
-		cache.put(key, EMPTY_VALUE);
+		put(key, EMPTY_VALUE, 0);
 	}
 
 	@Override
 	protected <V> boolean isEmptyValue(V value) {
 		return EMPTY_VALUE.equals(value);
 	}
-	
+
+	@Override
+	TimingWheel.Entry getEntry(String key) {
+		TimingWheel.Entry entry = cache.get(key);
+		if(entry != null && entry.isExpired(System.currentTimeMillis())) {
+			if(cache.remove(key, entry)) {
+				cancelExpiry(entry);
+			}
+			return null;
+		}
+		return entry;
+	}
+
+	@Override
+	void removeExpired(TimingWheel.Entry entry) {
+		cache.remove(entry.key, entry);
+	}
+
+	@Override
+	Iterable<? extends TimingWheel.Entry> snapshotEntries() {
+		return cache.values();
+	}
+
+	@Override
+	void restoreEntry(String key, Object value, int expiredSeconds) {
+		put(key, value, expiredSeconds);
+	}
+
+	private Object getValue(String key) {
+		TimingWheel.Entry entry = getEntry(key);
+		return entry != null ? resolve(entry) : null;
+	}
+
+	private void put(String key, Object value, int expiredSeconds) {
+		TimingWheel.Entry entry = new TimingWheel.Entry(key, value);
+		if(expiredSeconds > 0) {
+			expire(entry, expiredSeconds);
+		}
+		TimingWheel.Entry previous = cache.put(key, entry);
+		if(previous != null) {
+			cancelExpiry(previous);
+		}
+	}
+
 }
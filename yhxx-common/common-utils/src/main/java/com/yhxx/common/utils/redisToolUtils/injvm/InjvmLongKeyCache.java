@@ -0,0 +1,471 @@
+package com.yhxx.common.utils.redisToolUtils.injvm;
+
+
+import com.yhxx.common.utils.redisToolUtils.CachedObject;
+import com.yhxx.common.utils.redisToolUtils.GenericCacheFactory;
+import com.yhxx.common.utils.redisToolUtils.LongKeyCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+
+/**
+ * 以long为缓存键的jvm内存缓存，基于分段的开放寻址（线性探测）哈希表，缓存键不装箱；
+ * 读操作使用乐观读，命中时不分配任何对象。
+ *
+ * @author zsp
+ *
+ * @param <T>
+ */
+public class InjvmLongKeyCache<T> extends InjvmAbstractCache<T> implements LongKeyCache<T> {
+
+	private final static int SEGMENTS = 16;
+	private final static int SEGMENT_SHIFT = 28;
+	private final static int INITIAL_CAPACITY = 64;
+
+	private final Segment[] segments;
+
+	public InjvmLongKeyCache(GenericCacheFactory factory, String name) {
+		super(factory, name);
+		this.segments = new Segment[SEGMENTS];
+		for(int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	@Override
+	public void add(long key, T value) {
+		add(String.valueOf(key), value);
+	}
+
+	@Override
+	public void add(long key, T value, int expiredSeconds) {
+		add(String.valueOf(key), value, expiredSeconds);
+	}
+
+	@Override
+	public void remove(long key) {
+		remove(String.valueOf(key));
+	}
+
+	@Override
+	public T get(long key) {
+		if (isStarted()) {
+			LongEntry entry = getEntry(key);
+			if (entry == null) {
+				incrMiss();
+				return null;
+			}
+			return hit(entry);
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * 命中时直接返回；未命中，或开启了提前刷新、按概率提前过期时，按字符串缓存键的流程处理
+	 */
+	@Override
+	public T getAndFetch(long key, LongFunction<T> fetcher) {
+		if (fetcher == null) {
+			throw new IllegalArgumentException("fetcher");
+		}
+		if (isStarted() && !isRefreshAheadEnabled() && getEarlyExpirationBeta() <= 0) {
+			LongEntry entry = getEntry(key);
+			if (entry != null) {
+				return hit(entry);
+			}
+		}
+		return getAndFetch(String.valueOf(key), e -> fetcher.apply(key));
+	}
+
+	@SuppressWarnings("unchecked")
+	private T hit(LongEntry entry) {
+		Object value = resolve(entry);
+		if (isEmptyValue(value)) {
+			incrEmptyHit();
+			return null;
+		}
+		if (getTtlPolicy() != null) {
+			//按策略的失效时间延长
+			handleHit(String.valueOf(entry.id));
+			return (T) value;
+		}
+		incrHit();
+		int expiredSeconds = getExpiredSeconds();
+		if (expiredSeconds > 0 && !isRefreshAheadEnabled()) {
+			expire(entry, expiredSeconds);
+		}
+		return (T) value;
+	}
+
+	@Override
+	protected void addToCache(String key, T value) {
+		addToCache(key, value, getExpiredSeconds());
+	}
+
+	@Override
+	protected void addToCache(Map<String, T> values) {
+		addToCache(values, getExpiredSeconds());
+	}
+
+	@Override
+	protected void addToCache(Map<String, T> values, int expiredSeconds) {
+		for(Map.Entry<String, T> item : values.entrySet()) {
+			put(parseKey(item.getKey()), item.getValue(), expiredSeconds);
+		}
+	}
+
+	@Override
+	protected void addToCache(String key, T value, int expiredSeconds) {
+		put(parseKey(key), value, expiredSeconds);
+	}
+
+	@Override
+	protected CachedObject<T> getFromCache(String key) {
+		LongEntry entry = getEntry(parseKey(key));
+		return asCachedObject(key, entry != null ? resolve(entry) : null, null);
+	}
+
+	@Override
+	protected List<CachedObject<T>> getFromCache(Collection<String> keys) {
+		List<CachedObject<T>> list = new ArrayList<CachedObject<T>>();
+		for(String key : keys) {
+			list.add(getFromCache(key));
+		}
+		return list;
+	}
+
+	@Override
+	protected Object getValueFromCache(String key) {
+		LongEntry entry = getEntry(parseKey(key));
+		return valueOf(entry != null ? resolve(entry) : null);
+	}
+
+	@Override
+	protected void removeFromCache(String key) {
+		long id = parseKey(key);
+		LongEntry entry = segmentFor(id).remove(id, null);
+		if(entry != null) {
+			cancelExpiry(entry);
+		}
+	}
+
+	@Override
+	protected void removeFromCache(Collection<String> keys) {
+		for(String key : keys) {
+			removeFromCache(key);
+		}
+	}
+
+	@Override
+	protected void clearCache() {
+		for(Segment segment : segments) {
+			for(LongEntry entry : segment.clear()) {
+				cancelExpiry(entry);
+			}
+		}
+	}
+
+	@Override
+	protected int sizeOfCache() {
+		int size = 0;
+		for(Segment segment : segments) {
+			size += segment.size;
+		}
+		return size;
+	}
+
+	@Override
+	protected void addEmptyToCache(String key) {
+		put(parseKey(key), EMPTY_VALUE, 0);
+	}
+
+	@Override
+	protected <V> boolean isEmptyValue(V value) {
+		return EMPTY_VALUE.equals(value);
+	}
+
+	@Override
+	TimingWheel.Entry getEntry(String key) {
+		return getEntry(parseKey(key));
+	}
+
+	@Override
+	void removeExpired(TimingWheel.Entry entry) {
+		LongEntry _entry = (LongEntry) entry;
+		segmentFor(_entry.id).remove(_entry.id, _entry);
+	}
+
+	@Override
+	Iterable<? extends TimingWheel.Entry> snapshotEntries() {
+		List<LongEntry> entries = new ArrayList<LongEntry>();
+		for(Segment segment : segments) {
+			segment.collect(entries);
+		}
+		return entries;
+	}
+
+	@Override
+	void restoreEntry(String key, Object value, int expiredSeconds) {
+		put(parseKey(key), value, expiredSeconds);
+	}
+
+	@Override
+	String keyOf(TimingWheel.Entry entry) {
+		return String.valueOf(((LongEntry) entry).id);
+	}
+
+	/**
+	 * 获取未过期的数据，已过期的数据删除并返回null
+	 *
+	 * @param id	缓存键
+	 * @return
+	 */
+	private LongEntry getEntry(long id) {
+		Segment segment = segmentFor(id);
+		LongEntry entry = segment.get(id);
+		if(entry != null && entry.isExpired(System.currentTimeMillis())) {
+			if(segment.remove(id, entry) != null) {
+				cancelExpiry(entry);
+			}
+			return null;
+		}
+		return entry;
+	}
+
+	private void put(long id, Object value, int expiredSeconds) {
+		LongEntry entry = new LongEntry(id, value);
+		if(expiredSeconds > 0) {
+			expire(entry, expiredSeconds);
+		}
+		LongEntry previous = segmentFor(id).put(id, entry);
+		if(previous != null) {
+			cancelExpiry(previous);
+		}
+	}
+
+	private Segment segmentFor(long id) {
+		return segments[(hash(id) >>> SEGMENT_SHIFT) & (SEGMENTS - 1)];
+	}
+
+	private static long parseKey(String key) {
+		try {
+			return Long.parseLong(key);
+		} catch(NumberFormatException e) {
+			throw new IllegalArgumentException("The key should be a long: " + key);
+		}
+	}
+
+	private static int hash(long id) {
+		long hash = id * 0x9e3779b97f4a7c15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	private static final class LongEntry extends TimingWheel.Entry {
+
+		final long id;
+
+		LongEntry(long id, Object value) {
+			super(null, value);
+			this.id = id;
+		}
+
+	}
+
+	/**
+	 * 哈希表的数组，扩容时整体替换
+	 */
+	private static final class Table {
+
+		final long[] keys;
+		final LongEntry[] entries;
+
+		Table(int capacity) {
+			this.keys = new long[capacity];
+			this.entries = new LongEntry[capacity];
+		}
+
+	}
+
+	/**
+	 * 缓存段，写操作加写锁，读操作使用乐观读
+	 */
+	private static final class Segment {
+
+		private final StampedLock lock = new StampedLock();
+		private volatile Table table = new Table(INITIAL_CAPACITY);
+		private volatile int size;
+
+		LongEntry get(long id) {
+			long stamp = lock.tryOptimisticRead();
+			LongEntry entry = find(table, id);
+			if(!lock.validate(stamp)) {
+				stamp = lock.readLock();
+				try {
+					entry = find(table, id);
+				} finally {
+					lock.unlockRead(stamp);
+				}
+			}
+			return entry;
+		}
+
+		/**
+		 * 探测次数不超过表长，乐观读时即使与写操作并发也能结束
+		 */
+		private LongEntry find(Table _table, long id) {
+			long[] keys = _table.keys;
+			LongEntry[] entries = _table.entries;
+			int mask = entries.length - 1;
+			for(int i = hash(id) & mask, n = 0; n < entries.length; i = (i + 1) & mask, n++) {
+				LongEntry entry = entries[i];
+				if(entry == null) {
+					return null;
+				}
+				if(keys[i] == id && entry.id == id) {
+					return entry;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 *
+		 * @return 被替换的数据
+		 */
+		LongEntry put(long id, LongEntry entry) {
+			long stamp = lock.writeLock();
+			try {
+				Table _table = table;
+				int mask = _table.entries.length - 1;
+				int i = hash(id) & mask;
+				for(; _table.entries[i] != null; i = (i + 1) & mask) {
+					if(_table.keys[i] == id) {
+						LongEntry previous = _table.entries[i];
+						_table.entries[i] = entry;
+						return previous;
+					}
+				}
+				if((size + 1) * 4 > _table.entries.length * 3) {
+					_table = resize(_table);
+					mask = _table.entries.length - 1;
+					i = hash(id) & mask;
+					while(_table.entries[i] != null) {
+						i = (i + 1) & mask;
+					}
+				}
+				_table.keys[i] = id;
+				_table.entries[i] = entry;
+				size++;
+				return null;
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+
+		/**
+		 * 删除数据
+		 *
+		 * @param id		缓存键
+		 * @param expected	期望删除的数据，为null时删除缓存键对应的任意数据
+		 * @return 被删除的数据
+		 */
+		LongEntry remove(long id, LongEntry expected) {
+			long stamp = lock.writeLock();
+			try {
+				Table _table = table;
+				long[] keys = _table.keys;
+				LongEntry[] entries = _table.entries;
+				int mask = entries.length - 1;
+				int hole = hash(id) & mask;
+				for(; entries[hole] != null; hole = (hole + 1) & mask) {
+					if(keys[hole] == id) {
+						break;
+					}
+				}
+				LongEntry removed = entries[hole];
+				if(removed == null || (expected != null && removed != expected)) {
+					return null;
+				}
+				//后续冲突的数据前移
+				for(int next = (hole + 1) & mask; entries[next] != null; next = (next + 1) & mask) {
+					int home = hash(keys[next]) & mask;
+					boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+					if(movable) {
+						keys[hole] = keys[next];
+						entries[hole] = entries[next];
+						hole = next;
+					}
+				}
+				entries[hole] = null;
+				size--;
+				return removed;
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+
+		/**
+		 * 收集全部数据
+		 *
+		 * @param entries
+		 */
+		void collect(List<LongEntry> entries) {
+			long stamp = lock.readLock();
+			try {
+				for(LongEntry entry : table.entries) {
+					if(entry != null) {
+						entries.add(entry);
+					}
+				}
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+
+		/**
+		 *
+		 * @return 被清除的数据
+		 */
+		List<LongEntry> clear() {
+			long stamp = lock.writeLock();
+			try {
+				List<LongEntry> removed = new ArrayList<LongEntry>(size);
+				for(LongEntry entry : table.entries) {
+					if(entry != null) {
+						removed.add(entry);
+					}
+				}
+				table = new Table(INITIAL_CAPACITY);
+				size = 0;
+				return removed;
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+
+		private Table resize(Table _table) {
+			Table resized = new Table(_table.entries.length << 1);
+			int mask = resized.entries.length - 1;
+			for(int i = 0; i < _table.entries.length; i++) {
+				LongEntry entry = _table.entries[i];
+				if(entry != null) {
+					int j = hash(_table.keys[i]) & mask;
+					while(resized.entries[j] != null) {
+						j = (j + 1) & mask;
+					}
+					resized.keys[j] = _table.keys[i];
+					resized.entries[j] = entry;
+				}
+			}
+			table = resized;
+			return resized;
+		}
+
+	}
+
+}
@@ -0,0 +1,917 @@
+package com.yhxx.common.utils.redisToolUtils.injvm;
+
+
+import com.yhxx.common.utils.redisToolUtils.AbstractCache;
+import com.yhxx.common.utils.redisToolUtils.CachedObject;
+import com.yhxx.common.utils.redisToolUtils.GenericCacheFactory;
+import com.yhxx.common.utils.redisToolUtils.converter.ValueCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 堆外内存缓存：数据编码为字节后追加写入直接内存（DirectByteBuffer）的分片（slab），
+ * 堆内只保留开放寻址的索引（每个缓存键约12字节），读取时通过编解码代理解码，避免大量缓存数据带来的GC停顿。
+ *
+ * 缓存分为多个段，每段有独立的读写锁、索引和分片。分片写满后，优先压缩有效数据比例最低的分片（有效数据移入备用分片），
+ * 有效数据比例都较高时，按写入顺序淘汰最早写满的分片。已过期的数据在读取和压缩时回收。
+ *
+ * 记录的格式：哈希值(4) | 缓存键长度(4) | 数据长度(4，-1表示空值) | 过期时间(8) | 缓存键 | 数据
+ *
+ * @author zsp
+ *
+ * @param <T>
+ */
+public class InjvmOffHeapCache<T> extends AbstractCache<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(InjvmOffHeapCache.class);
+
+	private final static int SEGMENTS = 16;
+	private final static int SEGMENT_SHIFT = 28;
+
+	/**
+	 * 分片的最大字节数
+	 */
+	private final static int MAX_SLAB_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * 分片的最小字节数
+	 */
+	private final static int MIN_SLAB_SIZE = 1024;
+
+	/**
+	 * 每段的最少分片数，其中一个为压缩时使用的备用分片
+	 */
+	private final static int MIN_SLABS = 4;
+
+	private final static int HEADER_SIZE = 20;
+	private final static int KEY_LENGTH_OFFSET = 4;
+	private final static int VALUE_LENGTH_OFFSET = 8;
+	private final static int EXPIRE_TIME_OFFSET = 12;
+	private final static int EMPTY_VALUE_LENGTH = -1;
+
+	private final static long NO_ADDRESS = -1L;
+	private final static int INITIAL_INDEX_CAPACITY = 1024;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder emptyHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * 淘汰的数据数量
+	 */
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * 压缩次数
+	 */
+	private final LongAdder compactions = new LongAdder();
+
+	private final ValueCodec<T> codec;
+	private final long maximumBytes;
+	private final int slabSize;
+	private final int slabsPerSegment;
+	private final Segment[] segments;
+
+	/**
+	 * 有效数据比例低于此值的分片被压缩，否则淘汰最早写满的分片
+	 */
+	private volatile float compactionThreshold = 0.5f;
+	
+	/**
+	 * 从缓存数据获取键值的代理
+	 */
+	protected Function<T, String> keyMapper;
+
+	/**
+	 *
+	 * @param factory		缓存工厂
+	 * @param name			缓存名
+	 * @param codec			数据的编解码代理
+	 * @param maximumBytes	占用堆外内存的最大字节数
+	 */
+	@SuppressWarnings("unchecked")
+	public InjvmOffHeapCache(GenericCacheFactory factory, String name,
+			ValueCodec<T> codec, long maximumBytes) {
+		super(name);
+		if(codec == null) {
+			throw new IllegalArgumentException("codec");
+		}
+		long segmentBytes = maximumBytes / SEGMENTS;
+		if(segmentBytes < (long) MIN_SLAB_SIZE * MIN_SLABS) {
+			throw new IllegalArgumentException("The maximumBytes should not be less than "
+					+ (long) MIN_SLAB_SIZE * MIN_SLABS * SEGMENTS + ".");
+		}
+		this.codec = codec;
+		this.maximumBytes = maximumBytes;
+		this.slabsPerSegment = (int) Math.max(MIN_SLABS, (segmentBytes + MAX_SLAB_SIZE - 1) / MAX_SLAB_SIZE);
+		this.slabSize = (int) (segmentBytes / slabsPerSegment);
+		this.segments = (Segment[]) new InjvmOffHeapCache.Segment[SEGMENTS];
+		for(int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	/**
+	 * 设置从缓存数据获取键值的代理
+	 * 
+	 * @param keyMapper
+	 */
+	public void setKeyMapper(Function<T, String> keyMapper) {
+		this.keyMapper = keyMapper;
+	}
+
+	@Override
+	protected void doStop() {
+		super.doStop();
+		//直接内存在ByteBuffer被回收时释放
+		clearCache();
+	}
+
+	@Override
+	protected void addToCache(String key, T value) {
+		addToCache(key, value, getExpiredSeconds());
+	}
+
+	@Override
+	protected void addToCache(Map<String, T> values) {
+		addToCache(values, getExpiredSeconds());
+	}
+
+	@Override
+	protected void addToCache(String key, T value, int expiredSeconds) {
+		long start = startTiming();
+		byte[] bytes = codec.encode(value);
+		recordSerialization(start);
+		if(bytes != null) {
+			put(key, bytes, expiredSeconds);
+		}
+	}
+
+	@Override
+	protected void addToCache(Map<String, T> values, int expiredSeconds) {
+		for(Map.Entry<String, T> entry : values.entrySet()) {
+			addToCache(entry.getKey(), entry.getValue(), expiredSeconds);
+		}
+	}
+
+	@Override
+	protected void addEmptyToCache(String key) {
+		put(key, null, 0);
+	}
+
+	@Override
+	protected <V> boolean isEmptyValue(V value) {
+		return EMPTY_VALUE.equals(value);
+	}
+
+	@Override
+	protected CachedObject<T> getFromCache(String key) {
+		int hash = hash(key);
+		Object value = segmentFor(hash).get(hash, key.getBytes(StandardCharsets.UTF_8));
+		if(value instanceof byte[]) {
+			return new CachedObject<T>(key, decode((byte[]) value));
+		}
+		return asCachedObject(key, value, null);
+	}
+
+	@Override
+	protected Object getValueFromCache(String key) {
+		int hash = hash(key);
+		Object value = segmentFor(hash).get(hash, key.getBytes(StandardCharsets.UTF_8));
+		if(value instanceof byte[]) {
+			return decode((byte[]) value);
+		}
+		return isEmptyValue(value) ? EMPTY_HIT : value;
+	}
+
+	@Override
+	protected List<CachedObject<T>> getFromCache(Collection<String> keys) {
+		List<CachedObject<T>> list = new ArrayList<CachedObject<T>>();
+		for(String key : keys) {
+			list.add(getFromCache(key));
+		}
+		return list;
+	}
+
+	@Override
+	protected void removeFromCache(String key) {
+		int hash = hash(key);
+		segmentFor(hash).remove(hash, key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	protected void removeFromCache(Collection<String> keys) {
+		for(String key : keys) {
+			removeFromCache(key);
+		}
+	}
+
+	@Override
+	protected void clearCache() {
+		for(Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	@Override
+	protected int sizeOfCache() {
+		long size = 0;
+		for(Segment segment : segments) {
+			size += segment.size();
+		}
+		return (int) Math.min(size, Integer.MAX_VALUE);
+	}
+
+	@Override
+	protected void expire(String key, int seconds) {
+		int hash = hash(key);
+		segmentFor(hash).expire(hash, key.getBytes(StandardCharsets.UTF_8), seconds);
+	}
+
+	@Override
+	protected void expire(Collection<String> keys, int seconds) {
+		for(String key : keys) {
+			expire(key, seconds);
+		}
+	}
+
+	/**
+	 * 获取缓存剩余的时间（秒），与redis一致：不存在时返回-2，不过期时返回-1
+	 */
+	@Override
+	public long ttl(String key) {
+		int hash = hash(key);
+		long expireTime = segmentFor(hash).expireTime(hash, key.getBytes(StandardCharsets.UTF_8));
+		if(expireTime < 0) {
+			return -2;
+		} else if(expireTime == 0) {
+			return -1;
+		}
+		long millis = expireTime - System.currentTimeMillis();
+		return millis > 0 ? (millis + 999) / 1000 : -2;
+	}
+
+	/**
+	 * 本地内存的访问不会阻塞，直接在调用线程中完成
+	 */
+	@Override
+	protected <R> CompletableFuture<R> supplyAsync(Supplier<R> supplier, Executor executor) {
+		CompletableFuture<R> future = new CompletableFuture<R>();
+		try {
+			future.complete(supplier.get());
+		} catch(Throwable t) {
+			future.completeExceptionally(t);
+		}
+		return future;
+	}
+
+	@Override
+	protected void hit() {
+		hits.increment();
+	}
+
+	@Override
+	protected void emptyHit() {
+		emptyHits.increment();
+	}
+
+	@Override
+	protected void miss() {
+		misses.increment();
+	}
+
+	@Override
+	public long getHits() {
+		return hits.longValue();
+	}
+
+	@Override
+	public long getEmptyHits() {
+		return emptyHits.longValue();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.longValue();
+	}
+
+	@Override
+	public String getType() {
+		return "offheap";
+	}
+
+	/**
+	 * 已分配的堆外内存字节数
+	 *
+	 * @return
+	 */
+	public long getOffHeapBytes() {
+		long bytes = 0;
+		for(Segment segment : segments) {
+			bytes += segment.allocatedBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * 已写入的字节数，包含已删除、已覆盖但未回收的数据
+	 *
+	 * @return
+	 */
+	public long getUsedBytes() {
+		long bytes = 0;
+		for(Segment segment : segments) {
+			bytes += segment.usedBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * 有效数据的字节数
+	 *
+	 * @return
+	 */
+	public long getLiveBytes() {
+		long bytes = 0;
+		for(Segment segment : segments) {
+			bytes += segment.liveBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * 碎片率，即已写入的字节中无效数据的比例
+	 *
+	 * @return
+	 */
+	public double getFragmentation() {
+		long used = getUsedBytes();
+		return used > 0 ? 1 - (double) getLiveBytes() / used : 0;
+	}
+
+	@Override
+	public long getEvictionCount() {
+		return evictions.longValue();
+	}
+
+	public long getCompactionCount() {
+		return compactions.longValue();
+	}
+
+	public long getMaximumBytes() {
+		return maximumBytes;
+	}
+
+	public int getSlabSize() {
+		return slabSize;
+	}
+
+	public float getCompactionThreshold() {
+		return compactionThreshold;
+	}
+
+	/**
+	 * 设置压缩的阈值，有效数据比例低于此值的分片被压缩，否则淘汰最早写满的分片
+	 *
+	 * @param compactionThreshold	取值(0, 1)
+	 */
+	public void setCompactionThreshold(float compactionThreshold) {
+		if(compactionThreshold <= 0 || compactionThreshold >= 1) {
+			throw new IllegalArgumentException("The value should be in (0, 1).");
+		}
+		this.compactionThreshold = compactionThreshold;
+	}
+
+	private Segment segmentFor(int hash) {
+		return segments[(hash >>> SEGMENT_SHIFT) & (SEGMENTS - 1)];
+	}
+
+	private void put(String key, byte[] value, int expiredSeconds) {
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		int recordSize = HEADER_SIZE + keyBytes.length + (value != null ? value.length : 0);
+		if(recordSize > slabSize) {
+			logger.warn(MessageFormat.format("{0} cannot cache the key {1}, the size {2} is larger than the slab size {3}.",
+					getName(), key, recordSize, slabSize));
+			removeFromCache(key);
+			return;
+		}
+		long expireTime = expiredSeconds > 0 ?
+				System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(expiredSeconds) : 0;
+		int hash = hash(key);
+		segmentFor(hash).put(hash, keyBytes, value, expireTime, recordSize);
+	}
+
+	private T decode(byte[] bytes) {
+		long start = startTiming();
+		try {
+			return codec.decode(bytes);
+		} finally {
+			recordSerialization(start);
+		}
+	}
+
+	private static int hash(String key) {
+		int hash = key.hashCode();
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		return (hash >>> 16) ^ hash;
+	}
+
+	private static long address(int slab, int offset) {
+		return ((long) slab << 32) | offset;
+	}
+
+	private static int slabOf(long address) {
+		return (int) (address >>> 32);
+	}
+
+	private static int offsetOf(long address) {
+		return (int) address;
+	}
+
+	/**
+	 * 缓存段，由读写锁保护
+	 */
+	private final class Segment {
+
+		private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+		private final ByteBuffer[] slabs = new ByteBuffer[slabsPerSegment];
+
+		/**
+		 * 分片已写入的字节数
+		 */
+		private final int[] slabUsed = new int[slabsPerSegment];
+
+		/**
+		 * 分片中有效数据的字节数
+		 */
+		private final int[] slabLive = new int[slabsPerSegment];
+
+		/**
+		 * 已写满的分片，按写满的顺序
+		 */
+		private final ArrayDeque<Integer> sealedSlabs = new ArrayDeque<Integer>();
+
+		/**
+		 * 未使用的分片
+		 */
+		private final ArrayDeque<Integer> freeSlabs = new ArrayDeque<Integer>();
+
+		private int activeSlab;
+		private int spareSlab;
+
+		/**
+		 * 开放寻址（线性探测）的索引：缓存键的哈希值及记录的地址（分片下标 << 32 | 偏移）
+		 */
+		private int[] hashes;
+		private long[] addresses;
+		private int size;
+
+		Segment() {
+			reset();
+		}
+
+		private void reset() {
+			sealedSlabs.clear();
+			freeSlabs.clear();
+			for(int i = 1; i < slabsPerSegment - 1; i++) {
+				freeSlabs.add(i);
+			}
+			Arrays.fill(slabUsed, 0);
+			Arrays.fill(slabLive, 0);
+			activeSlab = 0;
+			spareSlab = slabsPerSegment - 1;
+			hashes = new int[INITIAL_INDEX_CAPACITY];
+			addresses = new long[INITIAL_INDEX_CAPACITY];
+			Arrays.fill(addresses, NO_ADDRESS);
+			size = 0;
+		}
+
+		/**
+		 * 获取数据
+		 *
+		 * @return 数据的字节；空值时返回EMPTY_VALUE；不存在或已过期时返回null
+		 */
+		Object get(int hash, byte[] key) {
+			boolean expired = false;
+			lock.readLock().lock();
+			try {
+				int slot = find(hash, key);
+				if(slot < 0) {
+					return null;
+				}
+				long address = addresses[slot];
+				ByteBuffer slab = slabs[slabOf(address)];
+				int offset = offsetOf(address);
+				if(isExpired(slab, offset, System.currentTimeMillis())) {
+					expired = true;
+				} else {
+					int valueLength = slab.getInt(offset + VALUE_LENGTH_OFFSET);
+					if(valueLength == EMPTY_VALUE_LENGTH) {
+						return EMPTY_VALUE;
+					}
+					byte[] value = new byte[valueLength];
+					ByteBuffer buffer = slab.duplicate();
+					buffer.position(offset + HEADER_SIZE + key.length);
+					buffer.get(value);
+					return value;
+				}
+			} finally {
+				lock.readLock().unlock();
+			}
+			if(expired) {
+				removeExpired(hash, key);
+			}
+			return null;
+		}
+
+		void put(int hash, byte[] key, byte[] value, long expireTime, int recordSize) {
+			lock.writeLock().lock();
+			try {
+				int slot = find(hash, key);
+				if(slot >= 0) {
+					removeSlot(slot);
+				}
+				int offset = allocate(recordSize);
+				ByteBuffer slab = slabs[activeSlab];
+				slab.putInt(offset, hash);
+				slab.putInt(offset + KEY_LENGTH_OFFSET, key.length);
+				slab.putInt(offset + VALUE_LENGTH_OFFSET, value != null ? value.length : EMPTY_VALUE_LENGTH);
+				slab.putLong(offset + EXPIRE_TIME_OFFSET, expireTime);
+				ByteBuffer buffer = slab.duplicate();
+				buffer.position(offset + HEADER_SIZE);
+				buffer.put(key);
+				if(value != null) {
+					buffer.put(value);
+				}
+				slabLive[activeSlab] += recordSize;
+				insert(hash, address(activeSlab, offset));
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+
+		void remove(int hash, byte[] key) {
+			lock.writeLock().lock();
+			try {
+				int slot = find(hash, key);
+				if(slot >= 0) {
+					removeSlot(slot);
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+
+		private void removeExpired(int hash, byte[] key) {
+			lock.writeLock().lock();
+			try {
+				int slot = find(hash, key);
+				if(slot >= 0) {
+					long address = addresses[slot];
+					if(isExpired(slabs[slabOf(address)], offsetOf(address), System.currentTimeMillis())) {
+						removeSlot(slot);
+					}
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+
+		void expire(int hash, byte[] key, int seconds) {
+			long expireTime = seconds > 0 ?
+					System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds) : 0;
+			lock.writeLock().lock();
+			try {
+				int slot = find(hash, key);
+				if(slot >= 0) {
+					long address = addresses[slot];
+					slabs[slabOf(address)].putLong(offsetOf(address) + EXPIRE_TIME_OFFSET, expireTime);
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+
+		/**
+		 * 获取过期时间
+		 *
+		 * @return 不存在时返回-1，不过期时返回0
+		 */
+		long expireTime(int hash, byte[] key) {
+			lock.readLock().lock();
+			try {
+				int slot = find(hash, key);
+				if(slot < 0) {
+					return -1;
+				}
+				long address = addresses[slot];
+				return slabs[slabOf(address)].getLong(offsetOf(address) + EXPIRE_TIME_OFFSET);
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+
+		void clear() {
+			lock.writeLock().lock();
+			try {
+				Arrays.fill(slabs, null);
+				reset();
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+
+		int size() {
+			lock.readLock().lock();
+			try {
+				return size;
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+
+		long allocatedBytes() {
+			lock.readLock().lock();
+			try {
+				long bytes = 0;
+				for(ByteBuffer slab : slabs) {
+					if(slab != null) {
+						bytes += slab.capacity();
+					}
+				}
+				return bytes;
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+
+		long usedBytes() {
+			lock.readLock().lock();
+			try {
+				long bytes = 0;
+				for(int used : slabUsed) {
+					bytes += used;
+				}
+				return bytes;
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+
+		long liveBytes() {
+			lock.readLock().lock();
+			try {
+				long bytes = 0;
+				for(int live : slabLive) {
+					bytes += live;
+				}
+				return bytes;
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+
+		/**
+		 * 在当前分片中分配空间，空间不足时换用空闲分片，没有空闲分片时压缩或淘汰
+		 *
+		 * @param recordSize	记录的字节数，不大于分片的字节数
+		 * @return 当前分片中的偏移
+		 */
+		private int allocate(int recordSize) {
+			boolean compacted = false;
+			for(;;) {
+				ByteBuffer active = slabs[activeSlab];
+				if(active == null) {
+					active = slabs[activeSlab] = ByteBuffer.allocateDirect(slabSize);
+				}
+				int used = slabUsed[activeSlab];
+				if(used + recordSize <= slabSize) {
+					slabUsed[activeSlab] = used + recordSize;
+					return used;
+				}
+				sealedSlabs.addLast(activeSlab);
+				Integer free = freeSlabs.poll();
+				if(free != null) {
+					activeSlab = free;
+				} else if(!compacted && compact()) {
+					//每次分配最多压缩一次，防止有效数据较多时反复压缩
+					compacted = true;
+				} else {
+					evictOldest();
+				}
+			}
+		}
+
+		/**
+		 * 将有效数据比例最低的分片中的有效数据移入备用分片，备用分片作为当前分片，原分片作为新的备用分片
+		 *
+		 * @return 有效数据比例低于压缩阈值时压缩并返回true
+		 */
+		private boolean compact() {
+			long now = System.currentTimeMillis();
+			int victim = -1;
+			for(int slab : sealedSlabs) {
+				if(victim < 0 || slabLive[slab] < slabLive[victim]) {
+					victim = slab;
+				}
+			}
+			if(victim < 0 || slabLive[victim] >= slabSize * compactionThreshold) {
+				return false;
+			}
+			ByteBuffer source = slabs[victim];
+			ByteBuffer target = slabs[spareSlab];
+			if(target == null) {
+				target = slabs[spareSlab] = ByteBuffer.allocateDirect(slabSize);
+			}
+			int targetOffset = 0;
+			for(int offset = 0, used = slabUsed[victim]; offset < used; ) {
+				int recordSize = recordSize(source, offset);
+				int slot = findAddress(source.getInt(offset), address(victim, offset));
+				if(slot >= 0) {
+					if(isExpired(source, offset, now)) {
+						removeSlot(slot);
+					} else {
+						ByteBuffer from = source.duplicate();
+						from.limit(offset + recordSize).position(offset);
+						ByteBuffer to = target.duplicate();
+						to.position(targetOffset);
+						to.put(from);
+						addresses[slot] = address(spareSlab, targetOffset);
+						targetOffset += recordSize;
+					}
+				}
+				offset += recordSize;
+			}
+			sealedSlabs.remove(victim);
+			slabUsed[spareSlab] = targetOffset;
+			slabLive[spareSlab] = targetOffset;
+			activeSlab = spareSlab;
+			spareSlab = victim;
+			slabUsed[victim] = 0;
+			slabLive[victim] = 0;
+			compactions.increment();
+			return true;
+		}
+
+		/**
+		 * 淘汰最早写满的分片中的全部数据，作为当前分片
+		 */
+		private void evictOldest() {
+			int victim = sealedSlabs.pollFirst();
+			ByteBuffer source = slabs[victim];
+			for(int offset = 0, used = slabUsed[victim]; offset < used; ) {
+				int recordSize = recordSize(source, offset);
+				int slot = findAddress(source.getInt(offset), address(victim, offset));
+				if(slot >= 0) {
+					removeSlot(slot);
+					evictions.increment();
+				}
+				offset += recordSize;
+			}
+			slabUsed[victim] = 0;
+			slabLive[victim] = 0;
+			activeSlab = victim;
+		}
+
+		private int recordSize(ByteBuffer slab, int offset) {
+			int valueLength = slab.getInt(offset + VALUE_LENGTH_OFFSET);
+			return HEADER_SIZE + slab.getInt(offset + KEY_LENGTH_OFFSET)
+					+ (valueLength > 0 ? valueLength : 0);
+		}
+
+		private boolean isExpired(ByteBuffer slab, int offset, long now) {
+			long expireTime = slab.getLong(offset + EXPIRE_TIME_OFFSET);
+			return expireTime > 0 && expireTime <= now;
+		}
+
+		/**
+		 * 按缓存键查找索引的位置
+		 *
+		 * @return 不存在时返回-1
+		 */
+		private int find(int hash, byte[] key) {
+			int mask = addresses.length - 1;
+			for(int slot = hash & mask; ; slot = (slot + 1) & mask) {
+				long address = addresses[slot];
+				if(address == NO_ADDRESS) {
+					return -1;
+				}
+				if(hashes[slot] == hash && keyEquals(address, key)) {
+					return slot;
+				}
+			}
+		}
+
+		/**
+		 * 按记录的地址查找索引的位置，用于判断记录是否有效
+		 *
+		 * @return 记录已无效时返回-1
+		 */
+		private int findAddress(int hash, long target) {
+			int mask = addresses.length - 1;
+			for(int slot = hash & mask; ; slot = (slot + 1) & mask) {
+				long address = addresses[slot];
+				if(address == NO_ADDRESS) {
+					return -1;
+				}
+				if(address == target) {
+					return slot;
+				}
+			}
+		}
+
+		private boolean keyEquals(long address, byte[] key) {
+			ByteBuffer slab = slabs[slabOf(address)];
+			int offset = offsetOf(address);
+			if(slab.getInt(offset + KEY_LENGTH_OFFSET) != key.length) {
+				return false;
+			}
+			int keyOffset = offset + HEADER_SIZE;
+			for(int i = 0; i < key.length; i++) {
+				if(slab.get(keyOffset + i) != key[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void insert(int hash, long address) {
+			if((size + 1) * 4L > addresses.length * 3L) {
+				resize();
+			}
+			int mask = addresses.length - 1;
+			int slot = hash & mask;
+			while(addresses[slot] != NO_ADDRESS) {
+				slot = (slot + 1) & mask;
+			}
+			hashes[slot] = hash;
+			addresses[slot] = address;
+			size++;
+		}
+
+		private void resize() {
+			int[] oldHashes = hashes;
+			long[] oldAddresses = addresses;
+			hashes = new int[oldAddresses.length << 1];
+			addresses = new long[oldAddresses.length << 1];
+			Arrays.fill(addresses, NO_ADDRESS);
+			int mask = addresses.length - 1;
+			for(int i = 0; i < oldAddresses.length; i++) {
+				if(oldAddresses[i] != NO_ADDRESS) {
+					int slot = oldHashes[i] & mask;
+					while(addresses[slot] != NO_ADDRESS) {
+						slot = (slot + 1) & mask;
+					}
+					hashes[slot] = oldHashes[i];
+					addresses[slot] = oldAddresses[i];
+				}
+			}
+		}
+
+		/**
+		 * 删除索引中的记录，并将后续冲突的记录前移（线性探测的删除）
+		 *
+		 * @param slot
+		 */
+		private void removeSlot(int slot) {
+			long address = addresses[slot];
+			int slab = slabOf(address);
+			slabLive[slab] -= recordSize(slabs[slab], offsetOf(address));
+			size--;
+			int mask = addresses.length - 1;
+			int hole = slot;
+			for(int next = (hole + 1) & mask; addresses[next] != NO_ADDRESS; next = (next + 1) & mask) {
+				int home = hashes[next] & mask;
+				//home不在(hole, next]之间时，可以前移到hole
+				boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+				if(movable) {
+					hashes[hole] = hashes[next];
+					addresses[hole] = addresses[next];
+					hole = next;
+				}
+			}
+			addresses[hole] = NO_ADDRESS;
+		}
+
+	}
+
+}
@@ -0,0 +1,240 @@
+package com.yhxx.common.utils.redisToolUtils.injvm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮，回收jvm内存缓存中已过期的数据；加入、删除均为O(1)。
+ *
+ * 共4层，每层64个桶，第一层每个桶约1秒（2^10毫秒），逐层扩大64倍，最大约198天，更长的过期时间放在最后一层，
+ * 到期时重新放入。数据的过期时间延长时不移动，到期时发现未过期再重新放入，因此延长过期时间也是O(1)。
+ *
+ * 全部缓存的时间轮由同一个线程推进，不会为每个缓存创建线程。
+ *
+ * @author zsp
+ *
+ */
+final class TimingWheel {
+
+	private final static int BUCKETS = 64;
+	private final static int BUCKET_MASK = BUCKETS - 1;
+	private final static int[] SHIFTS = { 10, 16, 22, 28 };
+
+	/**
+	 * 推进时间轮的间隔（毫秒），即第一层每个桶的时长
+	 */
+	private final static long TICK_MILLIS = 1L << SHIFTS[0];
+
+	private final static String THREAD_NAME = "cache-timing-wheel";
+
+	private final static Set<TimingWheel> WHEELS = new CopyOnWriteArraySet<TimingWheel>();
+
+	private static ScheduledExecutorService ticker;
+
+	private final Entry[][] wheel;
+	private final Consumer<Entry> expiryHandler;
+	private long time;
+
+	/**
+	 *
+	 * @param expiryHandler	数据过期的处理代理，在推进时间轮的线程中执行；数据已从时间轮删除，
+	 * 						处理时若发现过期时间又被延长，应重新放入
+	 */
+	TimingWheel(Consumer<Entry> expiryHandler) {
+		this.expiryHandler = expiryHandler;
+		this.time = System.currentTimeMillis();
+		this.wheel = new Entry[SHIFTS.length][BUCKETS];
+		for(int i = 0; i < wheel.length; i++) {
+			for(int j = 0; j < BUCKETS; j++) {
+				Entry sentinel = new Entry(null, null);
+				sentinel.prev = sentinel;
+				sentinel.next = sentinel;
+				wheel[i][j] = sentinel;
+			}
+		}
+	}
+
+	/**
+	 * 由共享的线程定时推进
+	 *
+	 * @param timingWheel
+	 */
+	static synchronized void register(TimingWheel timingWheel) {
+		WHEELS.add(timingWheel);
+		if(ticker == null) {
+			ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, THREAD_NAME);
+				thread.setDaemon(true);
+				return thread;
+			});
+			ticker.scheduleWithFixedDelay(TimingWheel::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * 不再推进；没有时间轮时结束共享的线程
+	 *
+	 * @param timingWheel
+	 */
+	static synchronized void unregister(TimingWheel timingWheel) {
+		WHEELS.remove(timingWheel);
+		if(WHEELS.isEmpty() && ticker != null) {
+			ticker.shutdown();
+			ticker = null;
+		}
+	}
+
+	private static void tick() {
+		long now = System.currentTimeMillis();
+		for(TimingWheel timingWheel : WHEELS) {
+			try {
+				timingWheel.advance(now);
+			} catch(Throwable t) {
+				//不影响其它缓存的时间轮
+			}
+		}
+	}
+
+	/**
+	 * 按数据的过期时间放入时间轮，过期时间不大于0时删除
+	 *
+	 * @param entry
+	 */
+	synchronized void schedule(Entry entry) {
+		unlink(entry);
+		if(entry.expireTime > 0) {
+			link(findBucket(entry.expireTime), entry);
+		}
+	}
+
+	/**
+	 * 从时间轮删除
+	 *
+	 * @param entry
+	 */
+	synchronized void cancel(Entry entry) {
+		unlink(entry);
+	}
+
+	/**
+	 * 推进到指定的时间，处理到期桶中的数据：已过期的交给过期处理代理，未过期的（过期时间被延长）重新放入
+	 *
+	 * @param now	当前时间（毫秒）
+	 */
+	void advance(long now) {
+		List<Entry> expired = new ArrayList<Entry>();
+		synchronized(this) {
+			long previous = time;
+			if(now <= previous) {
+				return;
+			}
+			time = now;
+			for(int i = 0; i < SHIFTS.length; i++) {
+				long previousTicks = previous >>> SHIFTS[i];
+				long currentTicks = now >>> SHIFTS[i];
+				long delta = currentTicks - previousTicks;
+				if(delta <= 0) {
+					break;
+				}
+				for(long j = 1, len = Math.min(delta, BUCKETS); j <= len; j++) {
+					Entry sentinel = wheel[i][(int) ((previousTicks + j) & BUCKET_MASK)];
+					Entry entry = sentinel.next;
+					sentinel.prev = sentinel;
+					sentinel.next = sentinel;
+					while(entry != sentinel) {
+						Entry next = entry.next;
+						entry.prev = null;
+						entry.next = null;
+						long expireTime = entry.expireTime;
+						if(expireTime <= 0) {
+							//已不再过期
+						} else if(expireTime <= now) {
+							expired.add(entry);
+						} else {
+							link(findBucket(expireTime), entry);
+						}
+						entry = next;
+					}
+				}
+			}
+		}
+		for(Entry entry : expired) {
+			expiryHandler.accept(entry);
+		}
+	}
+
+	private Entry findBucket(long expireTime) {
+		long duration = expireTime - time;
+		int last = SHIFTS.length - 1;
+		for(int i = 0; i < last; i++) {
+			if(duration < (1L << SHIFTS[i + 1])) {
+				long ticks = Math.max(expireTime >>> SHIFTS[i], (time >>> SHIFTS[i]) + 1);
+				return wheel[i][(int) (ticks & BUCKET_MASK)];
+			}
+		}
+		long ticks = Math.min(expireTime >>> SHIFTS[last], (time >>> SHIFTS[last]) + BUCKET_MASK);
+		return wheel[last][(int) (ticks & BUCKET_MASK)];
+	}
+
+	private void link(Entry sentinel, Entry entry) {
+		entry.prev = sentinel.prev;
+		entry.next = sentinel;
+		sentinel.prev.next = entry;
+		sentinel.prev = entry;
+	}
+
+	private void unlink(Entry entry) {
+		if(entry.prev != null) {
+			entry.prev.next = entry.next;
+			entry.next.prev = entry.prev;
+			entry.prev = null;
+			entry.next = null;
+		}
+	}
+
+	/**
+	 * 时间轮中的数据
+	 */
+	static class Entry {
+
+		private final static AtomicReferenceFieldUpdater<Entry, Object> VALUE_UPDATER =
+				AtomicReferenceFieldUpdater.newUpdater(Entry.class, Object.class, "value");
+
+		final String key;
+		volatile Object value;
+
+		/**
+		 * 过期时间（毫秒），0表示不过期
+		 */
+		volatile long expireTime;
+
+		/**
+		 * 时间轮中的链接，由时间轮加锁访问
+		 */
+		private Entry prev;
+		private Entry next;
+
+		Entry(String key, Object value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		boolean casValue(Object expect, Object update) {
+			return VALUE_UPDATER.compareAndSet(this, expect, update);
+		}
+
+		boolean isExpired(long now) {
+			long _expireTime = expireTime;
+			return _expireTime > 0 && _expireTime <= now;
+		}
+
+	}
+
+}
@@ -0,0 +1,191 @@
+package com.yhxx.common.utils.redisToolUtils.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存的耗时与加载统计：按操作分别记录耗时直方图，以及加载的成功与失败次数
+ *
+ * @author zsp
+ *
+ */
+public class CacheMetrics {
+
+	private final LatencyHistogram getLatency = new LatencyHistogram();
+
+	private final LatencyHistogram getAndFetchLatency = new LatencyHistogram();
+
+	private final LatencyHistogram loadLatency = new LatencyHistogram();
+
+	private final LatencyHistogram addLatency = new LatencyHistogram();
+
+	private final LatencyHistogram removeLatency = new LatencyHistogram();
+
+	private final LatencyHistogram serializationLatency = new LatencyHistogram();
+
+	private final LatencyHistogram writeBehindLatency = new LatencyHistogram();
+
+	private final LatencyHistogram ttlDistribution = new LatencyHistogram();
+
+	private final LatencyHistogram compressionLatency = new LatencyHistogram();
+
+	private final LatencyHistogram decompressionLatency = new LatencyHistogram();
+
+	private final LongAdder loadSuccesses = new LongAdder();
+
+	private final LongAdder loadFailures = new LongAdder();
+
+	private final LongAdder uncompressedBytes = new LongAdder();
+
+	private final LongAdder compressedBytes = new LongAdder();
+
+	/**
+	 * 从缓存获取数据的耗时
+	 *
+	 * @return
+	 */
+	public LatencyHistogram getGetLatency() {
+		return getLatency;
+	}
+
+	/**
+	 * 从缓存获取数据，未命中时加载并更新缓存的耗时
+	 *
+	 * @return
+	 */
+	public LatencyHistogram getGetAndFetchLatency() {
+		return getAndFetchLatency;
+	}
+
+	/**
+	 * 执行数据获取代理的耗时
+	 *
+	 * @return
+	 */
+	public LatencyHistogram getLoadLatency() {
+		return loadLatency;
+	}
+
+	/**
+	 * 添加数据到缓存的耗时
+	 *
+	 * @return
+	 */
+	public LatencyHistogram getAddLatency() {
+		return addLatency;
+	}
+
+	/**
+	 * 从缓存删除数据的耗时
+	 *
+	 * @return
+	 */
+	public LatencyHistogram getRemoveLatency() {
+		return removeLatency;
+	}
+
+	/**
+	 * 数据序列化与反序列化的耗时
+	 *
+	 * @return
+	 */
+	public LatencyHistogram getSerializationLatency() {
+		return serializationLatency;
+	}
+
+	/**
+	 * 后写每批写出的耗时
+	 *
+	 * @return
+	 */
+	public LatencyHistogram getWriteBehindLatency() {
+		return writeBehindLatency;
+	}
+
+	/**
+	 * 设置了失效时间的策略时，写入与命中延长所用的失效时间的分布
+	 *
+	 * @return
+	 */
+	public LatencyHistogram getTtlDistribution() {
+		return ttlDistribution;
+	}
+
+	/**
+	 * 压缩数据的耗时
+	 *
+	 * @return
+	 */
+	public LatencyHistogram getCompressionLatency() {
+		return compressionLatency;
+	}
+
+	/**
+	 * 解压数据的耗时
+	 *
+	 * @return
+	 */
+	public LatencyHistogram getDecompressionLatency() {
+		return decompressionLatency;
+	}
+
+	/**
+	 * 记录一次压缩前后的字节数
+	 *
+	 * @param uncompressedLength	压缩前的字节数
+	 * @param compressedLength		压缩后实际写入的字节数
+	 */
+	public void recordCompression(long uncompressedLength, long compressedLength) {
+		uncompressedBytes.add(uncompressedLength);
+		compressedBytes.add(compressedLength);
+	}
+
+	public long getUncompressedBytes() {
+		return uncompressedBytes.longValue();
+	}
+
+	public long getCompressedBytes() {
+		return compressedBytes.longValue();
+	}
+
+	/**
+	 * 记录一次加载的结果
+	 *
+	 * @param success	是否成功，数据获取代理抛出异常时为失败
+	 */
+	public void recordLoad(boolean success) {
+		if(success) {
+			loadSuccesses.increment();
+		} else {
+			loadFailures.increment();
+		}
+	}
+
+	public long getLoadSuccessCount() {
+		return loadSuccesses.longValue();
+	}
+
+	public long getLoadFailureCount() {
+		return loadFailures.longValue();
+	}
+
+	/**
+	 * 清空统计
+	 */
+	public void reset() {
+		getLatency.reset();
+		getAndFetchLatency.reset();
+		loadLatency.reset();
+		addLatency.reset();
+		removeLatency.reset();
+		serializationLatency.reset();
+		writeBehindLatency.reset();
+		ttlDistribution.reset();
+		compressionLatency.reset();
+		decompressionLatency.reset();
+		loadSuccesses.reset();
+		loadFailures.reset();
+		uncompressedBytes.reset();
+		compressedBytes.reset();
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.yhxx.common.utils.redisToolUtils.metrics;
+
+/**
+ * 缓存统计的JMX接口
+ *
+ * @author zsp
+ *
+ */
+public interface CacheMetricsMXBean {
+
+	/**
+	 * 获取缓存统计的快照
+	 *
+	 * @return
+	 */
+	CacheMetricsSnapshot getSnapshot();
+
+	/**
+	 * 清空耗时与加载统计
+	 */
+	void reset();
+
+}
@@ -0,0 +1,208 @@
+package com.yhxx.common.utils.redisToolUtils.metrics;
+
+/**
+ * 缓存统计的快照
+ *
+ * @author zsp
+ *
+ */
+public final class CacheMetricsSnapshot {
+
+	private final String name;
+	private final String type;
+	private final long hits;
+	private final long emptyHits;
+	private final long misses;
+	private final long evictionCount;
+	private final long writeBehindPendingCount;
+	private final long loadSuccessCount;
+	private final long loadFailureCount;
+	private final LatencySnapshot getLatency;
+	private final LatencySnapshot getAndFetchLatency;
+	private final LatencySnapshot loadLatency;
+	private final LatencySnapshot addLatency;
+	private final LatencySnapshot removeLatency;
+	private final LatencySnapshot serializationLatency;
+	private final LatencySnapshot writeBehindLatency;
+	private final LatencySnapshot ttlDistribution;
+	private final LatencySnapshot compressionLatency;
+	private final LatencySnapshot decompressionLatency;
+	private final long uncompressedBytes;
+	private final long compressedBytes;
+
+	/**
+	 *
+	 * @param name			缓存名称
+	 * @param type			缓存类型
+	 * @param hits			命中次数
+	 * @param emptyHits		空值命中次数
+	 * @param misses		未命中次数
+	 * @param evictionCount	按容量淘汰的次数
+	 * @param writeBehindPendingCount	等待后写的缓存键的数量
+	 * @param metrics		耗时与加载统计
+	 */
+	public CacheMetricsSnapshot(String name, String type, long hits, long emptyHits, long misses,
+			long evictionCount, long writeBehindPendingCount, CacheMetrics metrics) {
+		this.name = name;
+		this.type = type;
+		this.hits = hits;
+		this.emptyHits = emptyHits;
+		this.misses = misses;
+		this.evictionCount = evictionCount;
+		this.writeBehindPendingCount = writeBehindPendingCount;
+		this.loadSuccessCount = metrics.getLoadSuccessCount();
+		this.loadFailureCount = metrics.getLoadFailureCount();
+		this.getLatency = metrics.getGetLatency().snapshot();
+		this.getAndFetchLatency = metrics.getGetAndFetchLatency().snapshot();
+		this.loadLatency = metrics.getLoadLatency().snapshot();
+		this.addLatency = metrics.getAddLatency().snapshot();
+		this.removeLatency = metrics.getRemoveLatency().snapshot();
+		this.serializationLatency = metrics.getSerializationLatency().snapshot();
+		this.writeBehindLatency = metrics.getWriteBehindLatency().snapshot();
+		this.ttlDistribution = metrics.getTtlDistribution().snapshot();
+		this.compressionLatency = metrics.getCompressionLatency().snapshot();
+		this.decompressionLatency = metrics.getDecompressionLatency().snapshot();
+		this.uncompressedBytes = metrics.getUncompressedBytes();
+		this.compressedBytes = metrics.getCompressedBytes();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getEmptyHits() {
+		return emptyHits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * 命中率，包含空值命中
+	 *
+	 * @return
+	 */
+	public double getHitRatio() {
+		long total = hits + emptyHits + misses;
+		return total > 0 ? (double) (hits + emptyHits) / total : 0;
+	}
+
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	public long getWriteBehindPendingCount() {
+		return writeBehindPendingCount;
+	}
+
+	public long getLoadSuccessCount() {
+		return loadSuccessCount;
+	}
+
+	public long getLoadFailureCount() {
+		return loadFailureCount;
+	}
+
+	public LatencySnapshot getGetLatency() {
+		return getLatency;
+	}
+
+	public LatencySnapshot getGetAndFetchLatency() {
+		return getAndFetchLatency;
+	}
+
+	public LatencySnapshot getLoadLatency() {
+		return loadLatency;
+	}
+
+	public LatencySnapshot getAddLatency() {
+		return addLatency;
+	}
+
+	public LatencySnapshot getRemoveLatency() {
+		return removeLatency;
+	}
+
+	public LatencySnapshot getSerializationLatency() {
+		return serializationLatency;
+	}
+
+	public LatencySnapshot getWriteBehindLatency() {
+		return writeBehindLatency;
+	}
+
+	/**
+	 * 失效时间的分布
+	 *
+	 * @return
+	 */
+	public LatencySnapshot getTtlDistribution() {
+		return ttlDistribution;
+	}
+
+	public LatencySnapshot getCompressionLatency() {
+		return compressionLatency;
+	}
+
+	public LatencySnapshot getDecompressionLatency() {
+		return decompressionLatency;
+	}
+
+	public long getUncompressedBytes() {
+		return uncompressedBytes;
+	}
+
+	public long getCompressedBytes() {
+		return compressedBytes;
+	}
+
+	/**
+	 * 压缩率：压缩后与压缩前的字节数之比，越小越好；没有压缩时为0
+	 *
+	 * @return
+	 */
+	public double getCompressionRatio() {
+		return uncompressedBytes > 0 ? (double) compressedBytes / uncompressedBytes : 0;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("cache: ").append(name).append("(").append(type).append(")\n");
+		builder.append("hits: ").append(hits)
+			.append(", emptyHits: ").append(emptyHits)
+			.append(", misses: ").append(misses)
+			.append(", hitRatio: ").append(String.format("%.4f", getHitRatio()))
+			.append(", evictions: ").append(evictionCount)
+			.append(", loadSuccesses: ").append(loadSuccessCount)
+			.append(", loadFailures: ").append(loadFailureCount)
+			.append(", writeBehindPending: ").append(writeBehindPendingCount).append("\n");
+		builder.append("get: ").append(getLatency).append("\n");
+		builder.append("getAndFetch: ").append(getAndFetchLatency).append("\n");
+		builder.append("load: ").append(loadLatency).append("\n");
+		builder.append("add: ").append(addLatency).append("\n");
+		builder.append("remove: ").append(removeLatency).append("\n");
+		builder.append("serialization: ").append(serializationLatency).append("\n");
+		builder.append("writeBehind: ").append(writeBehindLatency);
+		if(ttlDistribution.getCount() > 0) {
+			builder.append("\n").append("ttl: ").append(ttlDistribution);
+		}
+		if(uncompressedBytes > 0) {
+			builder.append("\n").append("compression: ratio: ").append(String.format("%.4f", getCompressionRatio()))
+				.append(", bytes: ").append(uncompressedBytes).append(" -> ").append(compressedBytes)
+				.append(", compress: ").append(compressionLatency)
+				.append(", decompress: ").append(decompressionLatency);
+		}
+		return builder.toString();
+	}
+
+}
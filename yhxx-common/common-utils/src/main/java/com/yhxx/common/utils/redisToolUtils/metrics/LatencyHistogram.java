@@ -0,0 +1,113 @@
+package com.yhxx.common.utils.redisToolUtils.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时的直方图，按对数线性分桶（同HdrHistogram）：每个2的幂区间再等分为16个子桶，相对误差不超过1/16；
+ * 记录时无锁，只做一次原子加。
+ *
+ * @author zsp
+ *
+ */
+public class LatencyHistogram {
+
+	private final static int SUB_BUCKET_BITS = 4;
+	private final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private final static int SUB_BUCKET_MASK = SUB_BUCKETS - 1;
+
+	/**
+	 * 覆盖全部非负的long值
+	 */
+	private final static int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final LongAdder totalNanos = new LongAdder();
+
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * 记录一次耗时
+	 *
+	 * @param nanos	耗时（纳秒），小于0时按0记录
+	 */
+	public void record(long nanos) {
+		long value = nanos > 0 ? nanos : 0;
+		counts.incrementAndGet(indexOf(value));
+		totalNanos.add(value);
+		if(value > maxNanos.get()) {
+			maxNanos.accumulateAndGet(value, Math::max);
+		}
+	}
+
+	/**
+	 * 获取当前的统计结果；与记录并发时结果近似
+	 *
+	 * @return
+	 */
+	public LatencySnapshot snapshot() {
+		long[] _counts = new long[BUCKETS];
+		long count = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			_counts[i] = counts.get(i);
+			count += _counts[i];
+		}
+		if(count == 0) {
+			return new LatencySnapshot(0, 0, 0, 0, 0, 0, 0);
+		}
+		long max = maxNanos.get();
+		return new LatencySnapshot(count,
+				totalNanos.sum() / count,
+				Math.min(percentile(_counts, count, 0.5), max),
+				Math.min(percentile(_counts, count, 0.9), max),
+				Math.min(percentile(_counts, count, 0.99), max),
+				Math.min(percentile(_counts, count, 0.999), max),
+				max);
+	}
+
+	/**
+	 * 清空统计
+	 */
+	public void reset() {
+		for(int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		totalNanos.reset();
+		maxNanos.set(0);
+	}
+
+	private static long percentile(long[] counts, long count, double percentile) {
+		long rank = (long) Math.ceil(count * percentile);
+		long seen = 0;
+		for(int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if(seen >= rank) {
+				return highestValueOf(i);
+			}
+		}
+		return highestValueOf(counts.length - 1);
+	}
+
+	static int indexOf(long value) {
+		if(value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & SUB_BUCKET_MASK);
+	}
+
+	/**
+	 * 桶内的最大值
+	 */
+	static long highestValueOf(int index) {
+		if(index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		long subBucket = SUB_BUCKETS + (index & SUB_BUCKET_MASK);
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+}
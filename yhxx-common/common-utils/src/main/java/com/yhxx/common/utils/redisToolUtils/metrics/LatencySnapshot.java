@@ -0,0 +1,75 @@
+package com.yhxx.common.utils.redisToolUtils.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 耗时直方图的统计结果，耗时均为毫秒
+ *
+ * @author zsp
+ *
+ */
+public final class LatencySnapshot {
+
+	private final long count;
+	private final long meanNanos;
+	private final long p50Nanos;
+	private final long p90Nanos;
+	private final long p99Nanos;
+	private final long p999Nanos;
+	private final long maxNanos;
+
+	public LatencySnapshot(long count, long meanNanos, long p50Nanos, long p90Nanos,
+			long p99Nanos, long p999Nanos, long maxNanos) {
+		this.count = count;
+		this.meanNanos = meanNanos;
+		this.p50Nanos = p50Nanos;
+		this.p90Nanos = p90Nanos;
+		this.p99Nanos = p99Nanos;
+		this.p999Nanos = p999Nanos;
+		this.maxNanos = maxNanos;
+	}
+
+	/**
+	 * 记录的次数
+	 *
+	 * @return
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	public double getMean() {
+		return toMillis(meanNanos);
+	}
+
+	public double getP50() {
+		return toMillis(p50Nanos);
+	}
+
+	public double getP90() {
+		return toMillis(p90Nanos);
+	}
+
+	public double getP99() {
+		return toMillis(p99Nanos);
+	}
+
+	public double getP999() {
+		return toMillis(p999Nanos);
+	}
+
+	public double getMax() {
+		return toMillis(maxNanos);
+	}
+
+	private static double toMillis(long nanos) {
+		return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d, mean=%.3fms, p50=%.3fms, p90=%.3fms, p99=%.3fms, p999=%.3fms, max=%.3fms",
+				count, getMean(), getP50(), getP90(), getP99(), getP999(), getMax());
+	}
+
+}
@@ -3,17 +3,39 @@ package com.yhxx.common.utils.redisToolUtils.redis;
 
 import com.yhxx.common.utils.redisToolUtils.AbstractDelayEvictionCache;
 import com.yhxx.common.utils.redisToolUtils.CachedObject;
+import com.yhxx.common.utils.redisToolUtils.util.DefaultThreadFactory;
+import com.yhxx.common.utils.redisToolUtils.util.HotKeyDetector;
 import com.yhxx.common.utils.redisToolUtils.util.KeyBuilder;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
 import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -25,6 +47,26 @@ import java.util.stream.Collectors;
  */
 public abstract class RedisAbstractCache<T> extends AbstractDelayEvictionCache<T> {
 	
+	private static final Logger logger = LoggerFactory.getLogger(RedisAbstractCache.class);
+	
+	/**
+	 * 过期副本的缓存键的后缀
+	 */
+	protected final static String STALE_KEY_SUFFIX = "$stale";
+	
+	/**
+	 * 删除标签下的缓存时，每个管道的最大命令数量
+	 */
+	private final static int TAG_BATCH_SIZE = 500;
+	
+	/**
+	 * 删除标签下全部缓存的脚本：KEYS[1]为标签的键，其余为缓存在redis中的键；ARGV为标签下的缓存键
+	 */
+	private final static RedisScript<Long> INVALIDATE_TAG_SCRIPT = new DefaultRedisScript<Long>(
+			"redis.call('UNLINK', unpack(KEYS, 2)) "
+			+ "redis.call('SREM', KEYS[1], unpack(ARGV)) "
+			+ "return #ARGV", Long.class);
+	
 	/**
 	 * 缓存key的前缀，通常redis中的key的格式为:appName:keyPrefix:objectId
 	 */
@@ -60,6 +102,96 @@ public abstract class RedisAbstractCache<T> extends AbstractDelayEvictionCache<T
 	 */
 	protected ValueOperations<String, String> valueOps;
 	
+	/**
+	 * 过期副本的缓存失效时间（秒），应大于缓存失效时间；0表示不开启过期副本
+	 */
+	private int staleExpiredSeconds;
+	
+	/**
+	 * 缓存不存在时，可直接返回并异步重新加载的过期副本的最大写入时长（秒）
+	 */
+	private int staleWhileRevalidateSeconds;
+	
+	/**
+	 * 存在过期副本时，加载数据的超时时间（毫秒），超时后返回过期副本；0表示不限制
+	 */
+	private long loadTimeoutMillis;
+	
+	/**
+	 * 执行过期副本的异步重新加载与限时加载的线程池，应有界；未设置时不直接返回过期副本，加载也不限时
+	 */
+	private DefaultThreadFactory staleLoadThreadFactory;
+	
+	/**
+	 * 正在异步重新加载的缓存键
+	 */
+	private final Set<String> revalidatingKeys = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * 统计的缓存键，在构建时生成
+	 */
+	private final String hitKey;
+	private final String emptyHitKey;
+	private final String missKey;
+	
+	/**
+	 * 尚未写入redis的本地统计增量
+	 */
+	private final LongAdder localHits = new LongAdder();
+	private final LongAdder localEmptyHits = new LongAdder();
+	private final LongAdder localMisses = new LongAdder();
+	
+	/**
+	 * 本地统计增量写入redis的间隔（毫秒）
+	 */
+	private long statFlushMillis = 1000;
+	
+	/**
+	 * 定时写入统计增量的线程
+	 */
+	private ScheduledExecutorService statFlusher;
+	
+	/**
+	 * 晋升为热点的衰减访问次数，0表示不探测热点
+	 */
+	private int hotKeyThreshold;
+	
+	/**
+	 * 热点的最大数量
+	 */
+	private int maxHotKeys = 100;
+	
+	/**
+	 * 热点本地副本的有效时间（毫秒），即其它节点的写入在本节点可见的最大延迟
+	 */
+	private long hotKeyReplicaMillis = 1000;
+	
+	/**
+	 * 热点探测的衰减间隔（毫秒），每次衰减时访问计数减半
+	 */
+	private long hotKeyDecayMillis = 1000;
+	
+	/**
+	 * 热点探测
+	 */
+	private volatile HotKeyDetector hotKeyDetector;
+	
+	/**
+	 * 定时衰减热点访问计数的线程
+	 */
+	private ScheduledExecutorService hotKeyDecayer;
+	
+	/**
+	 * 标签的缓存键集合的失效时间（秒），每次打标签时延长；0表示与缓存失效时间相同
+	 */
+	private int tagExpiredSeconds;
+	
+	/**
+	 * 标签下的缓存在redis中的键不超过此数量时，以lua脚本原子删除；0表示不使用脚本。
+	 * 脚本中的键可能分布在不同的槽，不适用于redis集群
+	 */
+	private int tagScriptMaxKeys;
+	
 	/**
 	 * 设置从缓存数据获取键值的代理
 	 * 
@@ -79,114 +211,557 @@ public abstract class RedisAbstractCache<T> extends AbstractDelayEvictionCache<T
 		this.stringRedisTemplate = factory.getStringRedisTemplate();
 		this.redissonClient = factory.getRedissonClient();
 		this.valueOps = stringRedisTemplate.opsForValue();
+		if(factory.getAsyncThreadFactory() != null) {
+			setAsyncExecutor(factory.getAsyncThreadFactory());
+		}
+		this.hitKey = buildHitKey();
+		this.emptyHitKey = buildEmptyHitKey();
+		this.missKey = buildMissKey();
+	}
+	
+	/**
+	 * redis的访问阻塞当前线程，异步访问在专用的有界线程池中执行
+	 */
+	@Override
+	protected boolean isBlockingAccess() {
+		return true;
+	}
+	
+	@Override
+	protected void doStart() {
+		super.doStart();
+		if(isEnableStat()) {
+			statFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "cache-stat-flush");
+				thread.setDaemon(true);
+				return thread;
+			});
+			statFlusher.scheduleWithFixedDelay(this::flushStat, statFlushMillis, statFlushMillis, TimeUnit.MILLISECONDS);
+		}
+		if(hotKeyThreshold > 0) {
+			HotKeyDetector detector = new HotKeyDetector(name, hotKeyThreshold, maxHotKeys, hotKeyReplicaMillis);
+			hotKeyDecayer = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "cache-hot-key-decay");
+				thread.setDaemon(true);
+				return thread;
+			});
+			hotKeyDecayer.scheduleWithFixedDelay(detector::decay, hotKeyDecayMillis, hotKeyDecayMillis, TimeUnit.MILLISECONDS);
+			hotKeyDetector = detector;
+		}
+	}
+	
+	@Override
+	protected void doStop() {
+		if(statFlusher != null) {
+			statFlusher.shutdown();
+			statFlusher = null;
+		}
+		if(hotKeyDecayer != null) {
+			hotKeyDecayer.shutdown();
+			hotKeyDecayer = null;
+		}
+		hotKeyDetector = null;
+		flushStat();
+		super.doStop();
+	}
+	
+	/**
+	 * 开启热点探测时，热点优先返回本地副本；从redis获取后记录访问，达到阈值时晋升为热点。
+	 * 单个与批量获取（包括get、getAndFetch及其异步方法）都经过此方法
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	protected final CachedObject<T> getFromCache(String key) {
+		HotKeyDetector detector = hotKeyDetector;
+		if(detector == null) {
+			return getFromRedis(key);
+		}
+		Object replica = detector.getReplica(key);
+		if(replica != null) {
+			return (CachedObject<T>) replica;
+		}
+		long stamp = detector.stamp(key);
+		CachedObject<T> cacheObj = getFromRedis(key);
+		if(!cacheObj.isNull()) {
+			detector.record(key, cacheObj, stamp);
+		}
+		return cacheObj;
+	}
+	
+	/**
+	 * 开启热点探测时，热点返回本地副本，其余的缓存键一次从redis获取
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	protected final List<CachedObject<T>> getFromCache(Collection<String> keys) {
+		HotKeyDetector detector = hotKeyDetector;
+		if(detector == null) {
+			return getFromRedis(keys);
+		}
+		List<CachedObject<T>> list = new ArrayList<CachedObject<T>>(keys.size());
+		Map<String, Long> remoteStamps = new HashMap<String, Long>();
+		for(String key : keys) {
+			Object replica = detector.getReplica(key);
+			if(replica != null) {
+				list.add((CachedObject<T>) replica);
+			} else {
+				remoteStamps.put(key, detector.stamp(key));
+			}
+		}
+		if(remoteStamps.size() > 0) {
+			for(CachedObject<T> cacheObj : getFromRedis(remoteStamps.keySet())) {
+				Long stamp = remoteStamps.get(cacheObj.getKey());
+				if(!cacheObj.isNull() && stamp != null) {
+					detector.record(cacheObj.getKey(), cacheObj, stamp);
+				}
+				list.add(cacheObj);
+			}
+		}
+		return list;
 	}
 	
+	/**
+	 * 使热点的本地副本失效，之前开始的读取不会再写入副本；写入或删除redis之后调用
+	 * 
+	 * @param key	缓存键
+	 */
+	protected final void invalidateReplica(String key) {
+		HotKeyDetector detector = hotKeyDetector;
+		if(detector != null) {
+			detector.invalidate(key);
+		}
+	}
+	
+	/**
+	 * 批量使热点的本地副本失效，同{@link #invalidateReplica(String)}
+	 * 
+	 * @param keys	缓存键
+	 */
+	protected final void invalidateReplicas(Collection<String> keys) {
+		HotKeyDetector detector = hotKeyDetector;
+		if(detector != null) {
+			keys.forEach(detector::invalidate);
+		}
+	}
+	
+	/**
+	 * 从redis获取数据，留给子类实现
+	 *
+	 * @param key 缓存键
+	 * @return 数据
+	 */
+	protected abstract CachedObject<T> getFromRedis(String key);
+	
+	/**
+	 * 从redis批量获取数据，留给子类实现；返回的数据不保证与缓存键的顺序一致
+	 *
+	 * @param keys 缓存键
+	 * @return 数据
+	 */
+	protected abstract List<CachedObject<T>> getFromRedis(Collection<String> keys);
+	
 	@Override
 	protected void removeFromCache(String key) {
-		stringRedisTemplate.delete(buildKey(key));
+		List<String> _keys = buildKeys(key);
+		if(_keys.size() == 1) {
+			stringRedisTemplate.delete(_keys.get(0));
+		} else {
+			stringRedisTemplate.delete(_keys);
+		}
+		if(isStaleEnabled()) {
+			invalidateStale(Collections.singletonList(key));
+		}
+		invalidateReplica(key);
 	}
 	
 	@Override
 	protected void removeFromCache(Collection<String> keys) {
-		List<String> _keys = keys.stream().map(e -> buildKey(e)).collect(Collectors.toList());
+		List<String> _keys = keys.stream().flatMap(e -> buildKeys(e).stream()).collect(Collectors.toList());
 		stringRedisTemplate.delete(_keys);
+		if(isStaleEnabled()) {
+			invalidateStale(keys);
+		}
+		invalidateReplicas(keys);
+	}
+	
+	/**
+	 * 添加数据到缓存，并为缓存键打标签；先打标签再写入，写入的缓存总能被按标签删除
+	 * 
+	 * @param key	缓存键
+	 * @param value	数据
+	 * @param tags	标签
+	 */
+	public final void add(String key, T value, Collection<String> tags) {
+		tag(key, tags);
+		add(key, value);
+	}
+	
+	/**
+	 * 从缓存获取数据，未命中时加载并更新缓存，加载时为缓存键打标签
+	 * 
+	 * @param key		缓存键
+	 * @param fetcher	数据获取代理
+	 * @param tags		标签
+	 * @return
+	 */
+	public final T getAndFetch(String key, Function<String, T> fetcher, Collection<String> tags) {
+		if(fetcher == null) {
+			throw new IllegalArgumentException("fetcher");
+		}
+		return getAndFetch(key, e -> {
+			T value = fetcher.apply(e);
+			tag(e, tags);
+			return value;
+		});
+	}
+	
+	/**
+	 * 为缓存键打标签：以管道将缓存键加入各标签的集合，并延长集合的生命周期
+	 * 
+	 * @param key	缓存键
+	 * @param tags	标签
+	 */
+	public void tag(String key, Collection<String> tags) {
+		if(!isStarted() || tags == null || tags.isEmpty()) {
+			return;
+		}
+		if(key == null || "".equals(key.trim())) {
+			throw new IllegalArgumentException("The key is null or empty!");
+		}
+		final byte[] rawMember = key.getBytes(StandardCharsets.UTF_8);
+		final List<byte[]> rawTagKeys = new ArrayList<byte[]>(tags.size());
+		for(String tag : tags) {
+			rawTagKeys.add(buildTagKey(tag).getBytes(StandardCharsets.UTF_8));
+		}
+		final int seconds = tagExpiredSeconds > 0 ? tagExpiredSeconds : getMaxExpiredSeconds();
+		factory.executeBatch((RedisCallback<Object>) connection -> {
+			for(byte[] rawTagKey : rawTagKeys) {
+				connection.sAdd(rawTagKey, rawMember);
+				if(seconds > 0) {
+					connection.expire(rawTagKey, seconds);
+				}
+			}
+			return null;
+		});
+	}
+	
+	/**
+	 * 删除标签下的全部缓存：以管道分批UNLINK（集群上逐个DEL），标签下的键较少且设置了{@link #setTagScriptMaxKeys(int)}时以lua脚本原子删除（集群上不使用脚本）；
+	 * 只从标签中移除已删除的缓存键，删除期间新打标签的缓存键保留
+	 * 
+	 * @param tag	标签
+	 * @return 删除的缓存键的数量
+	 */
+	public long invalidateTag(String tag) {
+		if(!isStarted()) {
+			return 0;
+		}
+		final String tagKey = buildTagKey(tag);
+		Set<String> members = stringRedisTemplate.opsForSet().members(tagKey);
+		if(members == null || members.isEmpty()) {
+			return 0;
+		}
+		List<String> keys = members.stream().flatMap(e -> buildKeys(e).stream()).collect(Collectors.toList());
+		if(keys.size() <= tagScriptMaxKeys && !factory.isCluster()) {
+			List<String> scriptKeys = new ArrayList<String>(keys.size() + 1);
+			scriptKeys.add(tagKey);
+			scriptKeys.addAll(keys);
+			stringRedisTemplate.execute(INVALIDATE_TAG_SCRIPT, scriptKeys, members.toArray());
+		} else {
+			final byte[] rawTagKey = tagKey.getBytes(StandardCharsets.UTF_8);
+			//集群连接不支持执行任意命令，逐个DEL
+			final boolean cluster = factory.isCluster();
+			for(int i = 0; i < keys.size(); i += TAG_BATCH_SIZE) {
+				final List<String> batch = keys.subList(i, Math.min(i + TAG_BATCH_SIZE, keys.size()));
+				factory.executeBatch((RedisCallback<Object>) connection -> {
+					for(String _key : batch) {
+						if(cluster) {
+							connection.del(_key.getBytes(StandardCharsets.UTF_8));
+						} else {
+							connection.execute("UNLINK", _key.getBytes(StandardCharsets.UTF_8));
+						}
+					}
+					return null;
+				});
+			}
+			final List<byte[]> rawMembers = members.stream().map(e -> e.getBytes(StandardCharsets.UTF_8)).collect(Collectors.toList());
+			for(int i = 0; i < rawMembers.size(); i += TAG_BATCH_SIZE) {
+				final List<byte[]> batch = rawMembers.subList(i, Math.min(i + TAG_BATCH_SIZE, rawMembers.size()));
+				stringRedisTemplate.execute((RedisCallback<Long>) connection -> 
+					connection.sRem(rawTagKey, batch.toArray(new byte[batch.size()][])));
+			}
+		}
+		if(isStaleEnabled()) {
+			invalidateStale(members);
+		}
+		invalidateReplicas(members);
+		return members.size();
+	}
+	
+	/**
+	 * 淘汰标签下的全部缓存；策略同{@link #delayRemove(String, Runnable)}：先删除->更新数据->异步延迟再删除一次
+	 * 
+	 * @param tag		标签
+	 * @param updater	更新数据的代理
+	 */
+	public void delayInvalidateTag(String tag, Runnable updater) {
+		invalidateTag(tag);
+		if(updater != null) {
+			updater.run();
+		}
+		delayInvalidateTag(tag);
+	}
+	
+	/**
+	 * 淘汰标签下的全部缓存；策略同{@link #delayRemove(String, Supplier)}：先删除->更新数据->异步延迟再删除一次
+	 * 
+	 * @param tag		标签
+	 * @param updater	更新数据的代理
+	 * @return 返回更新结果
+	 */
+	public <R> R delayInvalidateTag(String tag, Supplier<R> updater) {
+		invalidateTag(tag);
+		R result = null;
+		if(updater != null) {
+			result = updater.get();
+		}
+		delayInvalidateTag(tag);
+		return result;
+	}
+	
+	/**
+	 * 异步延迟删除标签下的全部缓存
+	 * 
+	 * @param tag	标签
+	 */
+	public void delayInvalidateTag(String tag) {
+		delayEvict(() -> {
+			try {
+				invalidateTag(tag);
+			} catch(Throwable t) {
+				logger.error(MessageFormat.format("Exception occured when {0} invalidate the tag {1}.", name, tag), t);
+			}
+		});
 	}
 	
 	@Override
 	protected void expire(String key, int seconds) {
-		stringRedisTemplate.expire(buildKey(key), seconds, TimeUnit.SECONDS);
+		List<String> _keys = buildKeys(key);
+		if(_keys.size() == 1) {
+			stringRedisTemplate.expire(_keys.get(0), seconds, TimeUnit.SECONDS);
+		} else {
+			expire(Collections.singletonList(key), seconds);
+		}
 	}
 	
+	/**
+	 * 以管道批量延长，一次往返；集群上逐条执行
+	 */
 	@Override
 	protected void expire(Collection<String> keys, int seconds) {
-		for(String key : keys) {
-			expire(key, seconds);
-		}
+		final List<byte[]> rawKeys = keys.stream().flatMap(e -> buildKeys(e).stream())
+				.map(e -> e.getBytes(StandardCharsets.UTF_8)).collect(Collectors.toList());
+		factory.executeBatch((RedisCallback<Object>) connection -> {
+			for(byte[] rawKey : rawKeys) {
+				connection.expire(rawKey, seconds);
+			}
+			return null;
+		});
 	}
 	
 	@Override
 	public long ttl(String key) {
-		return stringRedisTemplate.getExpire(buildKey(key));
+		return stringRedisTemplate.getExpire(buildReadKey(key));
 	}
 	
 	@Override
-	protected CachedObject<T> fetchObjectWithLock(String key,
-												  Function<String, T> fetcher) {
-		CachedObject<T> cacheObj;
-		synchronized(this) {
-			cacheObj = getFromCache(key);
-			if(cacheObj.isNull()) {
-				if(redissonClient != null) {
-					/*
-					 * 在jvm的锁的基础上（防止同一个jvm实例的多个线程为争用分布式锁而频繁访问redis），
-					 * 增加redis分布式锁，同一时间只允许一个进程访问redis的共享缓存资源
-					 */
-					RLock lock = redissonClient.getLock(buildRedisLockKey(key));
-					try {
-						lock.lock();
-						cacheObj = getFromCache(key);
-						if(cacheObj.isNull()) {
-							cacheObj = fetchObject(key, fetcher);
-						}
-					} finally {
-						lock.unlock();
+	protected CachedObject<T> loadObject(String key,
+										 Function<String, T> fetcher) {
+		CachedObject<T> cacheObj = getFromCache(key);
+		if(cacheObj.isNull()) {
+			if(isStaleEnabled()) {
+				cacheObj = loadObjectOrStale(key, fetcher);
+			} else {
+				cacheObj = fetchObjectWithDistributedLock(key, fetcher);
+			}
+		}
+		return cacheObj;
+	}
+	
+	/**
+	 * 设置了分布式锁或开启了过期副本时，在executor中执行{@link #loadObject}，与同步加载一致；
+	 * 分布式锁与当前线程绑定，因此加载期间占用executor的一个线程，executor应为有界的专用线程池
+	 */
+	@Override
+	protected CompletableFuture<CachedObject<T>> loadObjectAsync(String key,
+			Function<String, CompletableFuture<T>> fetcher,
+			Executor executor) {
+		if(redissonClient == null && !isStaleEnabled()) {
+			return super.loadObjectAsync(key, fetcher, executor);
+		}
+		return supplyAsync(() -> loadObject(key, e -> fetcher.apply(e).join()), executor);
+	}
+	
+	/**
+	 * 缓存不存在时，从过期副本中获取数据：
+	 * 过期副本写入的时间不超过staleWhileRevalidateSeconds时，直接返回过期副本，并异步重新加载；
+	 * 否则加载数据，加载异常或超过loadTimeoutMillis时，返回过期副本。
+	 * 异步重新加载与限时加载在staleLoadThreadFactory中执行，未设置时只在加载异常时返回过期副本。
+	 * 删除缓存时过期副本被置为失效（写入时间为0），之后只在加载异常或超时时返回。
+	 * 
+	 * @param key		缓存键
+	 * @param fetcher	数据获取代理，例如从数据库获取数据
+	 * @return
+	 */
+	private CachedObject<T> loadObjectOrStale(String key,
+											  Function<String, T> fetcher) {
+		StaleObject<T> stale = getStaleFromCache(key);
+		if(stale == null) {
+			return fetchObjectWithDistributedLock(key, fetcher);
+		}
+		DefaultThreadFactory threadFactory = staleLoadThreadFactory;
+		long age = System.currentTimeMillis() - stale.getWriteTime();
+		if(threadFactory != null && age <= staleWhileRevalidateSeconds * 1000L) {
+			revalidate(key, fetcher, threadFactory);
+			return new CachedObject<T>(key, stale.getData());
+		}
+		try {
+			if(threadFactory != null && loadTimeoutMillis > 0) {
+				//超时后加载继续在后台执行，完成后更新缓存；线程池已满时抛出RejectedExecutionException，返回过期副本
+				return CompletableFuture.supplyAsync(() -> fetchObjectWithDistributedLock(key, fetcher),
+						threadFactory).get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+			} else {
+				return fetchObjectWithDistributedLock(key, fetcher);
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return new CachedObject<T>(key, stale.getData());
+		} catch(Exception e) {
+			logger.warn(MessageFormat.format("{0} serves the stale value of the key {1}.", name, key), e);
+			return new CachedObject<T>(key, stale.getData());
+		}
+	}
+	
+	/**
+	 * 异步重新加载数据，同一个键同一时间只有一个重新加载
+	 * 
+	 * @param key			缓存键
+	 * @param fetcher		数据获取代理，例如从数据库获取数据
+	 * @param threadFactory	执行重新加载的线程池
+	 */
+	private void revalidate(String key, Function<String, T> fetcher, DefaultThreadFactory threadFactory) {
+		if(!revalidatingKeys.add(key)) {
+			return;
+		}
+		try {
+			CompletableFuture.runAsync(() -> fetchObjectWithDistributedLock(key, fetcher), threadFactory)
+				.whenComplete((v, t) -> {
+					revalidatingKeys.remove(key);
+					if(t != null) {
+						logger.warn(MessageFormat.format("{0} failed to revalidate the key {1}.", name, key), t);
 					}
-					if (cacheObj.isEmpty()) {
-			    		incrEmptyHit();
-			    	} else if(cacheObj.getData() != null) {
-			    		handleHit(key);
-			    	}
-				} else {
+				});
+		} catch(RejectedExecutionException e) {
+			revalidatingKeys.remove(key);
+		}
+	}
+	
+	/**
+	 * 加分布式锁获取缓存对象
+	 * 
+	 * @param key		缓存键
+	 * @param fetcher	数据获取代理，例如从数据库获取数据
+	 * @return
+	 */
+	private CachedObject<T> fetchObjectWithDistributedLock(String key,
+														   Function<String, T> fetcher) {
+		CachedObject<T> cacheObj;
+		if(redissonClient != null) {
+			/*
+			 * 在jvm的按键合并加载的基础上（防止同一个jvm实例的多个线程为争用分布式锁而频繁访问redis），
+			 * 增加redis分布式锁，同一时间只允许一个进程访问redis的共享缓存资源
+			 */
+			RLock lock = redissonClient.getLock(buildRedisLockKey(key));
+			try {
+				lock.lock();
+				cacheObj = getFromCache(key);
+				if(cacheObj.isNull()) {
 					cacheObj = fetchObject(key, fetcher);
 				}
+			} finally {
+				lock.unlock();
 			}
+		} else {
+			cacheObj = fetchObject(key, fetcher);
 		}
-		if (cacheObj.isEmpty()) {
-    		incrEmptyHit();
-    	} else if(cacheObj.getData() != null) {
-    		handleHit(key);
-    	}
 		return cacheObj;
 	}
 	
+	/**
+	 * 是否开启了过期副本
+	 * 
+	 * @return
+	 */
+	public boolean isStaleEnabled() {
+		return staleExpiredSeconds > 0;
+	}
+	
+	/**
+	 * 获取数据的过期副本，留给子类实现，子类在写入缓存时同时写入过期副本；不支持过期副本的子类返回null
+	 * 
+	 * @param key	缓存键
+	 * @return 过期副本，不存在时返回null
+	 */
+	protected StaleObject<T> getStaleFromCache(String key) {
+		return null;
+	}
+	
+	/**
+	 * 使过期副本失效，留给支持过期副本的子类实现：删除缓存后，过期副本只在加载异常或超时时返回，不再直接返回
+	 * 
+	 * @param keys	缓存键
+	 */
+	protected void invalidateStale(Collection<String> keys) {
+	}
+	
+	/**
+	 * 统计先记录在本地，定时以管道批量写入redis
+	 */
 	@Override
 	protected void hit() {
-		valueOps.increment(buildHitKey(), 1);
+		localHits.increment();
 	}
 	
 	@Override
 	protected void emptyHit() {
-		valueOps.increment(buildEmptyHitKey(), 1);
+		localEmptyHits.increment();
 	}
 
 	@Override
 	protected void miss() {
-		valueOps.increment(buildMissKey(), 1);
+		localMisses.increment();
 	}
 
+	/**
+	 * 集群的总数加上本地尚未写入redis的增量
+	 */
 	@Override
 	public long getHits() {
-		String value = valueOps.get(buildHitKey());
-		if(value != null) {
-			return Long.parseLong(value);
-		} else {
-			return 0;
-		}
+		return getStat(hitKey) + localHits.sum();
 	}
 	
 	@Override
 	public long getEmptyHits() {
-		String value = valueOps.get(buildEmptyHitKey());
-		if(value != null) {
-			return Long.parseLong(value);
-		} else {
-			return 0;
-		}
+		return getStat(emptyHitKey) + localEmptyHits.sum();
 	}
 
 	@Override
 	public long getMisses() {
-		String value = valueOps.get(buildMissKey());
+		return getStat(missKey) + localMisses.sum();
+	}
+	
+	private long getStat(String statKey) {
+		String value = valueOps.get(statKey);
 		if(value != null) {
 			return Long.parseLong(value);
 		} else {
@@ -194,9 +769,43 @@ public abstract class RedisAbstractCache<T> extends AbstractDelayEvictionCache<T
 		}
 	}
 	
+	/**
+	 * 以管道批量INCRBY写入本地统计增量；写入失败时增量退回本地，下次重试
+	 */
+	protected void flushStat() {
+		final long hits = localHits.sumThenReset();
+		final long emptyHits = localEmptyHits.sumThenReset();
+		final long misses = localMisses.sumThenReset();
+		if(hits == 0 && emptyHits == 0 && misses == 0) {
+			return;
+		}
+		try {
+			factory.executeBatch((RedisCallback<Object>) connection -> {
+				if(hits > 0) {
+					connection.incrBy(hitKey.getBytes(StandardCharsets.UTF_8), hits);
+				}
+				if(emptyHits > 0) {
+					connection.incrBy(emptyHitKey.getBytes(StandardCharsets.UTF_8), emptyHits);
+				}
+				if(misses > 0) {
+					connection.incrBy(missKey.getBytes(StandardCharsets.UTF_8), misses);
+				}
+				return null;
+			});
+		} catch(Throwable t) {
+			localHits.add(hits);
+			localEmptyHits.add(emptyHits);
+			localMisses.add(misses);
+			logger.warn(MessageFormat.format("{0} failed to flush the stat.", name), t);
+		}
+	}
+	
 	@Override
 	protected void addEmptyToCache(String key) {
-		valueOps.set(buildKey(key), EMPTY_VALUE);
+		for(String _key : buildKeys(key)) {
+			valueOps.set(_key, EMPTY_VALUE);
+		}
+		invalidateReplica(key);
 	}
 
 	@Override
@@ -219,6 +828,14 @@ public abstract class RedisAbstractCache<T> extends AbstractDelayEvictionCache<T
 				"cache", name, "mis").toString();
     }
 	
+	private final String buildTagKey(String tag) {
+		if(tag == null || "".equals(tag.trim())) {
+			throw new IllegalArgumentException("The tag should not be null or empty");
+		}
+		return new KeyBuilder().build(factory.getAppName(), 
+				"cache", name, "tag", tag).toString();
+	}
+	
 	private final <K> String buildRedisLockKey(K key) {
 		String lockKey = null;
 		if(key instanceof Collection) {
@@ -239,10 +856,291 @@ public abstract class RedisAbstractCache<T> extends AbstractDelayEvictionCache<T
     	return new KeyBuilder().build(factory.getAppName(), 
     			prefix, key).toString();
     }
+	
+	/**
+	 * 缓存键在redis中的全部键，默认只有一个；多副本的缓存返回全部副本的键
+	 * 
+	 * @param key	缓存键
+	 * @return
+	 */
+	protected List<String> buildKeys(String key) {
+		return Collections.singletonList(buildKey(key));
+	}
+	
+	/**
+	 * 读取时使用的redis中的键，默认同{@link #buildKey(String)}；多副本的缓存随机返回一个副本的键
+	 * 
+	 * @param key	缓存键
+	 * @return
+	 */
+	protected String buildReadKey(String key) {
+		return buildKey(key);
+	}
+	
+	protected String buildStaleKey(String key) {
+		String prefix = keyPrefix == null ? name : keyPrefix;
+		return new KeyBuilder().build(factory.getAppName(), 
+				prefix, key).append(STALE_KEY_SUFFIX).toString();
+	}
 
 	@Override
 	public String getType() {
 		return "redis";
 	}
+
+	public int getStaleExpiredSeconds() {
+		return staleExpiredSeconds;
+	}
+
+	/**
+	 * 设置过期副本的缓存失效时间（秒），应大于缓存失效时间；0表示不开启过期副本
+	 * 
+	 * @param staleExpiredSeconds
+	 */
+	public void setStaleExpiredSeconds(int staleExpiredSeconds) {
+		if(staleExpiredSeconds < 0) {
+			throw new IllegalArgumentException("The value should not be less than 0.");
+		}
+		this.staleExpiredSeconds = staleExpiredSeconds;
+	}
+
+	public int getStaleWhileRevalidateSeconds() {
+		return staleWhileRevalidateSeconds;
+	}
+
+	/**
+	 * 设置缓存不存在时，可直接返回并异步重新加载的过期副本的最大写入时长（秒）；需设置{@link #setStaleLoadThreadFactory(DefaultThreadFactory)}
+	 * 
+	 * @param staleWhileRevalidateSeconds
+	 */
+	public void setStaleWhileRevalidateSeconds(int staleWhileRevalidateSeconds) {
+		this.staleWhileRevalidateSeconds = staleWhileRevalidateSeconds;
+	}
+
+	public long getStatFlushMillis() {
+		return statFlushMillis;
+	}
+
+	/**
+	 * 设置本地统计增量写入redis的间隔（毫秒），应在启动前设置；启动时开启了统计才会定时写入，停止时总会写入一次
+	 * 
+	 * @param statFlushMillis
+	 */
+	public void setStatFlushMillis(long statFlushMillis) {
+		if(statFlushMillis <= 0) {
+			throw new IllegalArgumentException("The value should be greater than 0.");
+		}
+		this.statFlushMillis = statFlushMillis;
+	}
+
+	public int getTagExpiredSeconds() {
+		return tagExpiredSeconds;
+	}
+
+	/**
+	 * 设置标签的缓存键集合的失效时间（秒），每次打标签时延长；0表示与缓存键可能的最大失效时间相同，
+	 * 设置了失效时间的策略时即为策略的最大失效时间。
+	 * 命中时会延长生命周期的缓存，应设置为大于缓存失效时间
+	 * 
+	 * @param tagExpiredSeconds
+	 */
+	public void setTagExpiredSeconds(int tagExpiredSeconds) {
+		if(tagExpiredSeconds < 0) {
+			throw new IllegalArgumentException("The value should not be less than 0.");
+		}
+		this.tagExpiredSeconds = tagExpiredSeconds;
+	}
+
+	public int getTagScriptMaxKeys() {
+		return tagScriptMaxKeys;
+	}
+
+	/**
+	 * 设置以lua脚本原子删除标签下缓存的最大键数量，0表示不使用脚本；脚本中的键可能分布在不同的槽，redis集群上不使用脚本
+	 * 
+	 * @param tagScriptMaxKeys
+	 */
+	public void setTagScriptMaxKeys(int tagScriptMaxKeys) {
+		if(tagScriptMaxKeys < 0) {
+			throw new IllegalArgumentException("The value should not be less than 0.");
+		}
+		this.tagScriptMaxKeys = tagScriptMaxKeys;
+	}
+
+	public int getHotKeyThreshold() {
+		return hotKeyThreshold;
+	}
+
+	/**
+	 * 设置晋升为热点的衰减访问次数（每个衰减间隔计数减半），0表示不探测热点；应在启动前设置。
+	 * 热点在本地保存短时副本，本节点删除缓存时副本同时失效，其它节点的写入在副本失效后可见。
+	 * 
+	 * @param hotKeyThreshold
+	 */
+	public void setHotKeyThreshold(int hotKeyThreshold) {
+		if(hotKeyThreshold < 0) {
+			throw new IllegalArgumentException("The value should not be less than 0.");
+		}
+		this.hotKeyThreshold = hotKeyThreshold;
+	}
+
+	public int getMaxHotKeys() {
+		return maxHotKeys;
+	}
+
+	/**
+	 * 设置热点的最大数量，达到后不再晋升
+	 * 
+	 * @param maxHotKeys
+	 */
+	public void setMaxHotKeys(int maxHotKeys) {
+		if(maxHotKeys < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		this.maxHotKeys = maxHotKeys;
+	}
+
+	public long getHotKeyReplicaMillis() {
+		return hotKeyReplicaMillis;
+	}
+
+	/**
+	 * 设置热点本地副本的有效时间（毫秒），即其它节点的写入在本节点可见的最大延迟
+	 * 
+	 * @param hotKeyReplicaMillis
+	 */
+	public void setHotKeyReplicaMillis(long hotKeyReplicaMillis) {
+		if(hotKeyReplicaMillis < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		this.hotKeyReplicaMillis = hotKeyReplicaMillis;
+	}
+
+	public long getHotKeyDecayMillis() {
+		return hotKeyDecayMillis;
+	}
+
+	/**
+	 * 设置热点探测的衰减间隔（毫秒），每次衰减时访问计数减半，热点的计数低于阈值的一半时降级
+	 * 
+	 * @param hotKeyDecayMillis
+	 */
+	public void setHotKeyDecayMillis(long hotKeyDecayMillis) {
+		if(hotKeyDecayMillis < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		this.hotKeyDecayMillis = hotKeyDecayMillis;
+	}
+	
+	/**
+	 * 当前的热点缓存键
+	 * 
+	 * @return
+	 */
+	public List<String> getHotKeys() {
+		HotKeyDetector detector = hotKeyDetector;
+		return detector != null ? detector.getHotKeys() : Collections.<String>emptyList();
+	}
+	
+	/**
+	 * 是否开启了热点探测（已启动且设置了热点阈值）
+	 * 
+	 * @return
+	 */
+	public boolean isHotKeyDetected() {
+		return hotKeyDetector != null;
+	}
+	
+	/**
+	 * 最近的热点晋升与降级事件
+	 * 
+	 * @return
+	 */
+	public List<HotKeyDetector.HotKeyEvent> getHotKeyEvents() {
+		HotKeyDetector detector = hotKeyDetector;
+		return detector != null ? detector.getEvents() : Collections.<HotKeyDetector.HotKeyEvent>emptyList();
+	}
+	
+	/**
+	 * 命中热点本地副本的次数
+	 * 
+	 * @return
+	 */
+	public long getHotKeyReplicaHits() {
+		HotKeyDetector detector = hotKeyDetector;
+		return detector != null ? detector.getReplicaHits() : 0;
+	}
+	
+	public long getHotKeyPromotionCount() {
+		HotKeyDetector detector = hotKeyDetector;
+		return detector != null ? detector.getPromotionCount() : 0;
+	}
+	
+	public long getHotKeyDemotionCount() {
+		HotKeyDetector detector = hotKeyDetector;
+		return detector != null ? detector.getDemotionCount() : 0;
+	}
+
+	public long getLoadTimeoutMillis() {
+		return loadTimeoutMillis;
+	}
+
+	/**
+	 * 设置存在过期副本时，加载数据的超时时间（毫秒），超时后返回过期副本；0表示不限制。需设置{@link #setStaleLoadThreadFactory(DefaultThreadFactory)}
+	 * 
+	 * @param loadTimeoutMillis
+	 */
+	public void setLoadTimeoutMillis(long loadTimeoutMillis) {
+		this.loadTimeoutMillis = loadTimeoutMillis;
+	}
+
+	public DefaultThreadFactory getStaleLoadThreadFactory() {
+		return staleLoadThreadFactory;
+	}
+
+	/**
+	 * 设置执行过期副本的异步重新加载与限时加载的线程池，应有界且专用，不应使用公共的ForkJoinPool：
+	 * 加载会阻塞线程（数据获取代理及分布式锁）
+	 * 
+	 * @param staleLoadThreadFactory
+	 */
+	public void setStaleLoadThreadFactory(DefaultThreadFactory staleLoadThreadFactory) {
+		this.staleLoadThreadFactory = staleLoadThreadFactory;
+	}
+	
+	/**
+	 * 数据的过期副本
+	 * 
+	 * @param <T>
+	 */
+	protected static final class StaleObject<T> {
+		
+		private final T data;
+		private final long writeTime;
+		
+		public StaleObject(T data, long writeTime) {
+			this.data = data;
+			this.writeTime = writeTime;
+		}
+		
+		/**
+		 * 过期副本的数据
+		 * 
+		 * @return
+		 */
+		public T getData() {
+			return data;
+		}
+		
+		/**
+		 * 过期副本的写入时间（毫秒）
+		 * 
+		 * @return
+		 */
+		public long getWriteTime() {
+			return writeTime;
+		}
+		
+	}
 	
 }
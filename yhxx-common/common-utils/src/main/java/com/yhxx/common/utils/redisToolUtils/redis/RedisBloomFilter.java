@@ -0,0 +1,192 @@
+package com.yhxx.common.utils.redisToolUtils.redis;
+
+import com.yhxx.common.utils.redisToolUtils.ExistenceFilter;
+import com.yhxx.common.utils.redisToolUtils.util.BloomFilters;
+import com.yhxx.common.utils.redisToolUtils.util.KeyBuilder;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 基于redis位图的布隆过滤器，多个节点共享；位数在创建时按预计的元素数量和误判率确定，
+ * 重建时写入临时的位图，完成后替换原位图；重建的标记保存在redis中，重建期间所有节点的新增同时写入临时的位图，
+ * 同一时间只有一个节点执行重建。
+ * 位图、临时的位图与重建标记以同一个hash tag命名，在redis集群中位于同一个槽，脚本与RENAME可以同时访问。
+ *
+ * @author zsp
+ *
+ */
+public class RedisBloomFilter implements ExistenceFilter {
+
+	/**
+	 * 重建时每次批量写入的元素数量
+	 */
+	private final static int REBUILD_BATCH_SIZE = 1000;
+
+	/**
+	 * 重建标记的失效时间（秒），每批写入时延长，防止重建的节点异常退出后标记一直存在
+	 */
+	private final static int REBUILDING_SECONDS = 60;
+
+	/**
+	 * 添加的脚本：KEYS为位图、重建标记、临时的位图，ARGV为位的偏移；存在重建标记时同时写入临时的位图
+	 */
+	private final static byte[] PUT_SCRIPT = (
+			"local building = redis.call('EXISTS', KEYS[2]) == 1 "
+			+ "for i = 1, #ARGV do "
+			+ "redis.call('SETBIT', KEYS[1], ARGV[i], 1) "
+			+ "if building then redis.call('SETBIT', KEYS[3], ARGV[i], 1) end "
+			+ "end "
+			+ "return 1").getBytes(StandardCharsets.UTF_8);
+
+	/**
+	 * 开始重建的脚本：KEYS为重建标记、临时的位图，ARGV为标记的值、失效时间；已有其它节点在重建时返回0
+	 */
+	private final static byte[] BEGIN_REBUILD_SCRIPT = (
+			"if not redis.call('SET', KEYS[1], ARGV[1], 'NX', 'EX', ARGV[2]) then return 0 end "
+			+ "redis.call('DEL', KEYS[2]) "
+			+ "return 1").getBytes(StandardCharsets.UTF_8);
+
+	/**
+	 * 结束重建的脚本：KEYS为位图、重建标记、临时的位图，ARGV为标记的值；标记仍属于当前节点时以临时的位图替换原位图
+	 */
+	private final static byte[] END_REBUILD_SCRIPT = (
+			"if redis.call('GET', KEYS[2]) ~= ARGV[1] then return 0 end "
+			+ "if redis.call('EXISTS', KEYS[3]) == 1 then redis.call('RENAME', KEYS[3], KEYS[1]) "
+			+ "else redis.call('DEL', KEYS[1]) end "
+			+ "redis.call('DEL', KEYS[2]) "
+			+ "return 1").getBytes(StandardCharsets.UTF_8);
+
+	private final RedisCacheFactory factory;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final byte[] rawKey;
+	private final byte[] rawBuildingKey;
+	private final byte[] rawRebuildingKey;
+	private final long numBits;
+	private final int numHashFunctions;
+
+	/**
+	 *
+	 * @param factory				缓存工厂
+	 * @param name					过滤器名，通常为缓存名
+	 * @param expectedInsertions	预计的元素数量
+	 * @param fpp					误判率，取值(0, 1)
+	 */
+	public RedisBloomFilter(RedisCacheFactory factory, String name,
+			long expectedInsertions, double fpp) {
+		if(name == null || "".equals(name.trim())) {
+			throw new IllegalArgumentException("The name should not be null or empty");
+		}
+		//redis位图的最大位数为2^32
+		this.numBits = Math.min(BloomFilters.optimalNumOfBits(expectedInsertions, fpp), 1L << 32);
+		this.numHashFunctions = BloomFilters.optimalNumOfHashFunctions(expectedInsertions, numBits);
+		this.factory = factory;
+		this.stringRedisTemplate = factory.getStringRedisTemplate();
+		String key = "{" + new KeyBuilder().build(factory.getAppName(),
+				"cache", name, "bloom").toString() + "}";
+		this.rawKey = key.getBytes(StandardCharsets.UTF_8);
+		this.rawBuildingKey = (key + "$building").getBytes(StandardCharsets.UTF_8);
+		this.rawRebuildingKey = (key + "$rebuilding").getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public boolean mightContain(String key) {
+		final long[] offsets = BloomFilters.offsets(key, numHashFunctions, numBits);
+		List<Object> results = factory.executeBatch((RedisCallback<Object>) connection -> {
+			for(long offset : offsets) {
+				connection.getBit(rawKey, offset);
+			}
+			return null;
+		});
+		if(results == null) {
+			return true;
+		}
+		for(Object result : results) {
+			if(Boolean.FALSE.equals(result)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 以脚本写入，与重建的替换互斥：重建期间（任一节点）的新增不会丢失
+	 */
+	@Override
+	public void put(String key) {
+		final long[] offsets = BloomFilters.offsets(key, numHashFunctions, numBits);
+		final byte[][] keysAndArgs = new byte[3 + offsets.length][];
+		keysAndArgs[0] = rawKey;
+		keysAndArgs[1] = rawRebuildingKey;
+		keysAndArgs[2] = rawBuildingKey;
+		for(int i = 0; i < offsets.length; i++) {
+			keysAndArgs[3 + i] = String.valueOf(offsets[i]).getBytes(StandardCharsets.UTF_8);
+		}
+		stringRedisTemplate.execute((RedisCallback<Object>) connection -> 
+			connection.eval(PUT_SCRIPT, ReturnType.INTEGER, 3, keysAndArgs));
+	}
+
+	/**
+	 * 其它节点正在重建时直接返回
+	 */
+	@Override
+	public synchronized void rebuild(Iterable<String> keys) {
+		final byte[] token = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+		final byte[] rawSeconds = String.valueOf(REBUILDING_SECONDS).getBytes(StandardCharsets.UTF_8);
+		Long begun = stringRedisTemplate.execute((RedisCallback<Long>) connection -> 
+			connection.eval(BEGIN_REBUILD_SCRIPT, ReturnType.INTEGER, 2, rawRebuildingKey, rawBuildingKey, token, rawSeconds));
+		if(begun == null || begun.longValue() == 0) {
+			return;
+		}
+		//重建异常时保留原位图，重建标记在失效时间后自动删除
+		List<long[]> batch = new ArrayList<long[]>(REBUILD_BATCH_SIZE);
+		for(String key : keys) {
+			batch.add(BloomFilters.offsets(key, numHashFunctions, numBits));
+			if(batch.size() >= REBUILD_BATCH_SIZE) {
+				flush(batch);
+			}
+		}
+		flush(batch);
+		stringRedisTemplate.execute((RedisCallback<Object>) connection -> 
+			connection.eval(END_REBUILD_SCRIPT, ReturnType.INTEGER, 3, rawKey, rawRebuildingKey, rawBuildingKey, token));
+	}
+
+	/**
+	 * 写入一批到临时的位图，并延长重建标记
+	 * 
+	 * @param batch
+	 */
+	private void flush(final List<long[]> batch) {
+		if(batch.size() > 0) {
+			factory.executeBatch((RedisCallback<Object>) connection -> {
+				for(long[] offsets : batch) {
+					setBits(connection, rawBuildingKey, offsets);
+				}
+				connection.expire(rawRebuildingKey, REBUILDING_SECONDS);
+				return null;
+			});
+			batch.clear();
+		}
+	}
+
+	private void setBits(RedisConnection connection, byte[] key, long[] offsets) {
+		for(long offset : offsets) {
+			connection.setBit(key, offset, true);
+		}
+	}
+
+	public long getNumBits() {
+		return numBits;
+	}
+
+	public int getNumHashFunctions() {
+		return numHashFunctions;
+	}
+
+}
@@ -4,10 +4,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yhxx.common.utils.jsonToolUtils.JsonUtils;
 import com.yhxx.common.utils.redisToolUtils.CachedObject;
 import com.yhxx.common.utils.redisToolUtils.util.KeyBuilder;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -19,16 +28,88 @@ import java.util.stream.Collectors;
  */
 public class RedisCache<T> extends RedisAbstractCache<T> {
 
+	/**
+	 * 过期副本中写入时间与数据的分隔符
+	 */
+	private final static String STALE_VALUE_SEPARATOR = "|";
+	
+	/**
+	 * 副本的键的分隔符，副本的键为：键#序号
+	 */
+	private final static String REPLICA_KEY_SEPARATOR = "#";
+	
+	/**
+	 * 按版本写入的脚本：已缓存的值的版本更新时拒绝写入，返回0；否则写入，返回1。
+	 * KEYS[1]为redis中的键；ARGV为值、版本、过期时间（秒，0表示不过期）
+	 */
+	private final static String COMPARE_AND_SET_SCRIPT_TEXT = 
+			"local current = redis.call('GET', KEYS[1]) "
+			+ "if current then "
+			+ "local header = string.match(current, '^~([^~]*)~') "
+			+ "local version = header and string.match(';' .. header, ';v=(%d+)') "
+			+ "if version and tonumber(version) > tonumber(ARGV[2]) then return 0 end "
+			+ "end "
+			+ "if tonumber(ARGV[3]) > 0 then redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[3]) "
+			+ "else redis.call('SET', KEYS[1], ARGV[1]) end "
+			+ "return 1";
+	
+	private final static RedisScript<Long> COMPARE_AND_SET_SCRIPT = 
+			new DefaultRedisScript<Long>(COMPARE_AND_SET_SCRIPT_TEXT, Long.class);
+	
+	private final static byte[] COMPARE_AND_SET_SCRIPT_BYTES = COMPARE_AND_SET_SCRIPT_TEXT.getBytes(StandardCharsets.UTF_8);
+	
+	/**
+	 * 使过期副本失效的脚本：将写入时间置为0，保留数据与剩余的生命周期。KEYS[1]为过期副本的键
+	 */
+	private final static byte[] INVALIDATE_STALE_SCRIPT_BYTES = (
+			"local current = redis.call('GET', KEYS[1]) "
+			+ "if not current then return 0 end "
+			+ "local index = string.find(current, '" + STALE_VALUE_SEPARATOR + "', 1, true) "
+			+ "local ttl = redis.call('PTTL', KEYS[1]) "
+			+ "if not index or ttl <= 0 then return 0 end "
+			+ "redis.call('SET', KEYS[1], '0' .. string.sub(current, index), 'PX', ttl) "
+			+ "return 1").getBytes(StandardCharsets.UTF_8);
+
 	protected ObjectMapper objectMapper = new ObjectMapper();
 	protected final Class<T> clazz;
 	private final Function<String, T> objectConverter;
 	
+	/**
+	 * 每个缓存键的副本数量，1表示不复制
+	 */
+	private int replicas = 1;
+	
+	/**
+	 * 按缓存键的正则表达式设置的副本数量，按添加的顺序匹配，优先于{@link #replicas}
+	 */
+	private final Map<Pattern, Integer> replicaPatterns = new LinkedHashMap<Pattern, Integer>();
+	
+	/**
+	 * 获取数据版本的代理，例如数据库的版本列或更新时间；设置后按版本写入，不会以旧版本覆盖新版本
+	 */
+	private ToLongFunction<T> versionMapper;
+	
+	/**
+	 * 因已缓存更新的版本而拒绝写入的次数
+	 */
+	private final LongAdder versionConflicts = new LongAdder();
+	
+	/**
+	 * 压缩数据的阈值（json的字符数），达到阈值的数据压缩后写入，0表示不压缩
+	 */
+	private int compressThreshold;
+	
 	public RedisCache(RedisCacheFactory factory,
 			String name, String keyPrefix, Class<T> clazz) {
 		super(factory, name, keyPrefix);
 		this.clazz = clazz;
 		this.objectConverter = (e) -> {
-			return JsonUtils.parse(objectMapper, e, clazz);
+			long start = startTiming();
+			try {
+				return JsonUtils.parse(objectMapper, e, clazz);
+			} finally {
+				recordSerialization(start);
+			}
 		};
 	}
 
@@ -37,7 +118,12 @@ public class RedisCache<T> extends RedisAbstractCache<T> {
 		super(factory, name, keyPrefix);
 		this.clazz = clazz;
 		this.objectConverter = (e) -> {
-			return JsonUtils.parse(objectMapper, e, JsonUtils.constructParametricType(clazz, parameterClasses));
+			long start = startTiming();
+			try {
+				return JsonUtils.parse(objectMapper, e, JsonUtils.constructParametricType(clazz, parameterClasses));
+			} finally {
+				recordSerialization(start);
+			}
 		};
 	}
 
@@ -53,27 +139,119 @@ public class RedisCache<T> extends RedisAbstractCache<T> {
 
 	@Override
 	protected void addToCache(String key, T value, int expiredSeconds) {
+		addToCache(key, value, expiredSeconds, 0);
+	}
+	
+	@Override
+	protected void addComputedToCache(String key, T value, long computeMillis) {
+		if(getEarlyExpirationBeta() > 0) {
+			addToCache(key, value, getExpiredSeconds(), computeMillis);
+		} else {
+			addToCache(key, value);
+		}
+	}
+	
+	/**
+	 * 添加数据到缓存，computeMillis大于0或开启了提前刷新，且设置了过期时间时，在值的头部保存计算耗时与逻辑过期时间；
+	 * 设置了版本代理时，在值的头部保存版本，按版本写入
+	 * 
+	 * @param key				缓存键
+	 * @param value				数据
+	 * @param expiredSeconds	过期时间（秒）
+	 * @param computeMillis		获取数据的耗时（毫秒）
+	 */
+	private void addToCache(String key, T value, int expiredSeconds, long computeMillis) {
 		if(value != null) {
 			String _key = buildKey(key);
-			String _value = JsonUtils.toJson(objectMapper, value);
+			String data = compress(toJson(value));
 			int seconds = expiredSeconds;
-			if(seconds > 0) {
+			long version = versionOf(value);
+			String _value = data;
+			boolean timed = seconds > 0 && (computeMillis > 0 || isRefreshAheadEnabled());
+			if(timed || version > 0) {
+				RedisValue redisValue = new RedisValue(data).setVersion(version);
+				if(timed) {
+					redisValue.setExpireTime(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds))
+							.setComputeMillis(computeMillis);
+				}
+				_value = redisValue.format();
+			}
+			if(version > 0) {
+				List<String> replicaKeys = buildKeys(key);
+				if(replicaKeys.size() == 1) {
+					Long result = stringRedisTemplate.execute(COMPARE_AND_SET_SCRIPT, replicaKeys, 
+							_value, String.valueOf(version), String.valueOf(Math.max(seconds, 0)));
+					if(result != null && result.longValue() == 0) {
+						versionConflicts.increment();
+					}
+				} else {
+					Map<String, String> map = new HashMap<String, String>();
+					Map<String, Long> versions = new HashMap<String, Long>();
+					for(String replicaKey : replicaKeys) {
+						map.put(replicaKey, _value);
+						versions.put(replicaKey, version);
+					}
+					compareAndSetToCache(map, versions, seconds);
+				}
+			} else if(getReplicas(key) > 1) {
+				Map<String, String> map = new HashMap<String, String>();
+				for(String replicaKey : buildKeys(key)) {
+					map.put(replicaKey, _value);
+				}
+				addReplicasToCache(map, seconds);
+			} else if(seconds > 0) {
 				valueOps.set(_key, _value, seconds, TimeUnit.SECONDS);
 			} else {
 				valueOps.set(_key, _value);
 			}
+			if(isStaleEnabled()) {
+				addStaleToCache(key, data);
+			}
+			invalidateReplica(key);
 		}
 	}
 
 	@Override
 	protected void addToCache(Map<String, T> values, int expiredSeconds) {
-		if(values != null && values.size() > 0) {
+		if(values != null && values.size() > 0 && versionMapper != null) {
+			Map<String, String> map = new HashMap<String, String>();
+			Map<String, Long> versions = new HashMap<String, Long>();
+			for(Map.Entry<String, T> item : values.entrySet()) {
+				String data = compress(toJson(item.getValue()));
+				long version = versionOf(item.getValue());
+				String _value = formatValue(data, version, expiredSeconds);
+				for(String replicaKey : buildKeys(item.getKey())) {
+					map.put(replicaKey, _value);
+					versions.put(replicaKey, version);
+				}
+				if(isStaleEnabled()) {
+					addStaleToCache(item.getKey(), data);
+				}
+			}
+			compareAndSetToCache(map, versions, expiredSeconds);
+		} else if(values != null && values.size() > 0 && isReplicated()) {
+			Map<String, String> map = new HashMap<String, String>();
+			for(Map.Entry<String, T> item : values.entrySet()) {
+				String data = compress(toJson(item.getValue()));
+				String _value = formatValue(data, 0, expiredSeconds);
+				for(String replicaKey : buildKeys(item.getKey())) {
+					map.put(replicaKey, _value);
+				}
+				if(isStaleEnabled()) {
+					addStaleToCache(item.getKey(), data);
+				}
+			}
+			addReplicasToCache(map, expiredSeconds);
+		} else if(values != null && values.size() > 0) {
 			List<String> keys = new ArrayList<String>();
 			Map<String, String> map = new HashMap<String, String>();
 			for(Map.Entry<String, T> item : values.entrySet()) {
 				keys.add(item.getKey());
-				map.put(buildKey(item.getKey()),
-						JsonUtils.toJson(objectMapper, item.getValue()));
+				String data = compress(toJson(item.getValue()));
+				map.put(buildKey(item.getKey()), formatValue(data, 0, expiredSeconds));
+				if(isStaleEnabled()) {
+					addStaleToCache(item.getKey(), data);
+				}
 			}
 			valueOps.multiSet(map);
 			int seconds = expiredSeconds;
@@ -81,19 +259,22 @@ public class RedisCache<T> extends RedisAbstractCache<T> {
 				expire(keys, seconds);
 			}
 		}
+		if(values != null && values.size() > 0) {
+			invalidateReplicas(values.keySet());
+		}
 	}
 
 	
 	@Override
-	protected CachedObject<T> getFromCache(String key) {
-		return asCachedObject(key, valueOps.get(buildKey(key)), objectConverter);
+	protected CachedObject<T> getFromRedis(String key) {
+		return asComputedObject(key, valueOps.get(buildReadKey(key)));
 	}
 	
 	@Override
-	protected List<CachedObject<T>> getFromCache(Collection<String> keys) {
+	protected List<CachedObject<T>> getFromRedis(Collection<String> keys) {
 		List<CachedObject<T>> list = new ArrayList<CachedObject<T>>();
 		if(keyMapper != null) {
-			List<String> _keys = keys.stream().map((e)->buildKey(e)).collect(Collectors.toList());
+			List<String> _keys = keys.stream().map((e)->buildReadKey(e)).collect(Collectors.toList());
 			List<String> jsonList = valueOps.multiGet(_keys);
 			if(jsonList != null && jsonList.size() > 0) {
 				/*
@@ -103,9 +284,10 @@ public class RedisCache<T> extends RedisAbstractCache<T> {
 				Set<String> keySet = new HashSet<String>();
 				for(String json : jsonList) {
 					if(json != null && !isEmptyValue(json)) {
-						T obj = objectConverter.apply(json);
+						RedisValue value = RedisValue.parse(json);
+						T obj = objectConverter.apply(decompress(value.getData()));
 						String key = keyMapper.apply(obj);
-						list.add(new CachedObject<T>(key, obj));
+						list.add(new CachedObject<T>(key, obj).asComputed(value.getComputeMillis(), value.getExpireTime()));
 						keySet.add(key);
 					}
 				}
@@ -119,13 +301,352 @@ public class RedisCache<T> extends RedisAbstractCache<T> {
 			}
 		} else {
 			for(String key : keys) {
-				list.add(getFromCache(key));
+				list.add(getFromRedis(key));
 			}
 		}
 		
 		return list;
 	}
 
+	/**
+	 * 从redis中缓存的字符串值构建缓存对象，带有头部时同时设置计算耗时与逻辑过期时间
+	 * 
+	 * @param key	缓存键
+	 * @param json	redis中缓存的字符串值
+	 * @return
+	 */
+	private CachedObject<T> asComputedObject(String key, String json) {
+		if(json == null || isEmptyValue(json)) {
+			return asCachedObject(key, json, objectConverter);
+		}
+		RedisValue value = RedisValue.parse(json);
+		return new CachedObject<T>(key, objectConverter.apply(decompress(value.getData())))
+				.asComputed(value.getComputeMillis(), value.getExpireTime());
+	}
+
+	private String toJson(T value) {
+		long start = startTiming();
+		try {
+			return JsonUtils.toJson(objectMapper, value);
+		} finally {
+			recordSerialization(start);
+		}
+	}
+	
+	/**
+	 * 将redis中缓存的字符串值（非空值）转换为数据
+	 * 
+	 * @param value	redis中缓存的字符串值
+	 * @return
+	 */
+	protected T parseValue(String value) {
+		return objectConverter.apply(decompress(RedisValue.parse(value).getData()));
+	}
+	
+	/**
+	 * 数据达到压缩阈值时压缩，压缩后没有变小时仍使用原文
+	 * 
+	 * @param json	数据的json
+	 * @return
+	 */
+	private String compress(String json) {
+		if(compressThreshold <= 0 || json == null || json.length() < compressThreshold) {
+			return json;
+		}
+		long start = startTiming();
+		byte[] raw = json.getBytes(StandardCharsets.UTF_8);
+		//压缩数据只包含ascii字符，字符数即为字节数
+		String compressed = RedisValue.compress(raw);
+		boolean smaller = compressed.length() < raw.length;
+		recordCompression(start, raw.length, smaller ? compressed.length() : raw.length);
+		return smaller ? compressed : json;
+	}
+	
+	/**
+	 * 解压数据，未压缩的数据（包括开启压缩前已缓存的数据）直接返回
+	 * 
+	 * @param data	redis中缓存的数据部分
+	 * @return 数据的json
+	 */
+	protected final String decompress(String data) {
+		if(!RedisValue.isCompressed(data)) {
+			return data;
+		}
+		long start = startTiming();
+		try {
+			return RedisValue.decompress(data);
+		} finally {
+			recordDecompression(start);
+		}
+	}
+
+	/**
+	 * 格式化批量写入的值，设置了版本时在头部保存版本；开启了提前刷新时在头部保存逻辑过期时间，命中时不必再查询生存时间
+	 * 
+	 * @param data		数据
+	 * @param version	版本，0表示无版本
+	 * @param seconds	过期时间（秒）
+	 * @return
+	 */
+	private String formatValue(String data, long version, int seconds) {
+		RedisValue redisValue = new RedisValue(data).setVersion(version);
+		if(seconds > 0 && isRefreshAheadEnabled()) {
+			redisValue.setExpireTime(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds));
+		}
+		return redisValue.format();
+	}
+	
+	/**
+	 * 以管道写入全部副本的空值，一次往返；集群上逐条执行
+	 */
+	@Override
+	protected void addEmptyToCache(Collection<String> keys, int seconds) {
+		Map<String, String> map = new HashMap<String, String>();
+		for(String key : keys) {
+			for(String replicaKey : buildKeys(key)) {
+				map.put(replicaKey, EMPTY_VALUE);
+			}
+		}
+		addReplicasToCache(map, seconds);
+		invalidateReplicas(keys);
+	}
+	
+	/**
+	 * 以管道写入全部副本，一次往返；集群上逐条执行
+	 * 
+	 * @param values	redis中的键与值
+	 * @param seconds	过期时间（秒），0表示不过期
+	 */
+	private void addReplicasToCache(Map<String, String> values, int seconds) {
+		factory.executeBatch((RedisCallback<Object>) connection -> {
+			for(Map.Entry<String, String> entry : values.entrySet()) {
+				byte[] rawKey = entry.getKey().getBytes(StandardCharsets.UTF_8);
+				byte[] rawValue = entry.getValue().getBytes(StandardCharsets.UTF_8);
+				if(seconds > 0) {
+					connection.setEx(rawKey, seconds, rawValue);
+				} else {
+					connection.set(rawKey, rawValue);
+				}
+			}
+			return null;
+		});
+	}
+	
+	/**
+	 * 以管道按版本写入，一次往返，集群上逐条执行；无版本的值直接写入
+	 * 
+	 * @param values	redis中的键与值
+	 * @param versions	redis中的键与版本
+	 * @param seconds	过期时间（秒），0表示不过期
+	 */
+	private void compareAndSetToCache(Map<String, String> values, Map<String, Long> versions, int seconds) {
+		final byte[] rawSeconds = String.valueOf(Math.max(seconds, 0)).getBytes(StandardCharsets.UTF_8);
+		List<Object> results = factory.executeBatch((RedisCallback<Object>) connection -> {
+			for(Map.Entry<String, String> entry : values.entrySet()) {
+				byte[] rawKey = entry.getKey().getBytes(StandardCharsets.UTF_8);
+				byte[] rawValue = entry.getValue().getBytes(StandardCharsets.UTF_8);
+				long version = versions.get(entry.getKey());
+				if(version > 0) {
+					connection.eval(COMPARE_AND_SET_SCRIPT_BYTES, ReturnType.INTEGER, 1, 
+							rawKey, rawValue, String.valueOf(version).getBytes(StandardCharsets.UTF_8), rawSeconds);
+				} else if(seconds > 0) {
+					connection.setEx(rawKey, seconds, rawValue);
+				} else {
+					connection.set(rawKey, rawValue);
+				}
+			}
+			return null;
+		});
+		if(results != null) {
+			for(Object result : results) {
+				if(result instanceof Long && ((Long) result).longValue() == 0) {
+					versionConflicts.increment();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * 数据的版本，未设置版本代理时为0
+	 * 
+	 * @param value
+	 * @return
+	 */
+	private long versionOf(T value) {
+		return versionMapper != null ? versionMapper.applyAsLong(value) : 0;
+	}
+
+	public ToLongFunction<T> getVersionMapper() {
+		return versionMapper;
+	}
+
+	/**
+	 * 设置获取数据版本的代理，例如数据库的版本列或更新时间（应单调递增且大于0）；应在启动前设置。
+	 * 设置后写入以lua脚本比较版本，已缓存的版本更新时拒绝写入，因此更新数据后可以直接更新缓存，
+	 * 不会被并发加载的旧数据覆盖
+	 * 
+	 * @param versionMapper
+	 */
+	public void setVersionMapper(ToLongFunction<T> versionMapper) {
+		this.versionMapper = versionMapper;
+	}
+	
+	/**
+	 * 因已缓存更新的版本而拒绝写入的次数
+	 * 
+	 * @return
+	 */
+	public long getVersionConflictCount() {
+		return versionConflicts.longValue();
+	}
+	
+	public int getCompressThreshold() {
+		return compressThreshold;
+	}
+
+	/**
+	 * 设置压缩数据的阈值（json的字符数），0表示不压缩；达到阈值的数据以Deflate压缩后Base64编码写入，
+	 * 适用于较大的数据（例如数十KB以上的json），以CPU换取redis的内存与网络带宽。
+	 * 读取时按压缩标识判断，因此开启或关闭压缩后，已缓存的数据仍可读取
+	 * 
+	 * @param compressThreshold
+	 */
+	public void setCompressThreshold(int compressThreshold) {
+		if(compressThreshold < 0) {
+			throw new IllegalArgumentException("The value should not be less than 0.");
+		}
+		this.compressThreshold = compressThreshold;
+	}
+	
+	/**
+	 * 多副本时，写入扇出到全部副本（键#0 ~ 键#N-1，分布在不同的槽），读取随机选择一个副本
+	 */
+	@Override
+	protected List<String> buildKeys(String key) {
+		int count = getReplicas(key);
+		if(count <= 1) {
+			return super.buildKeys(key);
+		}
+		String _key = buildKey(key);
+		List<String> keys = new ArrayList<String>(count);
+		for(int i = 0; i < count; i++) {
+			keys.add(_key + REPLICA_KEY_SEPARATOR + i);
+		}
+		return keys;
+	}
+	
+	@Override
+	protected String buildReadKey(String key) {
+		int count = getReplicas(key);
+		if(count <= 1) {
+			return buildKey(key);
+		}
+		return buildKey(key) + REPLICA_KEY_SEPARATOR + ThreadLocalRandom.current().nextInt(count);
+	}
+	
+	/**
+	 * 缓存键的副本数量
+	 * 
+	 * @param key	缓存键
+	 * @return
+	 */
+	public int getReplicas(String key) {
+		if(!replicaPatterns.isEmpty()) {
+			for(Map.Entry<Pattern, Integer> entry : replicaPatterns.entrySet()) {
+				if(entry.getKey().matcher(key).matches()) {
+					return entry.getValue();
+				}
+			}
+		}
+		return replicas;
+	}
+	
+	/**
+	 * 是否有缓存键设置了多副本
+	 * 
+	 * @return
+	 */
+	public boolean isReplicated() {
+		return replicas > 1 || !replicaPatterns.isEmpty();
+	}
+
+	public int getReplicas() {
+		return replicas;
+	}
+
+	/**
+	 * 设置每个缓存键的副本数量，1表示不复制；应在启动前设置，修改后已有的副本不会删除。
+	 * 多副本适用于读多且变化频繁的热点：读取分散到不同的分片，写入与删除需要处理全部副本。
+	 * 只有redis集群能分散负载，单机与哨兵下多副本只增加写入的开销；集群上写入全部副本逐条执行，不使用管道。
+	 * 
+	 * @param replicas
+	 */
+	public void setReplicas(int replicas) {
+		if(replicas < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		this.replicas = replicas;
+	}
+	
+	/**
+	 * 为匹配正则表达式的缓存键设置副本数量，按添加的顺序匹配，优先于{@link #setReplicas(int)}；应在启动前设置
+	 * 
+	 * @param regex		缓存键的正则表达式
+	 * @param replicas	副本数量
+	 */
+	public void addReplicaPattern(String regex, int replicas) {
+		if(regex == null || "".equals(regex.trim())) {
+			throw new IllegalArgumentException("The regex should not be null or empty");
+		}
+		if(replicas < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		replicaPatterns.put(Pattern.compile(regex), replicas);
+	}
+
+	/**
+	 * 写入过期副本，格式为：写入时间（毫秒）|数据
+	 * 
+	 * @param key	缓存键
+	 * @param data	数据的json，或压缩的数据
+	 */
+	private void addStaleToCache(String key, String data) {
+		if(data != null) {
+			valueOps.set(buildStaleKey(key), System.currentTimeMillis() + STALE_VALUE_SEPARATOR + data,
+					getStaleExpiredSeconds(), TimeUnit.SECONDS);
+		}
+	}
+	
+	/**
+	 * 以管道将过期副本的写入时间置为0，一次往返；集群上逐条执行
+	 */
+	@Override
+	protected void invalidateStale(Collection<String> keys) {
+		final List<byte[]> rawKeys = keys.stream().map(e -> buildStaleKey(e).getBytes(StandardCharsets.UTF_8))
+				.collect(Collectors.toList());
+		factory.executeBatch((RedisCallback<Object>) connection -> {
+			for(byte[] rawKey : rawKeys) {
+				connection.eval(INVALIDATE_STALE_SCRIPT_BYTES, ReturnType.INTEGER, 1, rawKey);
+			}
+			return null;
+		});
+	}
+	
+	@Override
+	protected StaleObject<T> getStaleFromCache(String key) {
+		String value = valueOps.get(buildStaleKey(key));
+		if(value != null) {
+			int index = value.indexOf(STALE_VALUE_SEPARATOR);
+			if(index > 0) {
+				T data = objectConverter.apply(decompress(value.substring(index + 1)));
+				if(data != null) {
+					return new StaleObject<T>(data, Long.parseLong(value.substring(0, index)));
+				}
+			}
+		}
+		return null;
+	}
+
 	@Override
 	protected void clearCache() {
 		throw new UnsupportedOperationException("redis cannot support clear cache!");
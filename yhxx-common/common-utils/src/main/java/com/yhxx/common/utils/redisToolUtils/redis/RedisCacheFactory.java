@@ -2,7 +2,16 @@ package com.yhxx.common.utils.redisToolUtils.redis;
 
 import com.yhxx.common.utils.redisToolUtils.GenericCacheFactory;
 import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Redis缓存工厂
@@ -27,6 +36,16 @@ public class RedisCacheFactory extends GenericCacheFactory {
 	 */
 	private RedissonClient redissonClient;
 	
+	/**
+	 * 缓存消息订阅的容器
+	 */
+	private RedisMessageListenerContainer listenerContainer;
+	
+	/**
+	 * 是否为集群连接，首次使用时探测
+	 */
+	private volatile Boolean cluster;
+	
 	public String getAppName() {
 		return appName;
 	}
@@ -50,5 +69,62 @@ public class RedisCacheFactory extends GenericCacheFactory {
 	public void setRedissonClient(RedissonClient redissonClient) {
 		this.redissonClient = redissonClient;
 	}
+
+	public RedisMessageListenerContainer getListenerContainer() {
+		return listenerContainer;
+	}
+
+	public void setListenerContainer(RedisMessageListenerContainer listenerContainer) {
+		this.listenerContainer = listenerContainer;
+	}
 	
+	/**
+	 * 是否为集群连接；未设置时由连接类型探测
+	 * 
+	 * @return
+	 */
+	public boolean isCluster() {
+		Boolean _cluster = cluster;
+		if(_cluster == null) {
+			_cluster = stringRedisTemplate.execute((RedisCallback<Boolean>) connection -> 
+				connection instanceof RedisClusterConnection);
+			cluster = _cluster;
+		}
+		return Boolean.TRUE.equals(_cluster);
+	}
+
+	public void setCluster(boolean cluster) {
+		this.cluster = cluster;
+	}
+	
+	/**
+	 * 批量执行redis命令：以管道执行，一次往返；集群连接不支持管道，逐条执行，每条命令按键路由到所在的节点
+	 * 
+	 * @param callback	执行命令的代理，应返回null；管道中命令的返回值为null
+	 * @return 各命令的结果，按执行的顺序
+	 */
+	public List<Object> executeBatch(RedisCallback<?> callback) {
+		if(!isCluster()) {
+			return stringRedisTemplate.executePipelined(callback);
+		}
+		return stringRedisTemplate.execute((RedisCallback<List<Object>>) connection -> {
+			List<Object> results = new ArrayList<Object>();
+			RedisConnection recorder = (RedisConnection) Proxy.newProxyInstance(RedisConnection.class.getClassLoader(), 
+					new Class<?>[] {RedisConnection.class}, (proxy, method, args) -> {
+				Object result;
+				try {
+					result = method.invoke(connection, args);
+				} catch(InvocationTargetException e) {
+					throw e.getTargetException();
+				}
+				if(method.getReturnType() != void.class) {
+					results.add(result);
+				}
+				return result;
+			});
+			callback.doInRedis(recorder);
+			return results;
+		});
+	}
+
 }
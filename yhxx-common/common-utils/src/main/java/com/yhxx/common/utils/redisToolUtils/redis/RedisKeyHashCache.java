@@ -68,6 +68,7 @@ public class RedisKeyHashCache<T> extends RedisAbstractCache<T> {
 			if(seconds > 0) {
 				stringRedisTemplate.expire(_key, seconds, TimeUnit.SECONDS);
 			}
+			invalidateReplica(key);
 		}
 	}
 
@@ -79,16 +80,16 @@ public class RedisKeyHashCache<T> extends RedisAbstractCache<T> {
 	}
 
 	@Override
-	protected CachedObject<T> getFromCache(String key) {
+	protected CachedObject<T> getFromRedis(String key) {
 		String _key = buildKey(key);
 		return asCachedObject(key, hashOps.get(_key, key), objectConverter);
 	}
 
 	@Override
-	protected List<CachedObject<T>> getFromCache(Collection<String> keys) {
+	protected List<CachedObject<T>> getFromRedis(Collection<String> keys) {
 		List<CachedObject<T>> list = new ArrayList<CachedObject<T>>();
 		for(String key : keys) {
-			list.add(getFromCache(key));
+			list.add(getFromRedis(key));
 		}
 		return list;
 	}
@@ -102,6 +103,7 @@ public class RedisKeyHashCache<T> extends RedisAbstractCache<T> {
 	protected void addEmptyToCache(String key) {
 		String _key = buildKey(key);
 		hashOps.put(_key, key, EMPTY_VALUE);
+		invalidateReplica(key);
 	}
 	
 	protected final String buildKey(String key) {
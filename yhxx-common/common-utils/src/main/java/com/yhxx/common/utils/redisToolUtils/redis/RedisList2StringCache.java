@@ -21,14 +21,14 @@ public class RedisList2StringCache<T> extends RedisCache<T> {
 	
 	@SuppressWarnings("unchecked")
 	@Override
-	protected CachedObject<T> getFromCache(String key) {
-		String _key = buildKey(key);
+	protected CachedObject<T> getFromRedis(String key) {
+		String _key = buildReadKey(key);
 		String value = valueOps.get(_key);
 		if(value != null && !"".equals(value.trim())) {
 			if(isEmptyValue(value)) {
 				return new CachedObject<T>(key).asEmpty();
 			} else {
-				Object[] array = JsonUtils.parseArrayByElementClass(objectMapper, value, listElementClazz);
+				Object[] array = JsonUtils.parseArrayByElementClass(objectMapper, decompress(RedisValue.parse(value).getData()), listElementClazz);
 				T cacheObj = (T) Arrays.asList(array);
 				return new CachedObject<T>(key, cacheObj);
 			}
@@ -55,6 +55,7 @@ public class RedisListCache<T> extends RedisAbstractCache<List<T>> implements Li
 			if(seconds > 0) {
 				stringRedisTemplate.expire(_key, seconds, TimeUnit.SECONDS);
 			}
+			invalidateReplica(key);
 		}
 
 	}
@@ -69,7 +70,7 @@ public class RedisListCache<T> extends RedisAbstractCache<List<T>> implements Li
 
 
 	@Override
-	protected CachedObject<List<T>> getFromCache(String key) {
+	protected CachedObject<List<T>> getFromRedis(String key) {
 		String _key = buildKey(key);
 		String result = listOps.rightPop(_key);
 		return asCachedObject(key,recoverValue(result),null);
@@ -81,10 +82,10 @@ public class RedisListCache<T> extends RedisAbstractCache<List<T>> implements Li
 	}
 
 	@Override
-	protected List<CachedObject<List<T>>> getFromCache(Collection<String> keys) {
+	protected List<CachedObject<List<T>>> getFromRedis(Collection<String> keys) {
 		List<CachedObject<List<T>>> list = new ArrayList<>();
 		for (String key:keys) {
-			list.add(getFromCache(key));
+			list.add(getFromRedis(key));
 		}
 		return list;
 	}
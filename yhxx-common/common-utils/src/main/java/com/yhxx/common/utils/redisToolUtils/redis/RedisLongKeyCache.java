@@ -0,0 +1,151 @@
+package com.yhxx.common.utils.redisToolUtils.redis;
+
+import com.yhxx.common.utils.redisToolUtils.LongKeyCache;
+import com.yhxx.common.utils.redisToolUtils.util.KeyBuilder;
+import org.springframework.data.redis.core.RedisCallback;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongFunction;
+
+/**
+ * 以long为缓存键的基于Redis的String数据结构实现的缓存；缓存键的前缀预先构建，
+ * 按long直接写入redis的键的字节，不经过字符串缓存键的构建和序列化。
+ * 
+ * @author zsp
+ *
+ * @param <T>
+ */
+public class RedisLongKeyCache<T> extends RedisCache<T> implements LongKeyCache<T> {
+
+	/**
+	 * 缓存键的前缀，格式为:appName:keyPrefix:
+	 */
+	private final String rawKeyPrefix;
+	
+	private final byte[] rawKeyPrefixBytes;
+	
+	public RedisLongKeyCache(RedisCacheFactory factory,
+			String name, String keyPrefix, Class<T> clazz) {
+		super(factory, name, keyPrefix, clazz);
+		String prefix = keyPrefix == null ? name : keyPrefix;
+		this.rawKeyPrefix = new KeyBuilder().build(factory.getAppName(), prefix, "").toString();
+		this.rawKeyPrefixBytes = rawKeyPrefix.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	public RedisLongKeyCache(RedisCacheFactory factory,
+			String name, String keyPrefix, Class<T> clazz, Class... parameterClasses) {
+		super(factory, name, keyPrefix, clazz, parameterClasses);
+		String prefix = keyPrefix == null ? name : keyPrefix;
+		this.rawKeyPrefix = new KeyBuilder().build(factory.getAppName(), prefix, "").toString();
+		this.rawKeyPrefixBytes = rawKeyPrefix.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	@Override
+	public void add(long key, T value) {
+		add(String.valueOf(key), value);
+	}
+
+	@Override
+	public void add(long key, T value, int expiredSeconds) {
+		add(String.valueOf(key), value, expiredSeconds);
+	}
+
+	@Override
+	public void remove(long key) {
+		remove(String.valueOf(key));
+	}
+
+	/**
+	 * 多副本或开启了热点探测时按字符串缓存键的流程处理
+	 */
+	@Override
+	public T get(long key) {
+		if (isReplicated() || isHotKeyDetected()) {
+			return get(String.valueOf(key));
+		}
+		if (isStarted()) {
+			final byte[] rawKey = rawKey(key);
+			byte[] value = stringRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(rawKey));
+			if (value == null) {
+				incrMiss();
+				return null;
+			}
+			return hit(key, rawKey, new String(value, StandardCharsets.UTF_8));
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * 命中时直接返回；未命中，或开启了提前刷新、按概率提前过期、多副本、热点探测时，按字符串缓存键的流程处理
+	 */
+	@Override
+	public T getAndFetch(long key, LongFunction<T> fetcher) {
+		if (fetcher == null) {
+			throw new IllegalArgumentException("fetcher");
+		}
+		if (isStarted() && !isReplicated() && !isHotKeyDetected()
+				&& !isRefreshAheadEnabled() && getEarlyExpirationBeta() <= 0) {
+			final byte[] rawKey = rawKey(key);
+			byte[] value = stringRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(rawKey));
+			if (value != null) {
+				return hit(key, rawKey, new String(value, StandardCharsets.UTF_8));
+			}
+		}
+		return getAndFetch(String.valueOf(key), e -> fetcher.apply(key));
+	}
+	
+	private T hit(long key, final byte[] rawKey, String value) {
+		if (isEmptyValue(value)) {
+			incrEmptyHit();
+			return null;
+		}
+		T data = parseValue(value);
+		if (getTouchFlushMillis() > 0 || getTtlPolicy() != null) {
+			//合并延长，或按策略的失效时间延长缓存的生命周期
+			handleHit(String.valueOf(key));
+			return data;
+		}
+		incrHit();
+		final int expiredSeconds = getExpiredSeconds();
+		if (expiredSeconds > 0 && !isRefreshAheadEnabled()) {
+			//延长缓存的生命周期
+			stringRedisTemplate.execute((RedisCallback<Boolean>) connection -> connection.expire(rawKey, expiredSeconds));
+		}
+		return data;
+	}
+
+	@Override
+	protected String buildKey(String key) {
+		return rawKeyPrefix + key;
+	}
+	
+	/**
+	 * 按long直接构建redis的键的字节：前缀 + 十进制数字
+	 * 
+	 * @param key
+	 * @return
+	 */
+	private byte[] rawKey(long key) {
+		final byte[] prefix = rawKeyPrefixBytes;
+		boolean negative = key < 0;
+		int digits = 1;
+		for(long i = negative ? key : -key; i <= -10; i /= 10) {
+			digits++;
+		}
+		int length = prefix.length + digits + (negative ? 1 : 0);
+		byte[] rawKey = new byte[length];
+		System.arraycopy(prefix, 0, rawKey, 0, prefix.length);
+		if (negative) {
+			rawKey[prefix.length] = '-';
+		}
+		//以负数计算，兼容Long.MIN_VALUE
+		long value = negative ? key : -key;
+		for(int i = length - 1; i >= length - digits; i--) {
+			rawKey[i] = (byte) ('0' - (value % 10));
+			value /= 10;
+		}
+		return rawKey;
+	}
+
+}
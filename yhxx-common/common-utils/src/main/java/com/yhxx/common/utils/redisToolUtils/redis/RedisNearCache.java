@@ -0,0 +1,711 @@
+package com.yhxx.common.utils.redisToolUtils.redis;
+
+
+import com.yhxx.common.utils.redisToolUtils.AbstractDelayEvictionCache;
+import com.yhxx.common.utils.redisToolUtils.CachedObject;
+import com.yhxx.common.utils.redisToolUtils.injvm.InjvmBoundedCache;
+import com.yhxx.common.utils.redisToolUtils.util.KeyBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 二级缓存：在redis缓存（二级）之前增加一个有界的jvm本地缓存（一级，{@link InjvmBoundedCache}，按W-TinyLFU淘汰）；
+ * 
+ * 一级缓存未命中时访问二级缓存，加载数据由二级缓存完成（包括分布式锁等）；
+ * 写入、删除缓存时，通过redis的发布订阅批量通知其它节点淘汰各自的一级缓存。
+ * 一级缓存设置较短的失效时间，以兜底通知丢失的情况。
+ * 
+ * @author zsp
+ *
+ * @param <T>
+ */
+public class RedisNearCache<T> extends AbstractDelayEvictionCache<T> implements MessageListener {
+	
+	private static final Logger logger = LoggerFactory.getLogger(RedisNearCache.class);
+	
+	/**
+	 * 清空一级缓存的通知
+	 */
+	private final static String COMMAND_CLEAR = "$clear";
+	
+	/**
+	 * 通知消息中各部分的分隔符
+	 */
+	private final static String MESSAGE_SEPARATOR = "\n";
+	
+	/**
+	 * 一条通知消息最多包含的缓存键的数量
+	 */
+	private final static int MAX_KEYS_PER_MESSAGE = 512;
+	
+	/**
+	 * 一级缓存失效戳的分段数量
+	 */
+	private final static int STAMP_STRIPES = 1 << 10;
+	
+	/**
+	 * 二级缓存
+	 */
+	private final RedisAbstractCache<T> remoteCache;
+	
+	/**
+	 * 一级缓存，启动时按最大数量创建
+	 */
+	private volatile InjvmBoundedCache<LocalValue> localCache;
+	
+	/**
+	 * 按缓存键分段的一级缓存失效戳，写入或淘汰一级缓存时递增；
+	 * 从二级缓存读取的数据只在读取期间失效戳未改变时写入一级缓存，防止覆盖读取期间收到的淘汰
+	 */
+	private final AtomicLongArray localStamps = new AtomicLongArray(STAMP_STRIPES);
+	
+	private final RedisCacheFactory factory;
+	
+	/**
+	 * 当前节点的标识，用于忽略自己发出的通知
+	 */
+	private final String nodeId = UUID.randomUUID().toString();
+	
+	/**
+	 * 淘汰一级缓存的通知频道
+	 */
+	private final String channel;
+	
+	private final StringRedisTemplate stringRedisTemplate;
+	
+	private final RedisMessageListenerContainer listenerContainer;
+	
+	/**
+	 * 待发送的淘汰一级缓存的通知
+	 */
+	private final Queue<String> pendingInvalidations = new ConcurrentLinkedQueue<String>();
+	
+	private ScheduledExecutorService invalidationPublisher;
+	
+	/**
+	 * 一级缓存的最大数量
+	 */
+	private int maxLocalSize = 10000;
+	
+	/**
+	 * 一级缓存的失效时间（秒）
+	 */
+	private int localExpiredSeconds = 60;
+	
+	/**
+	 * 批量发送淘汰通知的间隔（毫秒）
+	 */
+	private long invalidationFlushMillis = 10;
+	
+	private final LongAdder hits = new LongAdder();
+	
+	private final LongAdder emptyHits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+	
+	private final LongAdder localHits = new LongAdder();
+	
+	private final LongAdder localMisses = new LongAdder();
+	
+	/**
+	 * 从缓存数据获取键值的代理
+	 */
+	protected Function<T, String> keyMapper;
+	
+	public RedisNearCache(RedisCacheFactory factory,
+			String name,
+			RedisAbstractCache<T> remoteCache) {
+		super(name, factory);
+		if(remoteCache == null) {
+			throw new IllegalArgumentException("remoteCache");
+		}
+		this.remoteCache = remoteCache;
+		this.factory = factory;
+		this.stringRedisTemplate = factory.getStringRedisTemplate();
+		this.listenerContainer = factory.getListenerContainer();
+		this.channel = new KeyBuilder().build(factory.getAppName(), 
+				"cache", name, "invalidation").toString();
+		if(factory.getAsyncThreadFactory() != null) {
+			setAsyncExecutor(factory.getAsyncThreadFactory());
+		}
+	}
+	
+	/**
+	 * 二级缓存的访问阻塞当前线程，异步访问在专用的有界线程池中执行
+	 */
+	@Override
+	protected boolean isBlockingAccess() {
+		return true;
+	}
+	
+	@Override
+	protected void doStart() {
+		super.doStart();
+		InjvmBoundedCache<LocalValue> _localCache = new InjvmBoundedCache<LocalValue>(factory, name + "-local", maxLocalSize);
+		_localCache.start();
+		localCache = _localCache;
+		remoteCache.start();
+		if(listenerContainer != null) {
+			listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+		} else {
+			logger.warn(MessageFormat.format("{0} has no listener container, the local cache of other nodes will not be invalidated.", name));
+		}
+		invalidationPublisher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "cache-near-invalidation");
+			thread.setDaemon(true);
+			return thread;
+		});
+		invalidationPublisher.scheduleWithFixedDelay(this::publishInvalidations, 
+				invalidationFlushMillis, invalidationFlushMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	@Override
+	protected void doStop() {
+		if(invalidationPublisher != null) {
+			invalidationPublisher.shutdown();
+			invalidationPublisher = null;
+		}
+		publishInvalidations();
+		if(listenerContainer != null) {
+			listenerContainer.removeMessageListener(this, new ChannelTopic(channel));
+		}
+		remoteCache.stop();
+		InjvmBoundedCache<LocalValue> _localCache = localCache;
+		if(_localCache != null) {
+			_localCache.stop();
+		}
+		super.doStop();
+	}
+	
+	/**
+	 * 设置从缓存数据获取键值的代理
+	 * 
+	 * @param keyMapper
+	 */
+	@Override
+	public void setKeyMapper(Function<T, String> keyMapper) {
+		this.keyMapper = keyMapper;
+		remoteCache.setKeyMapper(keyMapper);
+	}
+
+	@Override
+	protected void addToCache(String key, T value) {
+		remoteCache.add(key, value);
+		writeLocal(key, value);
+		invalidate(key);
+	}
+
+	@Override
+	protected void addToCache(Map<String, T> values) {
+		remoteCache.add(values);
+		for(Map.Entry<String, T> entry : values.entrySet()) {
+			writeLocal(entry.getKey(), entry.getValue());
+			invalidate(entry.getKey());
+		}
+	}
+
+	@Override
+	protected void addToCache(String key, T value, int expiredSeconds) {
+		remoteCache.add(key, value, expiredSeconds);
+		writeLocal(key, value);
+		invalidate(key);
+	}
+
+	@Override
+	protected void addToCache(Map<String, T> values, int expiredSeconds) {
+		remoteCache.add(values, expiredSeconds);
+		for(Map.Entry<String, T> entry : values.entrySet()) {
+			writeLocal(entry.getKey(), entry.getValue());
+			invalidate(entry.getKey());
+		}
+	}
+
+	/**
+	 * 空值只写入一级缓存，二级缓存的空值由二级缓存加载时自行处理
+	 */
+	@Override
+	protected void addEmptyToCache(String key) {
+		putLocal(key, EMPTY_VALUE);
+	}
+	
+	/**
+	 * 空值按指定的时间写入一级缓存，不超过一级缓存的失效时间
+	 */
+	@Override
+	protected void addEmptyToCache(Collection<String> keys, int seconds) {
+		for(String key : keys) {
+			putLocal(key, EMPTY_VALUE, Math.min(seconds, localExpiredSeconds));
+		}
+	}
+
+	@Override
+	protected <V> boolean isEmptyValue(V value) {
+		return EMPTY_VALUE.equals(value);
+	}
+
+	@Override
+	protected CachedObject<T> getFromCache(String key) {
+		Object value = getLocal(key);
+		if(value != null) {
+			return asCachedObject(key, value, null);
+		}
+		long stamp = localStampOf(key);
+		T data = remoteCache.get(key);
+		if(data != null) {
+			putRemoteLocal(key, data, localExpiredSeconds, stamp);
+		}
+		return asCachedObject(key, data, null);
+	}
+
+	@Override
+	protected List<CachedObject<T>> getFromCache(Collection<String> keys) {
+		List<CachedObject<T>> list = new ArrayList<CachedObject<T>>();
+		List<String> remoteKeys = new ArrayList<String>();
+		for(String key : keys) {
+			Object value = getLocal(key);
+			if(value != null) {
+				list.add(asCachedObject(key, value, null));
+			} else {
+				remoteKeys.add(key);
+			}
+		}
+		if(remoteKeys.size() > 0) {
+			if(keyMapper != null) {
+				//通过缓存键的映射代理，一次从二级缓存获取
+				Set<String> uncachedKeySet = new HashSet<String>(remoteKeys);
+				Map<String, Long> stamps = new HashMap<String, Long>();
+				for(String key : remoteKeys) {
+					stamps.put(key, localStampOf(key));
+				}
+				for(T data : remoteCache.get(remoteKeys)) {
+					String key = keyMapper.apply(data);
+					Long stamp = stamps.get(key);
+					if(stamp != null) {
+						putRemoteLocal(key, data, localExpiredSeconds, stamp);
+					}
+					list.add(new CachedObject<T>(key, data));
+					uncachedKeySet.remove(key);
+				}
+				for(String key : uncachedKeySet) {
+					list.add(new CachedObject<T>(key));
+				}
+			} else {
+				for(String key : remoteKeys) {
+					long stamp = localStampOf(key);
+					T data = remoteCache.get(key);
+					if(data != null) {
+						putRemoteLocal(key, data, localExpiredSeconds, stamp);
+					}
+					list.add(asCachedObject(key, data, null));
+				}
+			}
+		}
+		return list;
+	}
+	
+	/**
+	 * 由二级缓存加载数据（包括分布式锁等），加载结果写入一级缓存
+	 */
+	@Override
+	protected CachedObject<T> loadObject(String key, Function<String, T> fetcher) {
+		long stamp = localStampOf(key);
+		return cacheLoaded(key, remoteCache.getAndFetch(key, fetcher), stamp);
+	}
+	
+	/**
+	 * 由二级缓存异步加载数据，与{@link #loadObject}一致
+	 */
+	@Override
+	protected CompletableFuture<CachedObject<T>> loadObjectAsync(String key,
+			Function<String, CompletableFuture<T>> fetcher,
+			Executor executor) {
+		long stamp = localStampOf(key);
+		return remoteCache.getAndFetchAsync(key, fetcher, executor).thenApply(data -> cacheLoaded(key, data, stamp));
+	}
+	
+	/**
+	 * 将二级缓存加载的数据写入一级缓存
+	 * 
+	 * @param key	缓存键
+	 * @param data	二级缓存加载的数据，null表示数据不存在
+	 * @param stamp	加载之前获取的一级缓存失效戳
+	 * @return
+	 */
+	private CachedObject<T> cacheLoaded(String key, T data, long stamp) {
+		if(data != null) {
+			putRemoteLocal(key, data, localExpiredSeconds, stamp);
+			return new CachedObject<T>(key, data);
+		} else if(isEnableBreakdownPrevent()) {
+			putRemoteLocal(key, EMPTY_VALUE, Math.min(getBreakdownPreventExpiredSeconds(), localExpiredSeconds), stamp);
+			return new CachedObject<T>(key).asEmpty();
+		} else {
+			return new CachedObject<T>(key);
+		}
+	}
+
+	/**
+	 * 一级缓存不延长生命周期，到期后从二级缓存重新读取；
+	 * 命中一级缓存时，二级缓存的生命周期在一级缓存的每个生命周期内最多延长一次
+	 */
+	@Override
+	protected void expire(String key, int seconds) {
+		if(shouldExtendRemote(key)) {
+			remoteCache.expire(key, seconds);
+		}
+	}
+
+	@Override
+	protected void expire(Collection<String> keys, int seconds) {
+		List<String> remoteKeys = new ArrayList<String>();
+		for(String key : keys) {
+			if(shouldExtendRemote(key)) {
+				remoteKeys.add(key);
+			}
+		}
+		if(remoteKeys.size() > 0) {
+			remoteCache.expire(remoteKeys, seconds);
+		}
+	}
+	
+	/**
+	 * 一级缓存中存在且本次生命周期内尚未延长过二级缓存时返回true，并标记为已延长
+	 * 
+	 * @param key
+	 * @return
+	 */
+	private boolean shouldExtendRemote(String key) {
+		InjvmBoundedCache<LocalValue> _localCache = localCache;
+		LocalValue local = _localCache != null ? _localCache.peek(key) : null;
+		return local != null && local.remoteExtended.compareAndSet(false, true);
+	}
+
+	@Override
+	public long ttl(String key) {
+		return remoteCache.ttl(key);
+	}
+
+	@Override
+	protected void removeFromCache(String key) {
+		remoteCache.remove(key);
+		removeLocal(key);
+		invalidate(key);
+	}
+
+	@Override
+	protected void removeFromCache(Collection<String> keys) {
+		remoteCache.remove(keys);
+		for(String key : keys) {
+			removeLocal(key);
+			invalidate(key);
+		}
+	}
+
+	@Override
+	protected void clearCache() {
+		remoteCache.clear();
+		clearLocal();
+		invalidate(COMMAND_CLEAR);
+	}
+	
+	@Override
+	protected int sizeOfCache() {
+		InjvmBoundedCache<LocalValue> _localCache = localCache;
+		return _localCache != null ? _localCache.size() : 0;
+	}
+	
+	/**
+	 * 接收其它节点的淘汰通知，淘汰一级缓存
+	 */
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		String body = new String(message.getBody(), StandardCharsets.UTF_8);
+		String[] parts = body.split(MESSAGE_SEPARATOR);
+		if(parts.length < 2 || nodeId.equals(parts[0])) {
+			return;
+		}
+		for(int i = 1; i < parts.length; i++) {
+			if(COMMAND_CLEAR.equals(parts[i])) {
+				clearLocal();
+			} else {
+				removeLocal(parts[i]);
+			}
+		}
+	}
+	
+	private Object getLocal(String key) {
+		InjvmBoundedCache<LocalValue> _localCache = localCache;
+		LocalValue local = _localCache != null ? _localCache.get(key) : null;
+		if(local != null) {
+			localHits.increment();
+			return local.value;
+		}
+		localMisses.increment();
+		return null;
+	}
+	
+	/**
+	 * 写入一级缓存，按一级缓存的失效时间过期；已满时由一级缓存按访问频率淘汰
+	 * 
+	 * @param key
+	 * @param value	数据或空值
+	 */
+	private void putLocal(String key, Object value) {
+		putLocal(key, value, localExpiredSeconds);
+	}
+	
+	private void putLocal(String key, Object value, int seconds) {
+		InjvmBoundedCache<LocalValue> _localCache = localCache;
+		if(_localCache != null) {
+			_localCache.add(key, new LocalValue(value), seconds);
+		}
+	}
+	
+	/**
+	 * 写入当前节点写入二级缓存的数据，递增失效戳，使写入之前开始的二级缓存读取不再写入一级缓存
+	 * 
+	 * @param key
+	 * @param value
+	 */
+	private void writeLocal(String key, Object value) {
+		localStamps.incrementAndGet(stampIndexOf(key));
+		putLocal(key, value);
+	}
+	
+	/**
+	 * 写入从二级缓存读取的数据：读取期间一级缓存被写入或淘汰（失效戳已改变）时不写入，写入期间被淘汰时删除刚写入的数据
+	 * 
+	 * @param key
+	 * @param value		数据或空值
+	 * @param seconds	失效时间（秒）
+	 * @param stamp		读取之前获取的失效戳
+	 */
+	private void putRemoteLocal(String key, Object value, int seconds, long stamp) {
+		int index = stampIndexOf(key);
+		if(localStamps.get(index) != stamp) {
+			return;
+		}
+		putLocal(key, value, seconds);
+		if(localStamps.get(index) != stamp) {
+			InjvmBoundedCache<LocalValue> _localCache = localCache;
+			if(_localCache != null) {
+				_localCache.remove(key);
+			}
+		}
+	}
+	
+	private void removeLocal(String key) {
+		localStamps.incrementAndGet(stampIndexOf(key));
+		InjvmBoundedCache<LocalValue> _localCache = localCache;
+		if(_localCache != null) {
+			_localCache.remove(key);
+		}
+	}
+	
+	private void clearLocal() {
+		for(int i = 0; i < STAMP_STRIPES; i++) {
+			localStamps.incrementAndGet(i);
+		}
+		InjvmBoundedCache<LocalValue> _localCache = localCache;
+		if(_localCache != null) {
+			_localCache.clear();
+		}
+	}
+	
+	/**
+	 * 获取缓存键当前的一级缓存失效戳，应在从二级缓存读取之前获取
+	 * 
+	 * @param key
+	 * @return
+	 */
+	private long localStampOf(String key) {
+		return localStamps.get(stampIndexOf(key));
+	}
+	
+	private int stampIndexOf(String key) {
+		int h = key.hashCode();
+		return (h ^ (h >>> 16)) & (STAMP_STRIPES - 1);
+	}
+	
+	/**
+	 * 登记淘汰通知，由后台线程批量发送
+	 * 
+	 * @param key
+	 */
+	private void invalidate(String key) {
+		if(listenerContainer != null) {
+			pendingInvalidations.offer(key);
+		}
+	}
+	
+	private void publishInvalidations() {
+		try {
+			while(!pendingInvalidations.isEmpty()) {
+				StringBuilder builder = new StringBuilder(nodeId);
+				int count = 0;
+				String key;
+				while(count < MAX_KEYS_PER_MESSAGE && (key = pendingInvalidations.poll()) != null) {
+					builder.append(MESSAGE_SEPARATOR).append(key);
+					count++;
+				}
+				if(count > 0) {
+					stringRedisTemplate.convertAndSend(channel, builder.toString());
+				}
+			}
+		} catch(Throwable t) {
+			logger.error(MessageFormat.format("Exception occured when {0} publish invalidations.", name), t);
+		}
+	}
+
+	@Override
+	protected void hit() {
+		hits.increment();
+	}
+
+	@Override
+	protected void emptyHit() {
+		emptyHits.increment();
+	}
+
+	@Override
+	protected void miss() {
+		misses.increment();
+	}
+
+	@Override
+	public long getHits() {
+		return hits.longValue();
+	}
+
+	@Override
+	public long getEmptyHits() {
+		return emptyHits.longValue();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.longValue();
+	}
+	
+	/**
+	 * 获取一级缓存命中次数
+	 * 
+	 * @return
+	 */
+	public long getLocalHits() {
+		return localHits.longValue();
+	}
+	
+	/**
+	 * 获取一级缓存未命中次数
+	 * 
+	 * @return
+	 */
+	public long getLocalMisses() {
+		return localMisses.longValue();
+	}
+	
+	/**
+	 * 获取二级缓存命中次数（需要二级缓存开启统计）
+	 * 
+	 * @return
+	 */
+	public long getRemoteHits() {
+		return remoteCache.getHits();
+	}
+	
+	/**
+	 * 获取二级缓存未命中次数（需要二级缓存开启统计）
+	 * 
+	 * @return
+	 */
+	public long getRemoteMisses() {
+		return remoteCache.getMisses();
+	}
+	
+	public RedisAbstractCache<T> getRemoteCache() {
+		return remoteCache;
+	}
+
+	@Override
+	public String getType() {
+		return "near";
+	}
+
+	public int getMaxLocalSize() {
+		return maxLocalSize;
+	}
+
+	/**
+	 * 设置一级缓存的最大数量，应在启动前设置
+	 * 
+	 * @param maxLocalSize
+	 */
+	public void setMaxLocalSize(int maxLocalSize) {
+		if(maxLocalSize < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		this.maxLocalSize = maxLocalSize;
+	}
+
+	public int getLocalExpiredSeconds() {
+		return localExpiredSeconds;
+	}
+
+	public void setLocalExpiredSeconds(int localExpiredSeconds) {
+		if(localExpiredSeconds < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		this.localExpiredSeconds = localExpiredSeconds;
+	}
+
+	public long getInvalidationFlushMillis() {
+		return invalidationFlushMillis;
+	}
+
+	public void setInvalidationFlushMillis(long invalidationFlushMillis) {
+		if(invalidationFlushMillis < 1) {
+			throw new IllegalArgumentException("The value should be larger than 0.");
+		}
+		this.invalidationFlushMillis = invalidationFlushMillis;
+	}
+	
+	/**
+	 * 一级缓存中的数据
+	 */
+	private final static class LocalValue {
+		
+		/**
+		 * 数据或空值；一级缓存的get不返回{@link #EMPTY_VALUE}，因此包装后写入
+		 */
+		private final Object value;
+		
+		/**
+		 * 本次生命周期内是否已延长二级缓存的生命周期
+		 */
+		private final AtomicBoolean remoteExtended = new AtomicBoolean();
+		
+		private LocalValue(Object value) {
+			this.value = value;
+		}
+	}
+	
+}
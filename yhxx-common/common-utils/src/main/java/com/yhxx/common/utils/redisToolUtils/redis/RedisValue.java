@@ -0,0 +1,232 @@
+package com.yhxx.common.utils.redisToolUtils.redis;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * redis中缓存的字符串值，可带有描述缓存项的头部，格式为：~x=过期时间;d=计算耗时;v=版本~数据；
+ * 不带头部的值即为数据本身（兼容已缓存的数据）。
+ * 数据可以是压缩的，格式为：压缩标识 + Base64编码的Deflate压缩数据；不带压缩标识的数据即为原文。
+ *
+ * @author zsp
+ *
+ */
+final class RedisValue {
+
+	/**
+	 * 头部的标识，不会出现在json数据的开头
+	 */
+	final static char HEADER_MARK = '~';
+
+	/**
+	 * 压缩数据的标识，不会出现在json数据的开头，也不会出现在Base64编码中
+	 */
+	final static char COMPRESSED_MARK = '\u0001';
+
+	private final static ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+
+	private final static ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+	private final static char FIELD_SEPARATOR = ';';
+
+	private final static char VALUE_SEPARATOR = '=';
+
+	private final static String FIELD_EXPIRE_TIME = "x";
+
+	private final static String FIELD_COMPUTE_MILLIS = "d";
+
+	private final static String FIELD_VERSION = "v";
+
+	/**
+	 * 数据
+	 */
+	private final String data;
+
+	/**
+	 * 缓存的逻辑过期时间（毫秒），0表示未知
+	 */
+	private long expireTime;
+
+	/**
+	 * 最近一次计算数据的耗时（毫秒），0表示未知
+	 */
+	private long computeMillis;
+
+	/**
+	 * 数据的版本，0表示无版本
+	 */
+	private long version;
+
+	RedisValue(String data) {
+		this.data = data;
+	}
+
+	/**
+	 * 解析redis中缓存的字符串值
+	 *
+	 * @param value	redis中缓存的字符串值
+	 * @return	value为null时返回null
+	 */
+	static RedisValue parse(String value) {
+		if(value == null) {
+			return null;
+		}
+		if(value.length() == 0 || value.charAt(0) != HEADER_MARK) {
+			return new RedisValue(value);
+		}
+		int end = value.indexOf(HEADER_MARK, 1);
+		if(end < 0) {
+			return new RedisValue(value);
+		}
+		RedisValue redisValue = new RedisValue(value.substring(end + 1));
+		int start = 1;
+		while(start < end) {
+			int fieldEnd = value.indexOf(FIELD_SEPARATOR, start);
+			if(fieldEnd < 0 || fieldEnd > end) {
+				fieldEnd = end;
+			}
+			int separator = value.indexOf(VALUE_SEPARATOR, start);
+			if(separator > start && separator < fieldEnd) {
+				redisValue.setField(value.substring(start, separator), value.substring(separator + 1, fieldEnd));
+			}
+			start = fieldEnd + 1;
+		}
+		return redisValue;
+	}
+
+	/**
+	 * 格式化为redis中缓存的字符串值，没有头部信息时即为数据本身
+	 *
+	 * @return
+	 */
+	String format() {
+		if(expireTime <= 0 && computeMillis <= 0 && version <= 0) {
+			return data;
+		}
+		StringBuilder builder = new StringBuilder(data.length() + 40);
+		builder.append(HEADER_MARK);
+		appendField(builder, FIELD_EXPIRE_TIME, expireTime);
+		appendField(builder, FIELD_COMPUTE_MILLIS, computeMillis);
+		appendField(builder, FIELD_VERSION, version);
+		builder.setLength(builder.length() - 1);
+		builder.append(HEADER_MARK).append(data);
+		return builder.toString();
+	}
+
+	private void appendField(StringBuilder builder, String field, long value) {
+		if(value > 0) {
+			builder.append(field).append(VALUE_SEPARATOR).append(value).append(FIELD_SEPARATOR);
+		}
+	}
+
+	private void setField(String field, String value) {
+		try {
+			if(FIELD_EXPIRE_TIME.equals(field)) {
+				expireTime = Long.parseLong(value);
+			} else if(FIELD_COMPUTE_MILLIS.equals(field)) {
+				computeMillis = Long.parseLong(value);
+			} else if(FIELD_VERSION.equals(field)) {
+				version = Long.parseLong(value);
+			}
+		} catch(NumberFormatException e) {
+			//忽略无法识别的头部
+		}
+	}
+
+	/**
+	 * 压缩数据
+	 *
+	 * @param raw	数据原文的utf-8编码
+	 * @return	带压缩标识的压缩数据
+	 */
+	static String compress(byte[] raw) {
+		Deflater deflater = DEFLATERS.get();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(raw.length / 4, 64));
+		byte[] buffer = new byte[8192];
+		try {
+			deflater.setInput(raw);
+			deflater.finish();
+			while(!deflater.finished()) {
+				int count = deflater.deflate(buffer);
+				out.write(buffer, 0, count);
+			}
+		} finally {
+			deflater.reset();
+		}
+		return COMPRESSED_MARK + Base64.getEncoder().encodeToString(out.toByteArray());
+	}
+
+	/**
+	 * 是否为压缩数据
+	 *
+	 * @param data
+	 * @return
+	 */
+	static boolean isCompressed(String data) {
+		return data != null && data.length() > 0 && data.charAt(0) == COMPRESSED_MARK;
+	}
+
+	/**
+	 * 解压数据
+	 *
+	 * @param data	带压缩标识的压缩数据
+	 * @return	数据原文
+	 */
+	static String decompress(String data) {
+		byte[] compressed = Base64.getDecoder().decode(data.substring(1));
+		Inflater inflater = INFLATERS.get();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+		byte[] buffer = new byte[8192];
+		try {
+			inflater.setInput(compressed);
+			while(!inflater.finished()) {
+				int count = inflater.inflate(buffer);
+				if(count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IllegalStateException("The compressed data is truncated.");
+				}
+				out.write(buffer, 0, count);
+			}
+		} catch(DataFormatException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			inflater.reset();
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	String getData() {
+		return data;
+	}
+
+	long getExpireTime() {
+		return expireTime;
+	}
+
+	RedisValue setExpireTime(long expireTime) {
+		this.expireTime = expireTime;
+		return this;
+	}
+
+	long getComputeMillis() {
+		return computeMillis;
+	}
+
+	RedisValue setComputeMillis(long computeMillis) {
+		this.computeMillis = computeMillis;
+		return this;
+	}
+
+	long getVersion() {
+		return version;
+	}
+
+	RedisValue setVersion(long version) {
+		this.version = version;
+		return this;
+	}
+
+}
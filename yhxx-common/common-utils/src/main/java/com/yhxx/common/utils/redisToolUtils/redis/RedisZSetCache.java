@@ -54,6 +54,7 @@ public  class RedisZSetCache<T> extends RedisAbstractCache<Set<ZSetTypedTuple<T>
 			if(seconds > 0) {
 				stringRedisTemplate.expire(_key, seconds, TimeUnit.SECONDS);
 			}
+			invalidateReplica(key);
 		}
 	}
 
@@ -73,6 +74,7 @@ public  class RedisZSetCache<T> extends RedisAbstractCache<Set<ZSetTypedTuple<T>
 	protected void addEmptyToCache(String key) {
 		String _key = buildKey(key);
 		zsetOps.add(_key, new TreeSet<ZSetOperations.TypedTuple<String>>() {});
+		invalidateReplica(key);
 	}
 
 	/**
@@ -80,22 +82,24 @@ public  class RedisZSetCache<T> extends RedisAbstractCache<Set<ZSetTypedTuple<T>
 	 */
 	@Override
 	public Boolean add(String key, T value, long rank) {
-		return zsetOps.add(buildKey(key), JsonUtils.toJson(objectMapper, value), rank);
+		Boolean added = zsetOps.add(buildKey(key), JsonUtils.toJson(objectMapper, value), rank);
+		invalidateReplica(key);
+		return added;
 	}
 
 
 	@Override
-	protected CachedObject<Set<ZSetTypedTuple<T>>> getFromCache(String key) {
+	protected CachedObject<Set<ZSetTypedTuple<T>>> getFromRedis(String key) {
 		String _key = buildKey(key);
 		Set<ZSetOperations.TypedTuple<String>> all = zsetOps.rangeWithScores(_key, 0L, Long.MAX_VALUE);
 		return asCachedObject(key, recoverValue(all), null);
 	}
 
 	@Override
-	protected List<CachedObject<Set<ZSetTypedTuple<T>>>> getFromCache(Collection<String> keys) {
+	protected List<CachedObject<Set<ZSetTypedTuple<T>>>> getFromRedis(Collection<String> keys) {
 		List<CachedObject<Set<ZSetTypedTuple<T>>>> list = new ArrayList<>();
 		for(String key : keys) {
-			list.add(getFromCache(key));
+			list.add(getFromRedis(key));
 		}
 		return list;
 	}
@@ -150,7 +154,9 @@ public  class RedisZSetCache<T> extends RedisAbstractCache<Set<ZSetTypedTuple<T>
 
 	@Override
 	public Long removeRange(String key, long startScore, long endScore) {
-		return zsetOps.removeRange(buildKey(key),startScore,endScore);
+		Long removed = zsetOps.removeRange(buildKey(key),startScore,endScore);
+		invalidateReplica(key);
+		return removed;
 	}
 
 
@@ -10,6 +10,9 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -236,6 +239,51 @@ public abstract class RedisGenericAbstractCache extends BasicService implements
         return null;
     }
 
+    @Override
+    public List<String> getAndFetch(Collection<String> keys, Function<Collection<String>, Map<String, String>> bulkFetcher) {
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<String> getAsync(String key) {
+        return getAsync(key, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public CompletableFuture<String> getAsync(String key, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> get(key), executor);
+    }
+
+    @Override
+    public CompletableFuture<String> getAndFetchAsync(String key, Function<String, CompletableFuture<String>> fetcher) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<String> getAndFetchAsync(String key, Function<String, CompletableFuture<String>> fetcher, Executor executor) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> addAsync(String key, String value) {
+        return addAsync(key, value, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public CompletableFuture<Void> addAsync(String key, String value, Executor executor) {
+        return CompletableFuture.runAsync(() -> add(key, value), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAsync(String key) {
+        return removeAsync(key, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAsync(String key, Executor executor) {
+        return CompletableFuture.runAsync(() -> remove(key), executor);
+    }
+
     @Override
     public void remove(String key) {
         stringRedisTemplate.delete(buildKey(key));
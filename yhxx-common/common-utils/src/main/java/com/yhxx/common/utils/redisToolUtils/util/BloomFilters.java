@@ -0,0 +1,88 @@
+package com.yhxx.common.utils.redisToolUtils.util;
+
+/**
+ * 布隆过滤器的位数、哈希函数个数及位下标的计算
+ *
+ * @author zsp
+ *
+ */
+public final class BloomFilters {
+
+	private BloomFilters() {
+	}
+
+	/**
+	 * 计算位数：m = -n * ln(p) / (ln2)^2
+	 *
+	 * @param expectedInsertions	预计的元素数量
+	 * @param fpp					误判率
+	 * @return
+	 */
+	public static long optimalNumOfBits(long expectedInsertions, double fpp) {
+		validate(expectedInsertions, fpp);
+		long bits = (long) (-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+		return Math.max(bits, Long.SIZE);
+	}
+
+	/**
+	 * 计算哈希函数个数：k = m / n * ln2
+	 *
+	 * @param expectedInsertions	预计的元素数量
+	 * @param numBits				位数
+	 * @return
+	 */
+	public static int optimalNumOfHashFunctions(long expectedInsertions, long numBits) {
+		return Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+	}
+
+	/**
+	 * 计算缓存键的位下标，使用双重哈希：h1 + i * h2
+	 *
+	 * @param key				缓存键
+	 * @param numHashFunctions	哈希函数个数
+	 * @param numBits			位数
+	 * @return
+	 */
+	public static long[] offsets(String key, int numHashFunctions, long numBits) {
+		long hash = hash64(key);
+		int hash1 = (int) hash;
+		int hash2 = (int) (hash >>> 32);
+		long[] offsets = new long[numHashFunctions];
+		long combinedHash = hash1;
+		for(int i = 0; i < numHashFunctions; i++) {
+			combinedHash += hash2;
+			offsets[i] = (combinedHash & Long.MAX_VALUE) % numBits;
+		}
+		return offsets;
+	}
+
+	/**
+	 * 64位的FNV-1a哈希，再经murmur3的fmix64混合
+	 *
+	 * @param key
+	 * @return
+	 */
+	private static long hash64(String key) {
+		long hash = 0xcbf29ce484222325L;
+		for(int i = 0, len = key.length(); i < len; i++) {
+			hash ^= key.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	private static void validate(long expectedInsertions, double fpp) {
+		if(expectedInsertions <= 0) {
+			throw new IllegalArgumentException("The expectedInsertions should be greater than 0.");
+		}
+		if(fpp <= 0 || fpp >= 1) {
+			throw new IllegalArgumentException("The fpp should be in (0, 1).");
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.yhxx.common.utils.redisToolUtils.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 线程安全的Count-Min Sketch，估算缓存键的访问次数；衰减时所有计数减半，使估算值随时间衰减。
+ *
+ * @author zsp
+ *
+ */
+public class CountMinSketch {
+
+	private final static int DEPTH = 4;
+
+	private final static long[] SEEDS = {
+			0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+	private final int width;
+
+	private final AtomicIntegerArray table;
+
+	/**
+	 *
+	 * @param width	每行的计数器数量，向上取整为2的幂
+	 */
+	public CountMinSketch(int width) {
+		if(width < 1) {
+			throw new IllegalArgumentException("The width should be larger than 0.");
+		}
+		this.width = width > 1 ? Integer.highestOneBit(Math.min(width, 1 << 26) - 1) << 1 : 1;
+		this.table = new AtomicIntegerArray(DEPTH * this.width);
+	}
+
+	/**
+	 * 记录一次访问
+	 *
+	 * @param key
+	 * @return 记录后的估算值
+	 */
+	public int increment(String key) {
+		int hash = spread(key.hashCode());
+		int frequency = Integer.MAX_VALUE;
+		for(int i = 0; i < DEPTH; i++) {
+			frequency = Math.min(frequency, table.incrementAndGet(i * width + indexOf(hash, i)));
+		}
+		return frequency;
+	}
+
+	/**
+	 * 估算访问次数
+	 *
+	 * @param key
+	 * @return
+	 */
+	public int frequency(String key) {
+		int hash = spread(key.hashCode());
+		int frequency = Integer.MAX_VALUE;
+		for(int i = 0; i < DEPTH; i++) {
+			frequency = Math.min(frequency, table.get(i * width + indexOf(hash, i)));
+		}
+		return frequency;
+	}
+
+	/**
+	 * 衰减：所有计数减半；与记录并发时可能丢失个别记录，不影响估算
+	 */
+	public void decay() {
+		for(int i = 0; i < table.length(); i++) {
+			int count = table.get(i);
+			if(count > 0) {
+				table.set(i, count >>> 1);
+			}
+		}
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	private int indexOf(int hash, int i) {
+		long h = (hash + SEEDS[i]) * SEEDS[i];
+		h += h >>> 32;
+		return ((int) h) & (width - 1);
+	}
+
+	private static int spread(int hash) {
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+		return (hash >>> 16) ^ hash;
+	}
+
+}
@@ -11,7 +11,7 @@ import java.util.concurrent.*;
  * @author zsp
  *
  */
-public class DefaultThreadFactory implements InitializingBean, DisposableBean {
+public class DefaultThreadFactory implements Executor, InitializingBean, DisposableBean {
 
 	//获取可用处理器的虚拟机的最大数量，
 	private int maxThreads = Runtime.getRuntime().availableProcessors();
@@ -31,6 +31,7 @@ public class DefaultThreadFactory implements InitializingBean, DisposableBean {
 		threadPool.shutdown();
 	}
 	
+	@Override
 	public void execute(Runnable command) {
 		if(command == null) {
 			return;
@@ -33,7 +33,7 @@ public class DelayEvictionQueue {
 		this.workerThreadFactory = workerThreadFactory;
 	}
 	
-	void start() {
+	public void start() {
 		final Thread masterThread = new Thread(() -> {
 			for(;;) {
 				CacheEvictionMessage message;
@@ -47,6 +47,15 @@ public class DelayEvictionQueue {
 				if(COMMAND_STOP.equals(key)) {
 					break;
 				}
+				final Runnable task = message.getTask();
+				if(task != null) {
+					if(workerThreadFactory != null) {
+						workerThreadFactory.execute(task);
+					} else {
+						task.run();
+					}
+					continue;
+				}
 				if(workerThreadFactory != null) {
 					workerThreadFactory.execute(() -> {
 						cache.remove(message.getKey());
@@ -61,7 +70,7 @@ public class DelayEvictionQueue {
 		masterThread.start();
 	}
 	
-	void stop() {
+	public void stop() {
 		messageQueue.put(new CacheEvictionMessage(COMMAND_STOP, cache.getDelayEvictMillis()));
 	}
 	
@@ -72,20 +81,44 @@ public class DelayEvictionQueue {
 		messageQueue.put(new CacheEvictionMessage(key, cache.getDelayEvictMillis()));
 	}
 	
+	/**
+	 * 延迟执行删除缓存的任务，例如删除一组缓存
+	 * 
+	 * @param task
+	 */
+	public void evict(Runnable task) {
+		if(task == null) {
+			throw new IllegalArgumentException("task");
+		}
+		messageQueue.put(new CacheEvictionMessage(task, cache.getDelayEvictMillis()));
+	}
+	
 	static class CacheEvictionMessage implements Delayed {
 
 		final private String key;
+		final private Runnable task;
 		final private long timestamp;
 		
 		CacheEvictionMessage(String key, long timeout) {
 			this.key = key;
+			this.task = null;
 			this.timestamp = System.currentTimeMillis() + timeout;;
 		}
+		
+		CacheEvictionMessage(Runnable task, long timeout) {
+			this.key = null;
+			this.task = task;
+			this.timestamp = System.currentTimeMillis() + timeout;
+		}
 
 		String getKey() {
 			return key;
 		}
 		
+		Runnable getTask() {
+			return task;
+		}
+		
 		long getTimestamp() {
 			return timestamp;
 		}
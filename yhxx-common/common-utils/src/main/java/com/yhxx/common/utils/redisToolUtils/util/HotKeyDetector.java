@@ -0,0 +1,323 @@
+package com.yhxx.common.utils.redisToolUtils.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热点缓存键探测：以Count-Min Sketch估算各缓存键的访问次数，每次衰减时所有计数减半；
+ * 估算值达到阈值的缓存键晋升为热点，在本地保存短时副本，之后的访问直接返回副本；
+ * 热点的衰减计数低于阈值的一半时降级，删除副本。
+ * 缓存键写入或删除时调用{@link #invalidate(String)}，在此之前开始的读取不会再写入副本。
+ *
+ * @author zsp
+ *
+ */
+public class HotKeyDetector {
+
+	private static final Logger logger = LoggerFactory.getLogger(HotKeyDetector.class);
+
+	private final static int WIDTH = 1 << 12;
+
+	/**
+	 * 保留的最近晋升与降级事件的数量
+	 */
+	private final static int MAX_EVENTS = 100;
+
+	/**
+	 * 失效戳的分段数量
+	 */
+	private final static int STAMP_STRIPES = 1 << 10;
+
+	private final String name;
+
+	/**
+	 * 晋升为热点的衰减访问次数
+	 */
+	private final int threshold;
+
+	/**
+	 * 热点的最大数量
+	 */
+	private final int maxHotKeys;
+
+	/**
+	 * 本地副本的有效时间（毫秒）
+	 */
+	private final long replicaMillis;
+
+	private final CountMinSketch sketch = new CountMinSketch(WIDTH);
+
+	private final Map<String, HotKey> hotKeys = new ConcurrentHashMap<String, HotKey>();
+
+	/**
+	 * 按缓存键分段的失效戳，每次失效时递增
+	 */
+	private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+
+	private final Deque<HotKeyEvent> events = new ConcurrentLinkedDeque<HotKeyEvent>();
+
+	private final LongAdder replicaHits = new LongAdder();
+
+	private final LongAdder promotions = new LongAdder();
+
+	private final LongAdder demotions = new LongAdder();
+
+	/**
+	 *
+	 * @param name			名称，用于日志
+	 * @param threshold		晋升为热点的衰减访问次数
+	 * @param maxHotKeys	热点的最大数量
+	 * @param replicaMillis	本地副本的有效时间（毫秒）
+	 */
+	public HotKeyDetector(String name, int threshold, int maxHotKeys, long replicaMillis) {
+		if(threshold < 1 || maxHotKeys < 1 || replicaMillis < 1) {
+			throw new IllegalArgumentException("The threshold, maxHotKeys and replicaMillis should be larger than 0.");
+		}
+		this.name = name;
+		this.threshold = threshold;
+		this.maxHotKeys = maxHotKeys;
+		this.replicaMillis = replicaMillis;
+	}
+
+	/**
+	 * 获取热点的本地副本，同时记录一次访问
+	 *
+	 * @param key
+	 * @return 副本，非热点或副本已失效时返回null
+	 */
+	public Object getReplica(String key) {
+		HotKey hotKey = hotKeys.get(key);
+		if(hotKey == null) {
+			return null;
+		}
+		hotKey.hits.increment();
+		Object value = hotKey.value;
+		if(value != null && System.currentTimeMillis() < hotKey.expireTime) {
+			replicaHits.increment();
+			return value;
+		}
+		return null;
+	}
+
+	/**
+	 * 获取缓存键当前的失效戳，应在从远程缓存读取之前获取
+	 *
+	 * @param key
+	 * @return
+	 */
+	public long stamp(String key) {
+		return stamps.get(indexOf(key));
+	}
+
+	/**
+	 * 记录一次从远程缓存获取的结果：热点更新副本；非热点记录访问，达到阈值时晋升。
+	 * 读取期间缓存键已失效（失效戳已改变）时只记录访问，不写入副本
+	 *
+	 * @param key
+	 * @param value	获取的值，不为null
+	 * @param stamp	读取之前获取的失效戳
+	 */
+	public void record(String key, Object value, long stamp) {
+		int index = indexOf(key);
+		Object replica = stamps.get(index) == stamp ? value : null;
+		HotKey hotKey = hotKeys.get(key);
+		if(hotKey != null) {
+			if(replica == null) {
+				return;
+			}
+			hotKey.replicate(replica, System.currentTimeMillis() + replicaMillis);
+		} else {
+			int frequency = sketch.increment(key);
+			if(frequency < threshold || hotKeys.size() >= maxHotKeys) {
+				return;
+			}
+			hotKey = new HotKey(frequency);
+			hotKey.replicate(replica, System.currentTimeMillis() + replicaMillis);
+			if(hotKeys.putIfAbsent(key, hotKey) != null) {
+				return;
+			}
+			promotions.increment();
+			addEvent(new HotKeyEvent(key, true, frequency));
+			logger.info(MessageFormat.format("{0} promoted hot key {1}, frequency: {2}.", name, key, frequency));
+		}
+		//写入副本期间失效的，删除刚写入的副本
+		if(replica != null && stamps.get(index) != stamp) {
+			hotKey.clear(replica);
+		}
+	}
+
+	/**
+	 * 删除副本并递增失效戳，热点状态保留，下次访问时从远程缓存重新获取；应在写入或删除远程缓存之后调用
+	 *
+	 * @param key
+	 */
+	public void invalidate(String key) {
+		stamps.incrementAndGet(indexOf(key));
+		HotKey hotKey = hotKeys.get(key);
+		if(hotKey != null) {
+			hotKey.value = null;
+		}
+	}
+
+	private int indexOf(String key) {
+		int h = key.hashCode();
+		return (h ^ (h >>> 16)) & (STAMP_STRIPES - 1);
+	}
+
+	/**
+	 * 衰减：所有计数减半，热点的衰减计数低于阈值的一半时降级。应按固定间隔调用
+	 */
+	public void decay() {
+		sketch.decay();
+		Iterator<Map.Entry<String, HotKey>> it = hotKeys.entrySet().iterator();
+		while(it.hasNext()) {
+			Map.Entry<String, HotKey> entry = it.next();
+			HotKey hotKey = entry.getValue();
+			long frequency = (hotKey.frequency >>> 1) + hotKey.hits.sumThenReset();
+			hotKey.frequency = frequency;
+			if(frequency < threshold / 2) {
+				it.remove();
+				demotions.increment();
+				addEvent(new HotKeyEvent(entry.getKey(), false, frequency));
+				logger.info(MessageFormat.format("{0} demoted hot key {1}, frequency: {2}.", name, entry.getKey(), frequency));
+			}
+		}
+	}
+
+	private void addEvent(HotKeyEvent event) {
+		events.addLast(event);
+		while(events.size() > MAX_EVENTS) {
+			events.pollFirst();
+		}
+	}
+
+	/**
+	 * 当前的热点缓存键
+	 *
+	 * @return
+	 */
+	public List<String> getHotKeys() {
+		return new ArrayList<String>(hotKeys.keySet());
+	}
+
+	/**
+	 * 最近的晋升与降级事件，按时间顺序
+	 *
+	 * @return
+	 */
+	public List<HotKeyEvent> getEvents() {
+		return new ArrayList<HotKeyEvent>(events);
+	}
+
+	/**
+	 * 命中本地副本的次数
+	 *
+	 * @return
+	 */
+	public long getReplicaHits() {
+		return replicaHits.longValue();
+	}
+
+	public long getPromotionCount() {
+		return promotions.longValue();
+	}
+
+	public long getDemotionCount() {
+		return demotions.longValue();
+	}
+
+	private static final class HotKey {
+
+		/**
+		 * 当前衰减周期内的访问次数
+		 */
+		final LongAdder hits = new LongAdder();
+
+		/**
+		 * 截至上次衰减的衰减计数，只由衰减线程修改
+		 */
+		volatile long frequency;
+
+		volatile Object value;
+
+		volatile long expireTime;
+
+		HotKey(long frequency) {
+			this.frequency = frequency;
+		}
+
+		void replicate(Object value, long expireTime) {
+			this.expireTime = expireTime;
+			this.value = value;
+		}
+
+		void clear(Object value) {
+			if(this.value == value) {
+				this.value = null;
+			}
+		}
+
+	}
+
+	/**
+	 * 热点的晋升或降级事件
+	 */
+	public static final class HotKeyEvent {
+
+		private final String key;
+		private final boolean promoted;
+		private final long frequency;
+		private final long time;
+
+		HotKeyEvent(String key, boolean promoted, long frequency) {
+			this.key = key;
+			this.promoted = promoted;
+			this.frequency = frequency;
+			this.time = System.currentTimeMillis();
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		/**
+		 * 是否为晋升，false为降级
+		 *
+		 * @return
+		 */
+		public boolean isPromoted() {
+			return promoted;
+		}
+
+		/**
+		 * 事件发生时的衰减访问次数
+		 *
+		 * @return
+		 */
+		public long getFrequency() {
+			return frequency;
+		}
+
+		public long getTime() {
+			return time;
+		}
+
+		@Override
+		public String toString() {
+			return (promoted ? "promoted " : "demoted ") + key + ", frequency: " + frequency + ", time: " + time;
+		}
+
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.yhxx.common.utils.redisToolUtils.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 简单的限速器：按固定速率发放许可，许可不足时阻塞等待；不积累空闲期间的许可。
+ *
+ * @author zsp
+ *
+ */
+public class RateLimiter {
+
+	/**
+	 * 每个许可的间隔（纳秒）
+	 */
+	private final double intervalNanos;
+
+	/**
+	 * 下一个许可可用的时间（纳秒）
+	 */
+	private long nextFreeNanos = System.nanoTime();
+
+	/**
+	 *
+	 * @param permitsPerSecond	每秒的许可数量
+	 */
+	public RateLimiter(int permitsPerSecond) {
+		if(permitsPerSecond <= 0) {
+			throw new IllegalArgumentException("The permits per second should be greater than 0.");
+		}
+		this.intervalNanos = (double) TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+	}
+
+	/**
+	 * 获取许可，不足时阻塞等待
+	 *
+	 * @param permits	许可数量
+	 * @throws InterruptedException
+	 */
+	public void acquire(int permits) throws InterruptedException {
+		long waitNanos;
+		synchronized(this) {
+			long now = System.nanoTime();
+			long start = Math.max(nextFreeNanos, now);
+			nextFreeNanos = start + (long) (permits * intervalNanos);
+			waitNanos = start - now;
+		}
+		if(waitNanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		}
+	}
+
+}
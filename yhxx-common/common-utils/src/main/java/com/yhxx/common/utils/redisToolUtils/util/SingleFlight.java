@@ -0,0 +1,119 @@
+package com.yhxx.common.utils.redisToolUtils.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 按键合并并发加载：同一个键同一时间只有一个线程执行加载，其它线程等待并共享该次加载的结果；
+ * 不同的键之间互不阻塞，可以并行加载。
+ *
+ * @author zsp
+ *
+ * @param <V>	加载结果的类型
+ */
+public class SingleFlight<V> {
+
+	/**
+	 * 正在进行中的加载
+	 */
+	private final ConcurrentMap<String, CompletableFuture<V>> calls = new ConcurrentHashMap<String, CompletableFuture<V>>();
+
+	/**
+	 * 执行加载；若同一个键已有加载在进行中，则等待其完成并返回其结果
+	 *
+	 * @param key		键
+	 * @param loader	加载代理
+	 * @return
+	 */
+	public V execute(String key, Supplier<V> loader) {
+		CompletableFuture<V> call = new CompletableFuture<V>();
+		CompletableFuture<V> existing = calls.putIfAbsent(key, call);
+		if(existing != null) {
+			return await(existing);
+		}
+		try {
+			V result = loader.get();
+			call.complete(result);
+			return result;
+		} catch(Throwable t) {
+			call.completeExceptionally(t);
+			throw t;
+		} finally {
+			calls.remove(key, call);
+		}
+	}
+
+	/**
+	 * 异步执行加载；若同一个键已有加载（同步或异步）在进行中，则返回该次加载的结果
+	 *
+	 * @param key		键
+	 * @param loader	异步加载代理
+	 * @return
+	 */
+	public CompletableFuture<V> executeAsync(String key, Supplier<CompletableFuture<V>> loader) {
+		CompletableFuture<V> call = new CompletableFuture<V>();
+		CompletableFuture<V> existing = calls.putIfAbsent(key, call);
+		if(existing != null) {
+			//返回依赖的结果，防止调用方取消共享的加载
+			return existing.thenApply(Function.identity());
+		}
+		try {
+			loader.get().whenComplete((result, t) -> {
+				calls.remove(key, call);
+				if(t != null) {
+					call.completeExceptionally(t);
+				} else {
+					call.complete(result);
+				}
+			});
+		} catch(Throwable t) {
+			calls.remove(key, call);
+			call.completeExceptionally(t);
+		}
+		return call.thenApply(Function.identity());
+	}
+
+	/**
+	 * 当前正在加载的键的数量
+	 *
+	 * @return
+	 */
+	public int size() {
+		return calls.size();
+	}
+
+	private V await(CompletableFuture<V> call) {
+		boolean interrupted = false;
+		try {
+			for(;;) {
+				try {
+					return call.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					throw propagate(e.getCause());
+				}
+			}
+		} finally {
+			if(interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private RuntimeException propagate(Throwable cause) {
+		if(cause instanceof RuntimeException) {
+			throw (RuntimeException)cause;
+		}
+		if(cause instanceof Error) {
+			throw (Error)cause;
+		}
+		throw new CompletionException(cause);
+	}
+
+}
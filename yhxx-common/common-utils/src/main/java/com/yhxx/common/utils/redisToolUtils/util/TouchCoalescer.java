@@ -0,0 +1,189 @@
+package com.yhxx.common.utils.redisToolUtils.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 合并缓存命中时的延长生命周期操作：命中时只在本地记录，由后台线程定时批量延长；
+ * 最近已延长过的缓存键在跳过时长内不再重复延长。
+ *
+ * @author zsp
+ *
+ */
+public class TouchCoalescer {
+
+	private static final Logger logger = LoggerFactory.getLogger(TouchCoalescer.class);
+
+	/**
+	 * 每批延长的缓存键的最大数量
+	 */
+	private final static int BATCH_SIZE = 500;
+
+	private final String name;
+
+	/**
+	 * 批量延长的代理
+	 */
+	private final Consumer<Collection<String>> flusher;
+
+	/**
+	 * 待延长的缓存键
+	 */
+	private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * 缓存键在此时间（毫秒）之前不再重复延长，只保留未到期的
+	 */
+	private final Map<String, Long> skipUntilTimes = new ConcurrentHashMap<String, Long>();
+
+	private final LongAdder flushed = new LongAdder();
+
+	private final LongAdder skipped = new LongAdder();
+
+	/**
+	 * 跳过时长占失效时间的比例
+	 */
+	private final float skipRatio;
+
+	private ScheduledExecutorService flushExecutor;
+
+	/**
+	 *
+	 * @param name		名称，用于线程名与日志
+	 * @param skipRatio	跳过时长占失效时间的比例，在此时长内已延长过的不再延长；0表示不跳过
+	 * @param flusher	批量延长的代理，例如以管道批量执行EXPIRE
+	 */
+	public TouchCoalescer(String name, float skipRatio, Consumer<Collection<String>> flusher) {
+		if(flusher == null) {
+			throw new IllegalArgumentException("flusher");
+		}
+		if(skipRatio < 0 || skipRatio >= 1) {
+			throw new IllegalArgumentException("The skip ratio should be in [0, 1).");
+		}
+		this.name = name;
+		this.skipRatio = skipRatio;
+		this.flusher = flusher;
+	}
+
+	/**
+	 * 开始定时批量延长
+	 *
+	 * @param flushMillis	批量延长的间隔（毫秒）
+	 */
+	public synchronized void start(long flushMillis) {
+		if(flushMillis <= 0) {
+			throw new IllegalArgumentException("The flush interval should be greater than 0.");
+		}
+		if(flushExecutor == null) {
+			flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "cache-touch-flush");
+				thread.setDaemon(true);
+				return thread;
+			});
+			flushExecutor.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * 停止定时批量延长，并延长剩余的缓存键
+	 */
+	public synchronized void stop() {
+		if(flushExecutor != null) {
+			flushExecutor.shutdown();
+			flushExecutor = null;
+		}
+		flush();
+	}
+
+	/**
+	 * 记录缓存键的命中
+	 *
+	 * @param key				缓存键
+	 * @param expiredMillis		缓存键的失效时间（毫秒），按跳过比例计算跳过时长
+	 */
+	public void touch(String key, long expiredMillis) {
+		long skipMillis = (long)(expiredMillis * skipRatio);
+		if(skipMillis > 0) {
+			long now = System.currentTimeMillis();
+			Long skipUntil = skipUntilTimes.get(key);
+			if(skipUntil != null && now < skipUntil) {
+				skipped.increment();
+				return;
+			}
+			skipUntilTimes.put(key, now + skipMillis);
+		}
+		pendingKeys.add(key);
+	}
+
+	/**
+	 * 批量延长待延长的缓存键，并清理已超过跳过时长的记录
+	 */
+	public void flush() {
+		try {
+			List<String> batch = new ArrayList<String>();
+			Iterator<String> it = pendingKeys.iterator();
+			while(it.hasNext()) {
+				batch.add(it.next());
+				it.remove();
+				if(batch.size() >= BATCH_SIZE) {
+					flush(batch);
+					batch = new ArrayList<String>();
+				}
+			}
+			flush(batch);
+			long now = System.currentTimeMillis();
+			skipUntilTimes.values().removeIf(skipUntil -> skipUntil <= now);
+		} catch(Throwable t) {
+			logger.error(MessageFormat.format("Exception occured when {0} flush the touched keys.", name), t);
+		}
+	}
+
+	private void flush(List<String> batch) {
+		if(batch.size() > 0) {
+			flusher.accept(batch);
+			flushed.add(batch.size());
+		}
+	}
+
+	/**
+	 * 待延长的缓存键的数量
+	 *
+	 * @return
+	 */
+	public int getPendingCount() {
+		return pendingKeys.size();
+	}
+
+	/**
+	 * 已批量延长的次数（按缓存键计）
+	 *
+	 * @return
+	 */
+	public long getFlushedCount() {
+		return flushed.longValue();
+	}
+
+	/**
+	 * 因最近已延长过而跳过的次数
+	 *
+	 * @return
+	 */
+	public long getSkippedCount() {
+		return skipped.longValue();
+	}
+
+}
@@ -0,0 +1,280 @@
+package com.yhxx.common.utils.redisToolUtils.util;
+
+import com.yhxx.common.utils.redisToolUtils.metrics.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.MessageFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 后写队列：按键合并写入（后写入的覆盖先写入的），由后台线程在数量达到批次大小或达到间隔时分批写出；
+ * 队列中的键达到容量时，写入新键的线程阻塞等待，形成背压。
+ *
+ * @author zsp
+ *
+ * @param <T>
+ */
+public class WriteBehindQueue<T> {
+
+	private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+	private final String name;
+
+	/**
+	 * 批量写出的代理
+	 */
+	private final Consumer<Map<String, T>> writer;
+
+	private final int capacity;
+
+	private final int batchSize;
+
+	private final long flushNanos;
+
+	/**
+	 * 待写出的数据，按首次写入的顺序
+	 */
+	private final LinkedHashMap<String, T> pending = new LinkedHashMap<String, T>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition notFull = lock.newCondition();
+
+	private final Condition flushNeeded = lock.newCondition();
+
+	/**
+	 * 写出的耗时
+	 */
+	private final LatencyHistogram flushLatency;
+
+	private final LongAdder flushed = new LongAdder();
+
+	private final LongAdder failures = new LongAdder();
+
+	private volatile boolean running;
+
+	private Thread flusher;
+
+	/**
+	 *
+	 * @param name			名称，用于线程名与日志
+	 * @param writer		批量写出的代理
+	 * @param capacity		最多缓冲的键的数量
+	 * @param batchSize		每批写出的最大数量
+	 * @param flushMillis	写出的最大间隔（毫秒）
+	 * @param flushLatency	记录写出耗时的直方图，为null时不记录
+	 */
+	public WriteBehindQueue(String name, Consumer<Map<String, T>> writer,
+			int capacity, int batchSize, long flushMillis, LatencyHistogram flushLatency) {
+		if(writer == null) {
+			throw new IllegalArgumentException("writer");
+		}
+		if(capacity < 1 || batchSize < 1 || flushMillis < 1) {
+			throw new IllegalArgumentException("The capacity, batchSize and flushMillis should be larger than 0.");
+		}
+		this.name = name;
+		this.writer = writer;
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+		this.flushLatency = flushLatency;
+	}
+
+	public synchronized void start() {
+		if(running) {
+			return;
+		}
+		running = true;
+		flusher = new Thread(this::run, "cache-write-behind");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/**
+	 * 停止后台线程，并写出全部剩余的数据
+	 */
+	public synchronized void stop() {
+		if(!running) {
+			return;
+		}
+		lock.lock();
+		try {
+			running = false;
+			flushNeeded.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			flusher.join();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flusher = null;
+		Map<String, T> batch;
+		while((batch = drain()).size() > 0) {
+			if(!write(batch)) {
+				logger.error(MessageFormat.format("{0} dropped {1} writes when stop.", name, batch.size() + size()));
+				break;
+			}
+		}
+	}
+
+	/**
+	 * 写入数据；队列已满且为新键时阻塞等待
+	 *
+	 * @param key	缓存键
+	 * @param value	数据
+	 */
+	public void put(String key, T value) {
+		lock.lock();
+		try {
+			while(running && pending.size() >= capacity && !pending.containsKey(key)) {
+				try {
+					notFull.await();
+				} catch(InterruptedException e) {
+					//不丢弃写入，超出容量写入
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			pending.put(key, value);
+			if(pending.size() >= batchSize) {
+				flushNeeded.signal();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 批量写入数据
+	 *
+	 * @param values
+	 */
+	public void putAll(Map<String, T> values) {
+		for(Map.Entry<String, T> entry : values.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private void run() {
+		boolean failed = false;
+		while(running) {
+			Map<String, T> batch;
+			lock.lock();
+			try {
+				long remaining = flushNanos;
+				//写出失败后等待一个完整的间隔再重试
+				while(running && remaining > 0 && (failed || pending.size() < batchSize)) {
+					try {
+						remaining = flushNeeded.awaitNanos(remaining);
+					} catch(InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+				if(!running) {
+					return;
+				}
+				batch = drain();
+			} finally {
+				lock.unlock();
+			}
+			failed = batch.size() > 0 && !write(batch);
+		}
+	}
+
+	/**
+	 * 取出一批待写出的数据
+	 */
+	private Map<String, T> drain() {
+		lock.lock();
+		try {
+			Map<String, T> batch = new LinkedHashMap<String, T>();
+			Iterator<Map.Entry<String, T>> it = pending.entrySet().iterator();
+			while(it.hasNext() && batch.size() < batchSize) {
+				Map.Entry<String, T> entry = it.next();
+				batch.put(entry.getKey(), entry.getValue());
+				it.remove();
+			}
+			if(batch.size() > 0) {
+				notFull.signalAll();
+			}
+			return batch;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 写出一批数据，失败时放回队列，已有更新的键保留更新的数据
+	 *
+	 * @return 是否成功
+	 */
+	private boolean write(Map<String, T> batch) {
+		long start = System.nanoTime();
+		try {
+			writer.accept(batch);
+			flushed.add(batch.size());
+			return true;
+		} catch(Throwable t) {
+			failures.increment();
+			logger.error(MessageFormat.format("Exception occured when {0} write behind {1} values.", name, batch.size()), t);
+			lock.lock();
+			try {
+				for(Map.Entry<String, T> entry : batch.entrySet()) {
+					pending.putIfAbsent(entry.getKey(), entry.getValue());
+				}
+			} finally {
+				lock.unlock();
+			}
+			return false;
+		} finally {
+			if(flushLatency != null) {
+				flushLatency.record(System.nanoTime() - start);
+			}
+		}
+	}
+
+	/**
+	 * 待写出的键的数量
+	 *
+	 * @return
+	 */
+	public int size() {
+		lock.lock();
+		try {
+			return pending.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 已写出的数量
+	 *
+	 * @return
+	 */
+	public long getFlushedCount() {
+		return flushed.longValue();
+	}
+
+	/**
+	 * 写出失败的批次数量
+	 *
+	 * @return
+	 */
+	public long getFailureCount() {
+		return failures.longValue();
+	}
+
+}
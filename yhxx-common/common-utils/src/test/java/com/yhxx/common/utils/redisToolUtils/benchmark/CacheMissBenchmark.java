@@ -0,0 +1,133 @@
+package com.yhxx.common.utils.redisToolUtils.benchmark;
+
+import com.yhxx.common.utils.redisToolUtils.AbstractCache;
+import com.yhxx.common.utils.redisToolUtils.GenericCacheFactory;
+import com.yhxx.common.utils.redisToolUtils.injvm.InjvmCache;
+import com.yhxx.common.utils.redisToolUtils.redis.RedisCache;
+import com.yhxx.common.utils.redisToolUtils.redis.RedisCacheFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 缓存未命中的并发基准：每次调用以新的键执行getAndFetch，加载耗时loadMillis毫秒，
+ * 不同键的加载并行执行时吞吐量随线程数增长，整个缓存加锁时吞吐量不随线程数变化。
+ * main方法依次以1至32个线程执行，输出每种缓存在各线程数下的吞吐量。
+ *
+ * redis缓存连接redis.host、redis.port（默认localhost:6379），没有redis时以-Dcache.types=injvm只执行InjvmCache。
+ * 执行：mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.yhxx.common.utils.redisToolUtils.benchmark.CacheMissBenchmark
+ *
+ * @author zsp
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheMissBenchmark {
+
+	private final static int[] THREADS = {1, 2, 4, 8, 16, 32};
+
+	@Param({"injvm", "redis"})
+	private String type;
+
+	@Param({"1"})
+	private int loadMillis;
+
+	/**
+	 * 键的前缀，每次执行不同，redis中上次执行写入的键不会命中
+	 */
+	private final String prefix = Long.toString(System.nanoTime(), 36) + ":";
+	private final AtomicLong sequence = new AtomicLong();
+
+	private Function<String, String> fetcher;
+	private AbstractCache<String> cache;
+	private JedisConnectionFactory connectionFactory;
+
+	@Setup
+	public void setUp() {
+		fetcher = key -> {
+			try {
+				Thread.sleep(loadMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return key;
+		};
+		if("redis".equals(type)) {
+			JedisPoolConfig poolConfig = new JedisPoolConfig();
+			poolConfig.setMaxTotal(THREADS[THREADS.length - 1]);
+			poolConfig.setMaxIdle(THREADS[THREADS.length - 1]);
+			connectionFactory = new JedisConnectionFactory(poolConfig);
+			connectionFactory.setHostName(System.getProperty("redis.host", "localhost"));
+			connectionFactory.setPort(Integer.getInteger("redis.port", 6379));
+			connectionFactory.afterPropertiesSet();
+			RedisCacheFactory factory = new RedisCacheFactory();
+			factory.setAppName("benchmark");
+			factory.setStringRedisTemplate(new StringRedisTemplate(connectionFactory));
+			cache = new RedisCache<String>(factory, "miss", null, String.class);
+		} else {
+			cache = new InjvmCache<String>(new GenericCacheFactory(), "miss");
+		}
+		//键只读取一次，短的失效时间避免redis中的键累积
+		cache.setExpiredSeconds(60);
+		cache.start();
+	}
+
+	@TearDown
+	public void tearDown() {
+		cache.stop();
+		if(connectionFactory != null) {
+			connectionFactory.destroy();
+		}
+	}
+
+	@Benchmark
+	public String miss() {
+		return cache.getAndFetch(prefix + sequence.incrementAndGet(), fetcher);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		String[] types = System.getProperty("cache.types", "injvm,redis").split(",");
+		StringBuilder report = new StringBuilder();
+		for(int threads : THREADS) {
+			Options options = new OptionsBuilder()
+					.include(CacheMissBenchmark.class.getName())
+					.param("type", types)
+					.threads(threads)
+					.build();
+			for(RunResult result : new Runner(options).run()) {
+				report.append(MessageFormat.format("{0}\tthreads={1}\t{2,number,#.#} {3}\n",
+						result.getParams().getParam("type"), threads,
+						result.getPrimaryResult().getScore(), result.getPrimaryResult().getScoreUnit()));
+			}
+		}
+		System.out.print(report);
+	}
+
+}
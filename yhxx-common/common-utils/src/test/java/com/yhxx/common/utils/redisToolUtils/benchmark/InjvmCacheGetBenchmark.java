@@ -0,0 +1,111 @@
+package com.yhxx.common.utils.redisToolUtils.benchmark;
+
+import com.yhxx.common.utils.redisToolUtils.GenericCacheFactory;
+import com.yhxx.common.utils.redisToolUtils.injvm.InjvmCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * InjvmCache命中时的分配基准：以-prof gc执行，命中的get与getAndFetch的gc.alloc.rate.norm应为0 B/op，
+ * main方法在任一基准超过1 B/op时抛出异常。
+ *
+ * 执行：mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.yhxx.common.utils.redisToolUtils.benchmark.InjvmCacheGetBenchmark
+ *
+ * @author zsp
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InjvmCacheGetBenchmark {
+
+	/**
+	 * 缓存的键数量，为2的幂
+	 */
+	private final static int KEY_COUNT = 1024;
+
+	/**
+	 * 允许的每次调用的分配字节数，高于0以容忍统计误差
+	 */
+	private final static double MAX_BYTES_PER_OP = 1.0;
+
+	private final Function<String, String> fetcher = key -> key;
+
+	private InjvmCache<String> cache;
+	private String[] keys;
+	private int index;
+
+	@Setup
+	public void setUp() {
+		cache = new InjvmCache<String>(new GenericCacheFactory(), "benchmark");
+		cache.setExpiredSeconds(3600);
+		cache.start();
+		keys = new String[KEY_COUNT];
+		for(int i = 0; i < KEY_COUNT; i++) {
+			keys[i] = "key" + i;
+			cache.add(keys[i], "value" + i);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		cache.stop();
+	}
+
+	@Benchmark
+	public String get() {
+		return cache.get(nextKey());
+	}
+
+	@Benchmark
+	public String getAndFetch() {
+		return cache.getAndFetch(nextKey(), fetcher);
+	}
+
+	private String nextKey() {
+		return keys[index++ & (KEY_COUNT - 1)];
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(InjvmCacheGetBenchmark.class.getName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		for(RunResult result : new Runner(options).run()) {
+			for(Map.Entry<String, Result> entry : result.getSecondaryResults().entrySet()) {
+				//jmh 1.21的指标名以"·"开头
+				if(entry.getKey().endsWith("gc.alloc.rate.norm")
+						&& entry.getValue().getScore() > MAX_BYTES_PER_OP) {
+					throw new IllegalStateException(MessageFormat.format("{0} allocates {1} bytes per op.",
+							result.getParams().getBenchmark(), entry.getValue().getScore()));
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.yhxx.common.utils.redisToolUtils.benchmark;
+
+import com.yhxx.common.utils.redisToolUtils.GenericCacheFactory;
+import com.yhxx.common.utils.redisToolUtils.injvm.InjvmBoundedCache;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * 命中率模拟：以固定种子生成Zipf分布的访问序列，比较相同容量下InjvmBoundedCache（W-TinyLFU）与LRU的命中率。
+ * 默认参数（100000个键、容量1000、指数0.9、2000000次访问）下W-TinyLFU约为45%，LRU约为34%。
+ *
+ * 参数以系统属性设置：keys、capacity、exponent、operations、seed。
+ * 执行：mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.yhxx.common.utils.redisToolUtils.benchmark.ZipfHitRatioSimulation
+ *
+ * @author zsp
+ *
+ */
+public class ZipfHitRatioSimulation {
+
+	public static void main(String[] args) {
+		int keyCount = Integer.getInteger("keys", 100000);
+		final int capacity = Integer.getInteger("capacity", 1000);
+		double exponent = Double.parseDouble(System.getProperty("exponent", "0.9"));
+		int operations = Integer.getInteger("operations", 2000000);
+		Random random = new Random(Long.getLong("seed", 1L));
+
+		//访问第i个键的累计概率（未归一化）
+		double[] cdf = new double[keyCount];
+		double sum = 0;
+		for(int i = 0; i < keyCount; i++) {
+			sum += 1.0 / Math.pow(i + 1, exponent);
+			cdf[i] = sum;
+		}
+
+		InjvmBoundedCache<String> tinyLfu = new InjvmBoundedCache<String>(new GenericCacheFactory(), "simulation", capacity);
+		tinyLfu.start();
+		Map<String, String> lru = new LinkedHashMap<String, String>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+				return size() > capacity;
+			}
+		};
+
+		final long[] tinyLfuMisses = new long[1];
+		Function<String, String> fetcher = key -> {
+			tinyLfuMisses[0]++;
+			return key;
+		};
+		long lruHits = 0;
+		for(int i = 0; i < operations; i++) {
+			int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+			String key = "key" + (index < 0 ? -index - 1 : index);
+			tinyLfu.getAndFetch(key, fetcher);
+			if(lru.get(key) != null) {
+				lruHits++;
+			} else {
+				lru.put(key, key);
+			}
+		}
+		tinyLfu.stop();
+
+		System.out.println(MessageFormat.format("keys={0,number,#} capacity={1,number,#} exponent={2} operations={3,number,#}",
+				keyCount, capacity, exponent, operations));
+		System.out.println(MessageFormat.format("W-TinyLFU hit ratio={0,number,#.####} evictions={1,number,#}",
+				1 - (double) tinyLfuMisses[0] / operations, tinyLfu.getEvictionCount()));
+		System.out.println(MessageFormat.format("LRU hit ratio={0,number,#.####}",
+				(double) lruHits / operations));
+	}
+
+}